@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads.benchmarks;
+
+import net.openhft.chronicle.threads.BusyPauser;
+import net.openhft.chronicle.threads.MediumEventLoop;
+
+/**
+ * A {@link MediumEventLoop} which is never started, so the handler dispatch methods can be driven
+ * directly from a benchmark thread.
+ */
+final class BenchmarkEventLoop extends MediumEventLoop {
+
+    BenchmarkEventLoop(String name) {
+        super(null, name, BusyPauser.INSTANCE, true, "none");
+    }
+
+    boolean runMediumHandlers() {
+        return runAllMediumHandler();
+    }
+
+    boolean runMediumHandlersGenerated() {
+        return runAllMediumHandlerGenerated();
+    }
+
+    boolean runHandlers() {
+        return runAllHandlers();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads.benchmarks;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Cheap handlers used to measure dispatch cost. There are eight distinct classes so a mix of them
+ * makes the {@code action()} call sites in the event loop megamorphic.
+ */
+public enum BenchmarkHandlers {
+    ; // none
+
+    static final int DISTINCT_CLASSES = 8;
+
+    public enum HandlerMix {
+        /**
+         * every handler is the same class
+         */
+        MONOMORPHIC,
+        /**
+         * handler classes are assigned round-robin from {@link #DISTINCT_CLASSES} classes
+         */
+        MEGAMORPHIC
+    }
+
+    static EventHandler newHandler(HandlerMix mix, int index) {
+        switch (mix == HandlerMix.MONOMORPHIC ? 0 : index % DISTINCT_CLASSES) {
+            case 0:
+                return new Handler0();
+            case 1:
+                return new Handler1();
+            case 2:
+                return new Handler2();
+            case 3:
+                return new Handler3();
+            case 4:
+                return new Handler4();
+            case 5:
+                return new Handler5();
+            case 6:
+                return new Handler6();
+            case 7:
+                return new Handler7();
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    /**
+     * Each handler class has its own {@code action()} so the JIT sees a distinct target per class.
+     */
+    abstract static class CountingHandler implements EventHandler {
+        long count;
+    }
+
+    static final class HighHandler extends CountingHandler {
+        @Override
+        public boolean action() {
+            return (++count & 0xFF) == 0;
+        }
+
+        @NotNull
+        @Override
+        public HandlerPriority priority() {
+            return HandlerPriority.HIGH;
+        }
+    }
+
+    static final class Handler0 extends CountingHandler {
+        @Override
+        public boolean action() {
+            return (++count & 0xFF) == 0;
+        }
+    }
+
+    static final class Handler1 extends CountingHandler {
+        @Override
+        public boolean action() {
+            return (++count & 0xFF) == 0;
+        }
+    }
+
+    static final class Handler2 extends CountingHandler {
+        @Override
+        public boolean action() {
+            return (++count & 0xFF) == 0;
+        }
+    }
+
+    static final class Handler3 extends CountingHandler {
+        @Override
+        public boolean action() {
+            return (++count & 0xFF) == 0;
+        }
+    }
+
+    static final class Handler4 extends CountingHandler {
+        @Override
+        public boolean action() {
+            return (++count & 0xFF) == 0;
+        }
+    }
+
+    static final class Handler5 extends CountingHandler {
+        @Override
+        public boolean action() {
+            return (++count & 0xFF) == 0;
+        }
+    }
+
+    static final class Handler6 extends CountingHandler {
+        @Override
+        public boolean action() {
+            return (++count & 0xFF) == 0;
+        }
+    }
+
+    static final class Handler7 extends CountingHandler {
+        @Override
+        public boolean action() {
+            return (++count & 0xFF) == 0;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads.benchmarks;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.threads.BlockingEventLoop;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares a {@code BlockingEventLoop} running each handler on a platform thread with one using virtual threads.
+ * <p>
+ * Each handler blocks for {@code blockUS} per {@code action()}, as a handler waiting on a socket or JDBC call would.
+ * {@code actions} is the total rate of {@code action()} calls across all handlers.
+ * The number of live JVM threads and, on Linux, the resident set size in KB, which is where the stack of each platform thread shows up,
+ * are reported as the secondary results {@code threads} and {@code rssKB}, averaged over the measurement iterations.
+ * {@code virtualThreads=true} needs Java 21+.
+ * <pre>
+ * java -jar microbenchmarks/target/benchmarks.jar BlockingEventLoopBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingEventLoopBenchmark {
+
+    @Param({"1000"})
+    public int handlers;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"100"})
+    public int blockUS;
+
+    private final LongAdder actions = new LongAdder();
+    private BlockingEventLoop eventLoop;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(BlockingEventLoopBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventLoop = new BlockingEventLoop("blocking-benchmark");
+        eventLoop.virtualThreads(virtualThreads);
+        if (eventLoop.isVirtualThreads() != virtualThreads)
+            throw new IllegalStateException("Virtual threads need Java 21+");
+        final long blockNS = TimeUnit.MICROSECONDS.toNanos(blockUS);
+        for (int i = 0; i < handlers; i++)
+            eventLoop.addHandler(() -> {
+                LockSupport.parkNanos(blockNS);
+                actions.increment();
+                return true;
+            });
+        eventLoop.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventLoop.close();
+    }
+
+    /**
+     * @return the resident set size in KB, or 0 if it isn't known
+     */
+    static long residentSetSizeKB() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                // e.g. VmRSS:	  123456 kB
+                if (line.startsWith("VmRSS:"))
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        } catch (IOException | NumberFormatException e) {
+            // not Linux
+        }
+        return 0;
+    }
+
+    /**
+     * The rate of {@code action()} calls across all the handlers
+     */
+    @Benchmark
+    public void actions(ActionCounter counter) {
+        final long before = actions.sum();
+        Jvm.pause(10);
+        counter.actions += actions.sum() - before;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ActionCounter {
+        public long actions;
+        // EVENTS are summed over the iterations, so each iteration adds its share of the average
+        public double threads;
+        public double rssKB;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            actions = 0;
+        }
+
+        // after the measurement, but before the counters are read
+        @TearDown(Level.Iteration)
+        public void gauges(IterationParams params) {
+            threads = (double) ManagementFactory.getThreadMXBean().getThreadCount() / params.getCount();
+            rssKB = (double) residentSetSizeKB() / params.getCount();
+        }
+    }
+}
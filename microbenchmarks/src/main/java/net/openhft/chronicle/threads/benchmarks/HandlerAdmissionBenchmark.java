@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads.benchmarks;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.threads.BusyPauser;
+import net.openhft.chronicle.threads.MediumEventLoop;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how quickly handlers can be added to a running {@code MediumEventLoop} by several producer threads.
+ * <p>
+ * {@code addHandler} is the producer side throughput, {@code addToLoopStarted} is the time from calling
+ * {@code addHandler} until the event loop thread calls {@code loopStarted()} on that handler.
+ * Each handler removes itself on its first {@code action()} so the handler arrays stay small.
+ * <pre>
+ * java -jar microbenchmarks/target/benchmarks.jar HandlerAdmissionBenchmark -t 8
+ * </pre>
+ * Use {@code -t} to vary the number of producers, e.g. 1, 2, 4, 8, 16, 32.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HandlerAdmissionBenchmark {
+
+    public static void main(String[] args) throws RunnerException {
+        for (int producers : new int[]{1, 2, 4, 8, 16, 32}) {
+            Options opt = new OptionsBuilder()
+                    .include(HandlerAdmissionBenchmark.class.getSimpleName())
+                    .threads(producers)
+                    .build();
+            new Runner(opt).run();
+        }
+    }
+
+    @Benchmark
+    public void addHandler(LoopState loop) {
+        loop.eventLoop.addHandler(new SelfRemovingHandler());
+    }
+
+    @Benchmark
+    public void addToLoopStarted(LoopState loop, ProducerState producer) {
+        final SelfRemovingHandler handler = producer.handler;
+        handler.started = false;
+        loop.eventLoop.addHandler(handler);
+        while (!handler.started)
+            Jvm.nanoPause();
+    }
+
+    @State(Scope.Benchmark)
+    public static class LoopState {
+        MediumEventLoop eventLoop;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            eventLoop = new MediumEventLoop(null, "admission-benchmark", BusyPauser.INSTANCE, true, "none");
+            eventLoop.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            eventLoop.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState {
+        // reused so the latency measurement doesn't include allocation
+        final SelfRemovingHandler handler = new SelfRemovingHandler();
+    }
+
+    static final class SelfRemovingHandler implements EventHandler {
+        volatile boolean started;
+
+        @Override
+        public void loopStarted() {
+            started = true;
+        }
+
+        @Override
+        public boolean action() throws InvalidEventHandlerException {
+            throw InvalidEventHandlerException.reusable();
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return "SelfRemovingHandler";
+        }
+    }
+}
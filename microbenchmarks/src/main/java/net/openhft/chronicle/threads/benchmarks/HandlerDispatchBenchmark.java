@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads.benchmarks;
+
+import net.openhft.chronicle.threads.benchmarks.BenchmarkHandlers.HandlerMix;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of one pass over the handlers of a {@code MediumEventLoop}, i.e. one iteration
+ * of the core loop excluding timers and pausing.
+ * <p>
+ * {@code runAllMediumHandler} is the path taken when there is no HIGH handler, {@code runAllHandlers}
+ * the path taken when there is one. Handler counts either side of 4 show whether the unrolled switch pays off.
+ * {@code runAllMediumHandlerGenerated} is the path taken instead of {@code runAllMediumHandler} with
+ * {@code MediumEventLoop.generatedDispatch(true)}, compare the two at 5 to 12 megamorphic handlers,
+ * above {@code eventloop.generated.dispatch.max.handlers} it falls back to the same loop.
+ * <pre>
+ * mvn -f microbenchmarks/pom.xml package
+ * java -jar microbenchmarks/target/benchmarks.jar HandlerDispatchBenchmark
+ * </pre>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class HandlerDispatchBenchmark {
+
+    @Param({"0", "1", "4", "5", "8", "12", "16", "32", "64", "256"})
+    public int handlers;
+
+    @Param({"MONOMORPHIC", "MEGAMORPHIC"})
+    public HandlerMix mix;
+
+    @Param({"false", "true"})
+    public boolean highHandler;
+
+    private BenchmarkEventLoop eventLoop;
+    private BenchmarkEventLoop generatedEventLoop;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(HandlerDispatchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventLoop = new BenchmarkEventLoop("dispatch-benchmark");
+        if (highHandler)
+            eventLoop.addHandler(new BenchmarkHandlers.HighHandler());
+        for (int i = 0; i < handlers; i++)
+            eventLoop.addHandler(BenchmarkHandlers.newHandler(mix, i));
+
+        generatedEventLoop = new BenchmarkEventLoop("generated-dispatch-benchmark");
+        generatedEventLoop.generatedDispatch(true);
+        for (int i = 0; i < handlers; i++)
+            generatedEventLoop.addHandler(BenchmarkHandlers.newHandler(mix, i));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventLoop.close();
+        generatedEventLoop.close();
+    }
+
+    /**
+     * The path the core loop takes when there is no HIGH handler, with a HIGH handler present it is not called by the loop
+     */
+    @Benchmark
+    public boolean runAllMediumHandler() {
+        return eventLoop.runMediumHandlers();
+    }
+
+    /**
+     * The path the core loop takes when there is no HIGH handler and generated dispatch is on
+     */
+    @Benchmark
+    public boolean runAllMediumHandlerGenerated() {
+        return generatedEventLoop.runMediumHandlersGenerated();
+    }
+
+    /**
+     * The path the core loop takes when there is a HIGH handler, it is called before every MEDIUM handler
+     */
+    @Benchmark
+    public boolean runAllHandlers() {
+        return eventLoop.runHandlers();
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A pauser which learns how long its thread is usually idle for, and spins then yields for just long enough to catch most of the work
+ * without parking, rather than for a fixed number of iterations.
+ * <p>
+ * Each idle gap, from the first {@link #pause()} to the next {@link #reset()}, is counted in a log2 histogram.
+ * Every {@code gapsPerDecision} gaps it picks the shortest window which would have caught {@code catchRatio} of them,
+ * spinning for up to {@code maxSpinTime} of it and yielding for the rest. If that would take longer than {@code maxSpinTime + maxYieldTime},
+ * the window stops at the last gap it can catch, and if it would catch under 10% it parks straight away.
+ * Older gaps are halved at each decision so it follows changes in the load.
+ * <p>
+ * Once past the window it parks, starting at {@code minParkTime} and growing by half each time up to {@code maxParkTime}.
+ * The decisions made can be read with {@link #spinWindowNS()}, {@link #yieldWindowNS()} and {@link #expectedCatchRatio()}.
+ */
+public class AdaptivePauser implements Pauser, TimingPauser {
+    static final int BUCKETS = 63;
+    static final int DEFAULT_GAPS_PER_DECISION = 1024;
+    // below this, spinning and yielding isn't worth the CPU
+    static final double MIN_CATCH_RATIO = 0.1;
+    private static final boolean DEBUG = Jvm.isDebugEnabled(AdaptivePauser.class);
+
+    private final long maxSpinNS;
+    private final long maxYieldNS;
+    private final long minParkNS;
+    private final long maxParkNS;
+    private final double catchRatio;
+    private final int gapsPerDecision;
+    private final long[] gaps = new long[BUCKETS];
+    private final Doorbell doorbell = new Doorbell();
+    private final PauserCounters counters = new PauserCounters();
+    private int gapsSinceDecision = 0;
+    private volatile long spinWindowNS;
+    private volatile long yieldWindowNS;
+    private volatile double expectedCatchRatio = Double.NaN;
+    private volatile long decisions = 0;
+
+    private long idleStartNS = 0;
+    private long unaccountedSinceNS = 0;
+    private long parkTimeNS;
+    private long timePaused = 0;
+    private long countPaused = 0;
+    private long timeOutStart = Long.MAX_VALUE;
+    private long pauseUntilNS = 0;
+
+    /**
+     * @param maxSpinTime  the longest it will busy wait for
+     * @param maxYieldTime the longest it will yield for after spinning
+     * @param minParkTime  the first time it will park for
+     * @param maxParkTime  the longest it will park for
+     * @param timeUnit     the unit of the times
+     * @param catchRatio   the fraction of idle gaps it tries to end without parking, e.g. 0.9
+     */
+    public AdaptivePauser(long maxSpinTime, long maxYieldTime, long minParkTime, long maxParkTime, @NotNull TimeUnit timeUnit, double catchRatio) {
+        this(maxSpinTime, maxYieldTime, minParkTime, maxParkTime, timeUnit, catchRatio, DEFAULT_GAPS_PER_DECISION);
+    }
+
+    AdaptivePauser(long maxSpinTime, long maxYieldTime, long minParkTime, long maxParkTime, @NotNull TimeUnit timeUnit, double catchRatio, int gapsPerDecision) {
+        if (!(catchRatio > 0 && catchRatio <= 1))
+            throw new IllegalArgumentException("catchRatio must be > 0 and <= 1, was " + catchRatio);
+        if (gapsPerDecision < 1)
+            throw new IllegalArgumentException("gapsPerDecision must be positive, was " + gapsPerDecision);
+        this.maxSpinNS = Math.max(0, timeUnit.toNanos(maxSpinTime));
+        this.maxYieldNS = Math.max(0, timeUnit.toNanos(maxYieldTime));
+        this.minParkNS = Math.max(1, timeUnit.toNanos(minParkTime));
+        this.maxParkNS = Math.max(minParkNS, timeUnit.toNanos(maxParkTime));
+        this.catchRatio = catchRatio;
+        this.gapsPerDecision = gapsPerDecision;
+        // until it has learnt anything, use the whole window
+        this.spinWindowNS = maxSpinNS;
+        this.yieldWindowNS = maxYieldNS;
+        this.parkTimeNS = minParkNS;
+    }
+
+    @Override
+    public void reset() {
+        // busy, and nothing to do unless it was idle
+        if (idleStartNS == 0)
+            return;
+        counters.reset();
+        final long now = System.nanoTime();
+        if (unaccountedSinceNS != 0) {
+            timePaused += now - unaccountedSinceNS;
+            countPaused++;
+            unaccountedSinceNS = 0;
+        }
+        recordGap(now - idleStartNS);
+        idleStartNS = 0;
+        parkTimeNS = minParkNS;
+        timeOutStart = Long.MAX_VALUE;
+    }
+
+    @Override
+    public void pause() {
+        final long now = System.nanoTime();
+        if (idleStartNS == 0)
+            idleStartNS = unaccountedSinceNS = now;
+        final long idleNS = now - idleStartNS;
+        final long spinNS = spinWindowNS;
+        if (idleNS < spinNS) {
+            counters.spin();
+            Jvm.nanoPause();
+            return;
+        }
+        if (idleNS < spinNS + yieldWindowNS) {
+            counters.yield();
+            Thread.yield();
+            return;
+        }
+        doPause(now);
+    }
+
+    @Override
+    public void pause(long timeout, @NotNull TimeUnit timeUnit) throws TimeoutException {
+        if (timeOutStart == Long.MAX_VALUE)
+            timeOutStart = System.nanoTime();
+        else if (timeOutStart + timeUnit.toNanos(timeout) - System.nanoTime() < 0)
+            throw new TimeoutException();
+        pause();
+    }
+
+    private void doPause(long start) {
+        if (unaccountedSinceNS != 0) {
+            timePaused += start - unaccountedSinceNS;
+            unaccountedSinceNS = 0;
+        }
+        final boolean unpaused = doorbell.park(parkTimeNS);
+        final long end = System.nanoTime();
+        // a ring while awake returns without parking
+        if (doorbell.parked())
+            counters.parked(start, end, unpaused);
+        timePaused += end - start;
+        countPaused++;
+        parkTimeNS = Math.min(maxParkNS, parkTimeNS + (parkTimeNS >> 1));
+    }
+
+    @Override
+    public void asyncPause() {
+        pauseUntilNS = 0;
+        final long now = System.nanoTime();
+        if (idleStartNS == 0)
+            idleStartNS = now;
+        if (now - idleStartNS < spinWindowNS + yieldWindowNS)
+            return;
+        pauseUntilNS = now + parkTimeNS;
+        parkTimeNS = Math.min(maxParkNS, parkTimeNS + (parkTimeNS >> 1));
+    }
+
+    @Override
+    public boolean asyncPausing() {
+        return pauseUntilNS > System.nanoTime();
+    }
+
+    @Override
+    public void unpause() {
+        doorbell.ring();
+    }
+
+    @Override
+    public boolean isParked() {
+        return doorbell.isParked();
+    }
+
+    void recordGap(long gapNS) {
+        gaps[bucketFor(gapNS)]++;
+        if (++gapsSinceDecision >= gapsPerDecision)
+            decide();
+    }
+
+    static int bucketFor(long gapNS) {
+        return Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(Math.max(1, gapNS)));
+    }
+
+    /**
+     * @return the exclusive upper bound of the gaps counted in a bucket
+     */
+    static long bucketLimit(int bucket) {
+        return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : 1L << (bucket + 1);
+    }
+
+    private void decide() {
+        long total = 0;
+        for (long count : gaps)
+            total += count;
+        final long maxWindowNS = maxSpinNS + maxYieldNS;
+        long windowNS = 0;
+        long caught = 0;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && bucketLimit(i) <= maxWindowNS; i++) {
+            seen += gaps[i];
+            if (gaps[i] > 0) {
+                // the shortest window catching everything it can up to here
+                windowNS = bucketLimit(i);
+                caught = seen;
+            }
+            if (seen >= total * catchRatio)
+                break;
+        }
+        if (caught < total * MIN_CATCH_RATIO) {
+            windowNS = 0;
+            caught = 0;
+        }
+        final long spinNS = Math.min(windowNS, maxSpinNS);
+        final long yieldNS = windowNS - spinNS;
+        final double ratio = total == 0 ? Double.NaN : (double) caught / total;
+        if (DEBUG && (spinNS != spinWindowNS || yieldNS != yieldWindowNS))
+            Jvm.debug().on(getClass(), "Spinning for " + spinNS / 1000 + " us and yielding for " + yieldNS / 1000
+                    + " us, to catch " + Math.round(ratio * 1000) / 10.0 + "% of " + total + " idle gaps");
+        spinWindowNS = spinNS;
+        yieldWindowNS = yieldNS;
+        expectedCatchRatio = ratio;
+        decisions++;
+
+        for (int i = 0; i < BUCKETS; i++)
+            gaps[i] >>= 1;
+        gapsSinceDecision = 0;
+    }
+
+    /**
+     * @return how long it currently spins for before yielding
+     */
+    public long spinWindowNS() {
+        return spinWindowNS;
+    }
+
+    /**
+     * @return how long it currently yields for before parking
+     */
+    public long yieldWindowNS() {
+        return yieldWindowNS;
+    }
+
+    /**
+     * @return the fraction of the recent idle gaps the current window would have ended without parking, or NaN before the first decision
+     */
+    public double expectedCatchRatio() {
+        return expectedCatchRatio;
+    }
+
+    /**
+     * @return the number of times the window has been chosen
+     */
+    public long decisions() {
+        return decisions;
+    }
+
+    @Override
+    public long timePaused() {
+        return timePaused / 1_000_000;
+    }
+
+    @Override
+    public long countPaused() {
+        return countPaused;
+    }
+
+    @NotNull
+    @Override
+    public PauserStats stats() {
+        return counters.snapshot();
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptivePauser{" +
+                "spinWindowNS=" + spinWindowNS +
+                ", yieldWindowNS=" + yieldWindowNS +
+                ", expectedCatchRatio=" + expectedCatchRatio +
+                ", decisions=" + decisions +
+                '}';
+    }
+}
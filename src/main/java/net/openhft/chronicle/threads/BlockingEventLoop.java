@@ -21,30 +21,43 @@ import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.threads.EventHandler;
 import net.openhft.chronicle.core.threads.EventLoop;
 import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.threads.internal.VirtualThreads;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import static net.openhft.chronicle.core.io.Closeable.closeQuietly;
+import static net.openhft.chronicle.threads.internal.EventLoopUtil.BLOCKING_VIRTUAL_THREADS;
 import static net.openhft.chronicle.threads.Threads.loopFinishedQuietly;
 import static net.openhft.chronicle.threads.Threads.unpark;
 
 /**
  * Event Loop for blocking tasks.
+ * <p>
+ * Each handler runs on its own thread. On Java 21+ these can be virtual threads, see {@link #virtualThreads(boolean)},
+ * so hundreds of blocking handlers don't need hundreds of platform threads.
+ * <p>
+ * Each handler has its own pauser, from the supplier given, so handlers back off and are woken independently.
  */
 public class BlockingEventLoop extends AbstractLifecycleEventLoop implements EventLoop {
 
     @NotNull
     private transient final EventLoop parent;
     @NotNull
-    private transient final ExecutorService service;
+    private transient ExecutorService service;
     private final List<EventHandler> handlers = new CopyOnWriteArrayList<>();
-    private final NamedThreadFactory threadFactory;
-    private final Pauser pauser;
+    private final List<Runner> runners = new CopyOnWriteArrayList<>();
+    private NamedThreadFactory threadFactory;
+    @NotNull
+    private final Supplier<Pauser> pauserSupplier;
 
     /**
      * @deprecated to be removed in .25
@@ -52,25 +65,103 @@ public class BlockingEventLoop extends AbstractLifecycleEventLoop implements Eve
     @Deprecated
     public BlockingEventLoop(@NotNull final EventLoop parent,
                              @NotNull final String name) {
-        this(parent, name, Pauser.balanced());
+        this(parent, name, Pauser::balanced);
     }
 
+    /**
+     * @param pauser shared by every handler, use {@link #BlockingEventLoop(EventLoop, String, Supplier)} so each has its own
+     */
     public BlockingEventLoop(@NotNull final EventLoop parent,
                              @NotNull final String name,
                              @NotNull final Pauser pauser) {
+        this(parent, name, () -> pauser);
+    }
+
+    /**
+     * @param pauserSupplier called for each handler, it should return a new pauser each time
+     */
+    public BlockingEventLoop(@NotNull final EventLoop parent,
+                             @NotNull final String name,
+                             @NotNull final Supplier<Pauser> pauserSupplier) {
+        this(parent, name, pauserSupplier, BLOCKING_VIRTUAL_THREADS);
+    }
+
+    /**
+     * @param pauser         shared by every handler
+     * @param virtualThreads true to run each handler on a virtual thread, this is ignored with a warning before Java 21
+     */
+    public BlockingEventLoop(@NotNull final EventLoop parent,
+                             @NotNull final String name,
+                             @NotNull final Pauser pauser,
+                             final boolean virtualThreads) {
+        this(parent, name, () -> pauser, virtualThreads);
+    }
+
+    /**
+     * @param pauserSupplier called for each handler, it should return a new pauser each time
+     * @param virtualThreads true to run each handler on a virtual thread, this is ignored with a warning before Java 21
+     */
+    public BlockingEventLoop(@NotNull final EventLoop parent,
+                             @NotNull final String name,
+                             @NotNull final Supplier<Pauser> pauserSupplier,
+                             final boolean virtualThreads) {
         super(name);
         this.parent = parent;
-        this.threadFactory = new NamedThreadFactory(name, null, null, true);
-        this.service = Executors.newCachedThreadPool(threadFactory);
-        this.pauser = pauser;
+        this.pauserSupplier = pauserSupplier;
+        createService(virtualThreads);
     }
 
     public BlockingEventLoop(@NotNull final String name) {
         super(name);
         this.parent = this;
-        this.threadFactory = new NamedThreadFactory(name, null, null, true);
-        this.service = Executors.newCachedThreadPool(threadFactory);
-        this.pauser = Pauser.balanced();
+        this.pauserSupplier = Pauser::balanced;
+        createService(BLOCKING_VIRTUAL_THREADS);
+    }
+
+    private void createService(boolean virtualThreads) {
+        if (virtualThreads && !VirtualThreads.isSupported()) {
+            Jvm.warn().on(getClass(), "Virtual threads need Java 21+, using platform threads for " + name);
+            virtualThreads = false;
+        }
+        this.threadFactory = new NamedThreadFactory(name, null, null, true, virtualThreads);
+        this.service = virtualThreads
+                ? VirtualThreads.newThreadPerTaskExecutor(threadFactory)
+                : Executors.newCachedThreadPool(threadFactory);
+    }
+
+    /**
+     * Chooses whether handlers run on virtual threads, before the event loop is started.
+     *
+     * @param virtualThreads true to run each handler on a virtual thread, this is ignored with a warning before Java 21
+     * @throws IllegalStateException if it has been started
+     */
+    public synchronized void virtualThreads(final boolean virtualThreads) {
+        throwExceptionIfClosed();
+        if (isStarted() || isStopped())
+            throw new IllegalStateException("Threads can't be changed once " + name + " has been started");
+        if (virtualThreads == isVirtualThreads())
+            return;
+        // no threads have been started yet
+        service.shutdownNow();
+        createService(virtualThreads);
+    }
+
+    /**
+     * @return true if handlers run on virtual threads
+     */
+    public boolean isVirtualThreads() {
+        return threadFactory.isVirtual();
+    }
+
+    /**
+     * @return the activity of each handler which has been started and is still running, in the order they were started
+     */
+    @NotNull
+    public Map<EventHandler, BlockingHandlerStats> handlerStats() {
+        final Map<EventHandler, BlockingHandlerStats> stats = new LinkedHashMap<>();
+        for (Runner runner : runners)
+            stats.put(runner.handler, runner.stats());
+        return stats;
     }
 
     /**
@@ -97,7 +188,7 @@ public class BlockingEventLoop extends AbstractLifecycleEventLoop implements Eve
 
     private void startHandler(final EventHandler handler) {
         try {
-            service.submit(new Runner(handler));
+            service.submit(new Runner(handler, pauserSupplier.get()));
 
         } catch (RejectedExecutionException e) {
             if (!service.isShutdown())
@@ -107,7 +198,8 @@ public class BlockingEventLoop extends AbstractLifecycleEventLoop implements Eve
 
     @Override
     public void unpause() {
-        pauser.unpause();
+        for (Runner runner : runners)
+            runner.pauser.unpause();
         unpark(service);
     }
 
@@ -147,29 +239,52 @@ public class BlockingEventLoop extends AbstractLifecycleEventLoop implements Eve
     public String toString() {
         return "BlockingEventLoop{" +
                 "name=" + name +
+                (isVirtualThreads() ? ", virtualThreads=true" : "") +
                 '}';
     }
 
     private final class Runner implements Runnable {
         private final EventHandler handler;
+        private final Pauser pauser;
+        // only written by the runner's thread
+        private final AtomicLong actions = new AtomicLong();
+        private final AtomicLong busyActions = new AtomicLong();
+        private volatile long startedNS = 0;
         private boolean endedGracefully = false;
 
-        public Runner(final EventHandler handler) {
+        public Runner(final EventHandler handler, final Pauser pauser) {
             this.handler = handler;
+            this.pauser = pauser;
+        }
+
+        BlockingHandlerStats stats() {
+            final long startedNS = this.startedNS;
+            return new BlockingHandlerStats(handler,
+                    startedNS == 0 ? 0 : System.nanoTime() - startedNS,
+                    actions.get(),
+                    busyActions.get(),
+                    HandlerLatencyHistogram.Snapshot.EMPTY,
+                    pauser.stats());
         }
 
         @Override
         public void run() {
+            runners.add(this);
             try {
                 throwExceptionIfClosed();
 
+                startedNS = System.nanoTime();
                 handler.loopStarted();
 
                 while (isStarted()) {
-                    if (handler.action())
+                    final boolean busy = handler.action();
+                    actions.lazySet(actions.get() + 1);
+                    if (busy) {
+                        busyActions.lazySet(busyActions.get() + 1);
                         pauser.reset();
-                    else
+                    } else {
                         pauser.pause();
+                    }
                 }
                 endedGracefully = true;
             } catch (InvalidEventHandlerException e) {
@@ -182,6 +297,7 @@ public class BlockingEventLoop extends AbstractLifecycleEventLoop implements Eve
                 if (Jvm.isDebugEnabled(handler.getClass()))
                     Jvm.debug().on(handler.getClass(), "handler " + asString(handler) + " done.");
                 loopFinishedQuietly(handler);
+                runners.remove(this);
                 if (!endedGracefully) {
                     // remove handler for clarity when debugging
                     handlers.remove(handler);
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * How a BLOCKING handler has been running, since it was started.
+ */
+public final class BlockingHandlerStats {
+    @NotNull
+    private final EventHandler handler;
+    private final long elapsedNS;
+    private final long actions;
+    private final long busyActions;
+    @NotNull
+    private final HandlerLatencyHistogram.Snapshot queueDelay;
+    @NotNull
+    private final PauserStats pauserStats;
+
+    BlockingHandlerStats(@NotNull EventHandler handler, long elapsedNS, long actions, long busyActions,
+                         @NotNull HandlerLatencyHistogram.Snapshot queueDelay, @NotNull PauserStats pauserStats) {
+        this.handler = handler;
+        this.elapsedNS = elapsedNS;
+        this.actions = actions;
+        this.busyActions = busyActions;
+        this.queueDelay = queueDelay;
+        this.pauserStats = pauserStats;
+    }
+
+    @NotNull
+    public EventHandler handler() {
+        return handler;
+    }
+
+    /**
+     * @return the time since the handler was started
+     */
+    public long elapsedNS() {
+        return elapsedNS;
+    }
+
+    /**
+     * @return the number of calls to {@code action()}
+     */
+    public long actions() {
+        return actions;
+    }
+
+    /**
+     * @return the number of calls to {@code action()} which returned true
+     */
+    public long busyActions() {
+        return busyActions;
+    }
+
+    public double actionsPerSecond() {
+        return elapsedNS <= 0 ? 0 : actions * 1e9 / elapsedNS;
+    }
+
+    /**
+     * @return how long the handler waited for a thread once it was ready to run, empty if it has a thread of its own
+     */
+    @NotNull
+    public HandlerLatencyHistogram.Snapshot queueDelay() {
+        return queueDelay;
+    }
+
+    /**
+     * @return the stats of the handler's own pauser
+     */
+    @NotNull
+    public PauserStats pauserStats() {
+        return pauserStats;
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "BlockingHandlerStats{" +
+                "handler=" + handler +
+                ", elapsedNS=" + elapsedNS +
+                ", actions=" + actions +
+                ", busyActions=" + busyActions +
+                ", actionsPerSecond=" + (long) actionsPerSecond() +
+                ", queueDelay={" + queueDelay + "}" +
+                ", pauserStats=" + pauserStats +
+                '}';
+    }
+}
@@ -19,6 +19,9 @@ package net.openhft.chronicle.threads;
 
 import net.openhft.chronicle.core.Jvm;
 
+/**
+ * Spins without timing anything. It is shared by every thread using it, so {@link #stats()} records nothing, use {@link BusyTimedPauser} for those.
+ */
 public enum BusyPauser implements Pauser {
     INSTANCE;
 
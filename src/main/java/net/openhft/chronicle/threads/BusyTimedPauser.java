@@ -18,22 +18,26 @@
 package net.openhft.chronicle.threads;
 
 import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 public class BusyTimedPauser implements Pauser, TimingPauser {
 
+    private final PauserCounters counters = new PauserCounters();
     private long time = Long.MAX_VALUE;
 
     @Override
     public void reset() {
         time = Long.MAX_VALUE;
+        counters.reset();
     }
 
     @Override
     public void pause() {
         // busy wait.
+        counters.spin();
         Jvm.nanoPause();
     }
 
@@ -60,4 +64,10 @@ public class BusyTimedPauser implements Pauser, TimingPauser {
     public long countPaused() {
         return 0;
     }
+
+    @NotNull
+    @Override
+    public PauserStats stats() {
+        return counters.snapshot();
+    }
 }
@@ -18,8 +18,14 @@
 package net.openhft.chronicle.threads;
 
 import net.openhft.chronicle.core.threads.EventLoop;
+import net.openhft.chronicle.threads.internal.SubmittedTask;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BooleanSupplier;
 
 public interface CoreEventLoop extends EventLoop {
@@ -31,4 +37,72 @@ public interface CoreEventLoop extends EventLoop {
     long loopStartNS();
 
     void dumpRunningState(@NotNull final String message, @NotNull final BooleanSupplier finalCheck);
+
+    /**
+     * Logs the running state using a stack already captured, e.g. with those of other stalled threads
+     *
+     * @param stackTrace of {@link #thread()}, or null if it couldn't be captured
+     * @param captureNS  how long capturing it took
+     */
+    default void dumpRunningState(@NotNull final String message, @NotNull final BooleanSupplier finalCheck,
+                                  @Nullable final StackTraceElement[] stackTrace, final long captureNS) {
+        dumpRunningState(message, finalCheck);
+    }
+
+    /**
+     * @return the CPU the thread of this event loop is bound to, or -1 if it isn't bound
+     */
+    default int boundCpuId() {
+        return -1;
+    }
+
+    /**
+     * @return the operating system's id for the thread of this event loop, or -1 if not known
+     */
+    default int nativeThreadId() {
+        return -1;
+    }
+
+    /**
+     * @return iteration counts and the time spent in each phase of the loop since it started, this can be called from any thread.
+     * All zero unless the event loop keeps them.
+     */
+    @NotNull
+    default LoopPhaseSnapshot phaseSnapshot() {
+        return LoopPhaseSnapshot.EMPTY;
+    }
+
+    /**
+     * Runs a task once on the event loop thread, in the order submitted, without allocating.
+     * Unlike {@link #addHandler} this is for short one off tasks.
+     *
+     * @param task to run
+     * @throws RejectedExecutionException if the event loop has stopped, or doesn't run tasks
+     */
+    default void execute(@NotNull Runnable task) {
+        throw new RejectedExecutionException(getClass().getSimpleName() + " doesn't run tasks");
+    }
+
+    /**
+     * @return an {@link Executor} which runs tasks on the event loop thread
+     */
+    @NotNull
+    default Executor executor() {
+        return this::execute;
+    }
+
+    /**
+     * Runs a task on the event loop thread
+     *
+     * @param task to call
+     * @return completed on the event loop thread with the result of the task,
+     * or exceptionally with a {@link RejectedExecutionException} if the event loop stops before running it
+     * @throws RejectedExecutionException if the event loop has stopped
+     */
+    @NotNull
+    default <T> CompletableFuture<T> submit(@NotNull Callable<T> task) {
+        final SubmittedTask<T> submitted = new SubmittedTask<>(task);
+        execute(submitted);
+        return submitted.future();
+    }
 }
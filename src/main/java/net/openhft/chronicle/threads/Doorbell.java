@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wakes a thread parked by a {@link Pauser} as cheaply as possible for the producer.
+ * <p>
+ * {@link #ring()} only calls {@link LockSupport#unpark(Thread)} if the consumer is parked, and only once however many times it is rung
+ * before the consumer wakes. A ring while the consumer is awake, e.g. just before it parks, is kept, so its next {@link #park(long)}
+ * returns at once rather than missing it. Once rung, ringing again before the consumer parks is a single volatile read.
+ */
+public final class Doorbell {
+    private static final int AWAKE = 0;
+    private static final int PARKED = 1;
+    private static final int RUNG = 2;
+
+    private final AtomicInteger state = new AtomicInteger(AWAKE);
+    @Nullable
+    private volatile Thread thread;
+    // only used by the consumer
+    private boolean parked = false;
+
+    /**
+     * @return true if the consumer is parked, or about to, and hasn't been rung yet
+     */
+    public boolean isParked() {
+        return state.get() == PARKED;
+    }
+
+    /**
+     * Called by a producer after it has made work available.
+     *
+     * @return true if this call woke the consumer, false if it wasn't parked, in which case its next park returns at once,
+     * or was already woken
+     */
+    public boolean ring() {
+        while (true) {
+            switch (state.get()) {
+                case RUNG:
+                    return false;
+                case AWAKE:
+                    // seen by the next park()
+                    if (state.compareAndSet(AWAKE, RUNG))
+                        return false;
+                    break;
+                default:
+                    if (state.compareAndSet(PARKED, RUNG)) {
+                        LockSupport.unpark(thread);
+                        return true;
+                    }
+            }
+        }
+    }
+
+    /**
+     * Parks the current thread until it is rung, unparked, interrupted or the delay has passed,
+     * or returns at once if it was rung since it last woke.
+     * Only one thread can park on a doorbell at a time.
+     *
+     * @param delayNS the longest time to park for
+     * @return true if it was woken, or not parked, because of {@link #ring()}
+     */
+    public boolean park(long delayNS) {
+        final Thread current = Thread.currentThread();
+        thread = current;
+        if (!state.compareAndSet(AWAKE, PARKED)) {
+            // rung while awake
+            state.set(AWAKE);
+            parked = false;
+            return true;
+        }
+        parked = true;
+        if (!current.isInterrupted())
+            LockSupport.parkNanos(this, delayNS);
+        return state.getAndSet(AWAKE) == RUNG;
+    }
+
+    /**
+     * Called by the consumer after {@link #park(long)}, so a pauser only counts the parks which happened.
+     *
+     * @return true if the last call to park parked, false if it returned at once as it was rung while awake
+     */
+    public boolean parked() {
+        return parked;
+    }
+
+    @Override
+    public String toString() {
+        return "Doorbell{" +
+                "state=" + (state.get() == AWAKE ? "AWAKE" : state.get() == PARKED ? "PARKED" : "RUNG") +
+                '}';
+    }
+}
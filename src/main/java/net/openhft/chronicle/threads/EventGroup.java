@@ -21,16 +21,19 @@ import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.threads.EventHandler;
 import net.openhft.chronicle.core.threads.EventLoop;
 import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
 import net.openhft.chronicle.threads.internal.EventLoopStateRenderer;
 import net.openhft.chronicle.threads.internal.EventLoopThreadHolder;
 import net.openhft.chronicle.threads.internal.ThreadMonitorHarness;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.EnumSet;
-import java.util.List;
-import java.util.Set;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -42,6 +45,13 @@ import java.util.stream.IntStream;
 import static java.lang.String.format;
 import static net.openhft.chronicle.core.io.Closeable.closeQuietly;
 import static net.openhft.chronicle.threads.VanillaEventLoop.NO_CPU;
+import static net.openhft.chronicle.threads.internal.EventLoopUtil.SHARED_MONITOR;
+import static net.openhft.chronicle.threads.internal.EventLoopUtil.STACK_SAMPLE_DEPTH;
+import static net.openhft.chronicle.threads.internal.EventLoopUtil.STACK_SAMPLE_DIR;
+import static net.openhft.chronicle.threads.internal.EventLoopUtil.STACK_SAMPLE_FILES;
+import static net.openhft.chronicle.threads.internal.EventLoopUtil.STACK_SAMPLE_INTERVAL_MS;
+import static net.openhft.chronicle.threads.internal.EventLoopUtil.STACK_SAMPLE_MAX_STACKS;
+import static net.openhft.chronicle.threads.internal.EventLoopUtil.STACK_SAMPLE_ROLL_S;
 
 public class EventGroup
         extends AbstractLifecycleEventLoop
@@ -54,11 +64,13 @@ public class EventGroup
     static final Integer REPLICATION_EVENT_PAUSE_TIME = Jvm.getInteger("replicationEventPauseTime", 20);
     private static final boolean ENABLE_LOOP_BLOCK_MONITOR = !Jvm.getBoolean("disableLoopBlockMonitor");
     private static final long WAIT_TO_START_MS = Jvm.getInteger("eventGroup.wait.to.start.ms", 1_000);
-    private final AtomicInteger counter = new AtomicInteger();
+    // how recent the busy ratio given to the concurrent placement is
+    private static final long CONC_LOAD_SAMPLE_NS = Jvm.getLong("eventGroup.conc.load.sample.ms", 100L) * 1_000_000L;
+    private static final AtomicInteger STACK_SAMPLER_ID = new AtomicInteger();
     @NotNull
-    private final EventLoop monitor;
+    private EventLoop monitor;
     private final CoreEventLoop core;
-    private final BlockingEventLoop blocking;
+    private AbstractLifecycleEventLoop blocking;
     @NotNull
     private final Pauser pauser;
     @NotNull
@@ -75,6 +87,24 @@ public class EventGroup
     @NotNull
     private final Supplier<Pauser> blockingPauserSupplier;
     private VanillaEventLoop replication;
+    private StackSampler stackSampler;
+    @NotNull
+    private final HandlerPlacement concurrentPlacement;
+    // the snapshot each concurrent loop's busy ratio was last measured from, guarded by this
+    private final Map<VanillaEventLoop, LoopPhaseSnapshot> concLoadSnapshots = new IdentityHashMap<>();
+    private final Map<VanillaEventLoop, Double> concBusyRatios = new IdentityHashMap<>();
+    // moved handlers aren't moved again until then, guarded by this
+    private final Map<EventHandler, Long> concPinnedUntilNS = new IdentityHashMap<>();
+    // concurrent loops in use, the rest of concThreads are spare capacity, see elasticConcurrentThreads()
+    private volatile int activeConcThreads;
+    private int minConcThreads;
+    // slots which have had a PauserMonitor added, guarded by this
+    private final BitSet concPauserMonitored = new BitSet();
+    // the blocked thread monitor of each concurrent loop, removed when the loop is retired, guarded by this
+    private final Map<VanillaEventLoop, ThreadMonitorHarness> concThreadMonitors = new IdentityHashMap<>();
+    // a loop being emptied before it is closed, guarded by this
+    private VanillaEventLoop retiringConcThread;
+    private long nextConcScaleNS = Long.MIN_VALUE;
 
     /**
      * Create an EventGroup
@@ -155,6 +185,22 @@ public class EventGroup
                       @NotNull final Supplier<Pauser> concPauserSupplier,
                       final Set<HandlerPriority> priorities,
                       @NotNull final Supplier<Pauser> blockingPauserSupplier) {
+        this(daemon, pauser, replicationPauser, binding, bindingReplication, name, concThreadsNum, concBinding, concPauserSupplier,
+                priorities, blockingPauserSupplier, HandlerPlacement.roundRobin());
+    }
+
+    public EventGroup(final boolean daemon,
+                      @NotNull final Pauser pauser,
+                      final Pauser replicationPauser,
+                      final String binding,
+                      final String bindingReplication,
+                      final String name,
+                      final int concThreadsNum,
+                      final String concBinding,
+                      @NotNull final Supplier<Pauser> concPauserSupplier,
+                      final Set<HandlerPriority> priorities,
+                      @NotNull final Supplier<Pauser> blockingPauserSupplier,
+                      @NotNull final HandlerPlacement concurrentPlacement) {
         super(name);
         this.daemon = daemon;
         this.pauser = pauser;
@@ -164,6 +210,7 @@ public class EventGroup
         this.bindingReplication = bindingReplication;
         this.priorities = EnumSet.copyOf(priorities);
         this.blockingPauserSupplier = blockingPauserSupplier;
+        this.concurrentPlacement = concurrentPlacement;
         List<Object> closeable = new ArrayList<>();
         try {
             final Set<HandlerPriority> corePriorities = priorities.stream()
@@ -175,15 +222,15 @@ public class EventGroup
                     : new VanillaEventLoop(this, name + "core-event-loop", pauser, 1, daemon, binding, priorities)
                     : null;
             closeable.add(core);
-            monitor = new MonitorEventLoop(this, name + "~monitor",
-                    Pauser.millis(Integer.getInteger("monitor.interval", 10)));
+            monitor = newMonitor(SHARED_MONITOR);
             closeable.add(monitor);
-            if (core != null)
-                monitor.addHandler(new PauserMonitor(pauser, name + "core-pauser", 300));
-            blocking = priorities.contains(HandlerPriority.BLOCKING) ? new BlockingEventLoop(this, name + "blocking-event-loop", blockingPauserSupplier.get()) : null;
+            if (STACK_SAMPLE_INTERVAL_MS > 0)
+                stackSampling(STACK_SAMPLE_INTERVAL_MS);
+            blocking = priorities.contains(HandlerPriority.BLOCKING) ? new BlockingEventLoop(this, name + "blocking-event-loop", blockingPauserSupplier) : null;
             closeable.add(blocking);
             if (priorities.contains(HandlerPriority.CONCURRENT))
                 IntStream.range(0, concThreadsNum).forEach(i -> concThreads.add(null));
+            activeConcThreads = minConcThreads = concThreads.size();
 
             disableThreadSafetyCheck(true);
 
@@ -193,6 +240,76 @@ public class EventGroup
         }
     }
 
+    @NotNull
+    private EventLoop newMonitor(boolean shared) {
+        final EventLoop newMonitor = shared
+                ? new SharedMonitorEventLoop(this, name)
+                : new MonitorEventLoop(this, name + "~monitor",
+                Pauser.millis(Integer.getInteger("monitor.interval", 10)));
+        if (core != null)
+            newMonitor.addHandler(new PauserMonitor(pauser, name + "core-pauser", 300));
+        if (stackSampler != null)
+            newMonitor.addHandler(stackSampler);
+        return newMonitor;
+    }
+
+    /**
+     * Runs the MONITOR handlers on a thread shared by every event group which does this, called by the builder before the group is started
+     */
+    void sharedMonitor(boolean shared) {
+        if (shared == monitor instanceof SharedMonitorEventLoop)
+            return;
+        final EventLoop newMonitor = newMonitor(shared);
+        // only the core pauser monitor and stack sampler have been added
+        closeQuietly(monitor);
+        monitor = newMonitor;
+    }
+
+    /**
+     * Samples the stacks of the core, replication and concurrent event loop threads, called by the builder before the group is started
+     *
+     * @param intervalMS between samples, 0 to not sample
+     */
+    void stackSampling(long intervalMS) {
+        if (stackSampler != null || intervalMS <= 0)
+            return;
+        // unique to this process and group, as several may share the directory or a name
+        final String fileName = (name.isEmpty() ? "event-group" : name.replaceAll("[^A-Za-z0-9._-]", "_"))
+                + "-" + Jvm.getProcessId() + "-" + STACK_SAMPLER_ID.incrementAndGet() + "-stacks.collapsed";
+        stackSampler = new StackSampler(Paths.get(STACK_SAMPLE_DIR, fileName),
+                intervalMS * 1_000_000L,
+                STACK_SAMPLE_DEPTH,
+                STACK_SAMPLE_MAX_STACKS,
+                STACK_SAMPLE_ROLL_S * 1_000_000_000L,
+                STACK_SAMPLE_FILES);
+        monitor.addHandler(stackSampler);
+    }
+
+    @Nullable
+    StackSampler stackSampler() {
+        return stackSampler;
+    }
+
+    /**
+     * Runs BLOCKING handlers on virtual threads, called by the builder before the group is started
+     */
+    void blockingVirtualThreads(boolean virtualThreads) {
+        if (blocking instanceof BlockingEventLoop)
+            ((BlockingEventLoop) blocking).virtualThreads(virtualThreads);
+    }
+
+    /**
+     * Shares a fixed number of threads between the BLOCKING handlers, called by the builder before the group is started
+     */
+    void blockingWorkers(int workers) {
+        if (blocking == null)
+            return;
+        final AbstractLifecycleEventLoop pooled = new PooledBlockingEventLoop(this, name + "blocking-event-loop", workers, blockingPauserSupplier);
+        // nothing has been added or started yet
+        closeQuietly(blocking);
+        blocking = pooled;
+    }
+
     /**
      * @deprecated Use {@link #builder()}
      */
@@ -262,10 +379,36 @@ public class EventGroup
         return replication;
     }
 
-    private void addThreadMonitoring(long replicationMonitorIntervalMs, CoreEventLoop replication) {
-        if (ENABLE_LOOP_BLOCK_MONITOR)
-            monitor.addHandler(new ThreadMonitorHarness(new EventLoopThreadHolder(
-                    TimeUnit.NANOSECONDS.convert(replicationMonitorIntervalMs, TimeUnit.MILLISECONDS), replication)));
+    /**
+     * @return the blocked thread monitor added, or null if they are disabled
+     */
+    private ThreadMonitorHarness addThreadMonitoring(long replicationMonitorIntervalMs, CoreEventLoop replication) {
+        if (stackSampler != null)
+            stackSampler.addEventLoop(replication);
+        if (!ENABLE_LOOP_BLOCK_MONITOR)
+            return null;
+        final ThreadMonitorHarness harness = new ThreadMonitorHarness(new EventLoopThreadHolder(
+                TimeUnit.NANOSECONDS.convert(replicationMonitorIntervalMs, TimeUnit.MILLISECONDS), replication));
+        monitor.addHandler(harness);
+        return harness;
+    }
+
+    /**
+     * Stops monitoring and sampling a loop which is about to be closed, so it isn't reported as having finished.
+     *
+     * @return true if the monitor thread has a handler to remove first
+     */
+    private boolean removeThreadMonitoring(VanillaEventLoop loop) {
+        if (stackSampler != null)
+            stackSampler.removeEventLoop(loop);
+        final ThreadMonitorHarness harness = concThreadMonitors.remove(loop);
+        if (harness == null)
+            return false;
+        if (monitor instanceof MonitorEventLoop)
+            ((MonitorEventLoop) monitor).removeHandler(harness);
+        else if (monitor instanceof SharedMonitorEventLoop)
+            ((SharedMonitorEventLoop) monitor).removeHandler(harness);
+        return true;
     }
 
     private synchronized VanillaEventLoop getConcThread(int n) {
@@ -274,14 +417,224 @@ public class EventGroup
             loop = new VanillaEventLoop(this, name + "conc-event-loop-" + n, concPauserSupplier.get(),
                     REPLICATION_EVENT_PAUSE_TIME, daemon, concBinding, EnumSet.of(HandlerPriority.CONCURRENT));
             concThreads.set(n, loop);
-            addThreadMonitoring(REPLICATION_MONITOR_INTERVAL_MS, loop);
+            final ThreadMonitorHarness harness = addThreadMonitoring(REPLICATION_MONITOR_INTERVAL_MS, loop);
+            if (harness != null)
+                concThreadMonitors.put(loop, harness);
             if (isAlive())
                 loop.start();
-            monitor.addHandler(new PauserMonitor(pauser, name + "conc-event-loop-" + n + " pauser", 300));
+            if (!concPauserMonitored.get(n)) {
+                concPauserMonitored.set(n);
+                monitor.addHandler(new PauserMonitor(pauser, name + "conc-event-loop-" + n + " pauser", 300));
+            }
         }
         return loop;
     }
 
+    private synchronized int placeConcurrent(@NotNull final EventHandler handler) {
+        final int active = activeConcThreads;
+        final List<HandlerPlacement.LoopLoad> loads = new ArrayList<>(active);
+        for (int i = 0; i < active; i++) {
+            final VanillaEventLoop loop = concThreads.get(i);
+            loads.add(loop == null
+                    ? new HandlerPlacement.LoopLoad(i, 0, 0.0)
+                    : new HandlerPlacement.LoopLoad(i, loop.handlerCount() + loop.pendingHandlerCount(), recentBusyRatio(loop)));
+        }
+        final int index = concurrentPlacement.place(handler, loads);
+        if (index < 0 || index >= loads.size())
+            throw new IllegalStateException(concurrentPlacement + " placed " + handler + " on conc-event-loop-" + index + " of " + loads.size());
+        return index;
+    }
+
+    /**
+     * @return the fraction of the time the loop wasn't pausing, over at least the last {@code eventGroup.conc.load.sample.ms}
+     */
+    private synchronized double recentBusyRatio(@NotNull final VanillaEventLoop loop) {
+        final LoopPhaseSnapshot now = loop.phaseSnapshot();
+        final LoopPhaseSnapshot last = concLoadSnapshots.get(loop);
+        if (last == null || now.elapsedNS() < last.elapsedNS()) {
+            concLoadSnapshots.put(loop, now);
+            concBusyRatios.put(loop, now.dutyCycle());
+        } else if (now.elapsedNS() - last.elapsedNS() >= CONC_LOAD_SAMPLE_NS) {
+            concLoadSnapshots.put(loop, now);
+            concBusyRatios.put(loop, now.since(last).dutyCycle());
+        }
+        return concBusyRatios.get(loop);
+    }
+
+    /**
+     * Periodically moves a CONCURRENT handler from the busiest concurrent event loop to the least busy one.
+     * <p>
+     * A move is only made from a loop whose busy ratio is at least {@code overloaded} to one at most {@code underloaded},
+     * with at most one move per interval, and a handler moved isn't moved again for ten intervals, so handlers don't ping-pong.
+     * Handlers placed together with {@link HandlerPlacement#byAffinityKey} may be separated.
+     *
+     * @param intervalMS  how often to check, 0 = never
+     * @param overloaded  the busy ratio above which a loop gives up a handler
+     * @param underloaded the busy ratio below which a loop can take one
+     */
+    void concurrentRebalancing(final long intervalMS, final double overloaded, final double underloaded) {
+        if (intervalMS <= 0 || concThreads.isEmpty())
+            return;
+        monitor.addHandler(new ConcurrentRebalancer(intervalMS * 1_000_000L, overloaded, underloaded));
+    }
+
+    /**
+     * @return true if a handler was moved
+     */
+    synchronized boolean rebalanceConcurrent(final long nowNS, final long pinNS, final double overloaded, final double underloaded) {
+        concPinnedUntilNS.values().removeIf(until -> until < nowNS);
+        VanillaEventLoop busiest = null;
+        double busiestRatio = overloaded;
+        int idlest = -1;
+        double idlestRatio = underloaded;
+        for (int i = 0; i < activeConcThreads; i++) {
+            final VanillaEventLoop loop = concThreads.get(i);
+            // a loop not created yet is idle
+            final double ratio = loop == null ? 0.0 : recentBusyRatio(loop);
+            if (loop != null && loop.isAlive() && ratio >= busiestRatio && loop.mediumHandlers.size() > 1) {
+                busiest = loop;
+                busiestRatio = ratio;
+            }
+            if (ratio <= idlestRatio && (loop == null || loop.isAlive())) {
+                idlest = i;
+                idlestRatio = ratio;
+            }
+        }
+        if (busiest == null || idlest < 0 || busiest.isMovingHandler())
+            return false;
+        final EventHandler handler = handlerToMove(busiest, (busiestRatio - idlestRatio) / 2 / busiestRatio);
+        if (handler == null)
+            return false;
+        final VanillaEventLoop target = getConcThread(idlest);
+        if (target == busiest || !busiest.moveHandler(handler, target))
+            return false;
+        Jvm.perf().on(getClass(), "Moving " + handler + " from " + busiest.name() + " busy " + busiestRatio + " to " + target.name() + " busy " + idlestRatio);
+        concPinnedUntilNS.put(handler, nowNS + pinNS);
+        return true;
+    }
+
+    /**
+     * Lets the number of concurrent event loops in use vary between a minimum and the number the group was built with.
+     * <p>
+     * Checked with the rebalancing, another loop is started when every loop in use is at least {@code overloaded},
+     * and the last loop is retired, its handlers moved to the others before it is closed,
+     * when the loops in use would all be at most {@code underloaded} without it.
+     * There is at most one change per ten rebalancing intervals.
+     *
+     * @param minConcThreads the fewest concurrent event loops to use
+     */
+    void elasticConcurrentThreads(final int minConcThreads) {
+        if (concThreads.isEmpty())
+            return;
+        if (minConcThreads < 1 || minConcThreads > concThreads.size())
+            throw new IllegalArgumentException("minConcThreads must be between 1 and " + concThreads.size() + " was " + minConcThreads);
+        this.minConcThreads = minConcThreads;
+        this.activeConcThreads = minConcThreads;
+    }
+
+    /**
+     * @return the number of concurrent event loops in use
+     */
+    public int concurrentThreadsInUse() {
+        return activeConcThreads;
+    }
+
+    /**
+     * @return true if the number of concurrent event loops in use changed
+     */
+    synchronized boolean scaleConcurrent(final long nowNS, final long settleNS, final double overloaded, final double underloaded) {
+        if (minConcThreads == concThreads.size() || nowNS < nextConcScaleNS || retiringConcThread != null)
+            return false;
+        final int active = activeConcThreads;
+        double totalRatio = 0;
+        boolean saturated = true;
+        for (int i = 0; i < active; i++) {
+            final VanillaEventLoop loop = concThreads.get(i);
+            final double ratio = loop == null ? 0.0 : recentBusyRatio(loop);
+            totalRatio += ratio;
+            saturated &= ratio >= overloaded;
+        }
+        if (saturated && active < concThreads.size()) {
+            activeConcThreads = active + 1;
+            final VanillaEventLoop loop = getConcThread(active);
+            Jvm.perf().on(getClass(), "Starting " + loop.name() + " as " + active + " concurrent loops have an average busy ratio of " + totalRatio / active);
+        } else if (active > minConcThreads && totalRatio <= (active - 1) * underloaded) {
+            activeConcThreads = active - 1;
+            retiringConcThread = concThreads.get(active - 1);
+            if (retiringConcThread != null)
+                Jvm.perf().on(getClass(), "Retiring " + retiringConcThread.name() + " as " + active + " concurrent loops have an average busy ratio of " + totalRatio / active);
+        } else {
+            return false;
+        }
+        nextConcScaleNS = nowNS + settleNS;
+        return true;
+    }
+
+    synchronized boolean isRetiringConcurrent() {
+        return retiringConcThread != null;
+    }
+
+    /**
+     * Moves one handler off the retiring loop, closing it once it is empty
+     */
+    synchronized void drainRetiringConcurrent() {
+        final VanillaEventLoop loop = retiringConcThread;
+        if (loop == null || loop.isMovingHandler())
+            return;
+        final List<EventHandler> handlers = loop.mediumHandlers;
+        if (!handlers.isEmpty()) {
+            final EventHandler handler = handlers.get(handlers.size() - 1);
+            loop.moveHandler(handler, getConcThread(placeConcurrent(handler)));
+            return;
+        }
+        // handlers queued before it was retired are accepted then moved
+        if (loop.pendingHandlerCount() > 0)
+            return;
+        // the monitor thread removes its handler before this is next called
+        if (removeThreadMonitoring(loop))
+            return;
+        retiringConcThread = null;
+        concThreads.set(concThreads.indexOf(loop), null);
+        concLoadSnapshots.remove(loop);
+        concBusyRatios.remove(loop);
+        closeQuietly(loop);
+        Jvm.perf().on(getClass(), "Retired " + loop.name());
+    }
+
+    /**
+     * @param share the fraction of the loop's load which would balance it with the target
+     * @return the handler whose sampled share of the loop's time is closest to this, or the last added if it isn't sampled
+     */
+    private EventHandler handlerToMove(@NotNull final VanillaEventLoop loop, final double share) {
+        final Map<EventHandler, HandlerLatencyHistogram> latencies = loop.handlerLatencies();
+        final List<EventHandler> candidates = new ArrayList<>();
+        long totalNS = 0;
+        for (EventHandler handler : loop.mediumHandlers) {
+            if (concPinnedUntilNS.containsKey(handler))
+                continue;
+            candidates.add(handler);
+            final HandlerLatencyHistogram histogram = latencies.get(handler);
+            if (histogram != null)
+                totalNS += histogram.snapshot().totalNS();
+        }
+        if (candidates.isEmpty())
+            return null;
+        if (totalNS <= 0)
+            return candidates.get(candidates.size() - 1);
+        EventHandler best = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (EventHandler handler : candidates) {
+            final HandlerLatencyHistogram histogram = latencies.get(handler);
+            final double handlerShare = histogram == null ? 0 : (double) histogram.snapshot().totalNS() / totalNS;
+            final double distance = Math.abs(handlerShare - share);
+            if (distance < bestDistance) {
+                best = handler;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
     @Override
     public void unpause() {
         pauser.unpause();
@@ -329,7 +682,7 @@ public class EventGroup
             case CONCURRENT: {
                 if (concThreads.isEmpty())
                     throw new IllegalStateException("Cannot add CONCURRENT " + handler + " to " + name);
-                getConcThread(counter.getAndIncrement() % concThreads.size()).addHandler(handler);
+                getConcThread(placeConcurrent(handler)).addHandler(handler);
                 break;
             }
 
@@ -338,6 +691,36 @@ public class EventGroup
         }
     }
 
+    /**
+     * Runs a task once on the core event loop thread, see {@link CoreEventLoop#execute(Runnable)}
+     */
+    public void execute(@NotNull final Runnable task) {
+        coreForTasks().execute(task);
+    }
+
+    /**
+     * @return an {@link Executor} which runs tasks on the core event loop thread
+     */
+    @NotNull
+    public Executor executor() {
+        return coreForTasks().executor();
+    }
+
+    /**
+     * Runs a task on the core event loop thread, see {@link CoreEventLoop#submit(Callable)}
+     */
+    @NotNull
+    public <T> CompletableFuture<T> submit(@NotNull final Callable<T> task) {
+        return coreForTasks().submit(task);
+    }
+
+    @NotNull
+    private CoreEventLoop coreForTasks() {
+        if (core == null)
+            throw new IllegalStateException("Cannot run tasks on " + name + " as it has no core event loop");
+        return core;
+    }
+
     public void setupTimeLimitMonitor(final long timeLimitNS, final LongSupplier timeOfStart) {
         throwExceptionIfClosed();
 
@@ -431,4 +814,47 @@ public class EventGroup
         closeQuietly(concThreads);
         awaitTermination();
     }
-}
\ No newline at end of file
+
+    private final class ConcurrentRebalancer implements SelfSchedulingEventHandler {
+        private final long intervalNS;
+        private final double overloaded;
+        private final double underloaded;
+        private long nextCheckNS = System.nanoTime();
+
+        ConcurrentRebalancer(long intervalNS, double overloaded, double underloaded) {
+            this.intervalNS = intervalNS;
+            this.overloaded = overloaded;
+            this.underloaded = underloaded;
+        }
+
+        @Override
+        public boolean action() throws InvalidEventHandlerException {
+            if (isClosing())
+                throw InvalidEventHandlerException.reusable();
+            final long nowNS = System.nanoTime();
+            if (!isAlive())
+                return false;
+            drainRetiringConcurrent();
+            if (nowNS < nextCheckNS)
+                return false;
+            nextCheckNS = nowNS + intervalNS;
+            // let the busy ratios reflect a change before making another
+            if (scaleConcurrent(nowNS, 10 * intervalNS, overloaded, underloaded)
+                    || rebalanceConcurrent(nowNS, 10 * intervalNS, overloaded, underloaded))
+                nextCheckNS += intervalNS;
+            return false;
+        }
+
+        @Override
+        public long notBeforeNS() {
+            // a retiring loop is drained one handler per call
+            return isRetiringConcurrent() ? 0 : nextCheckNS;
+        }
+
+        @NotNull
+        @Override
+        public HandlerPriority priority() {
+            return HandlerPriority.MONITOR;
+        }
+    }
+}
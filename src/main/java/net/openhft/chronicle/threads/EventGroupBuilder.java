@@ -1,6 +1,7 @@
 package net.openhft.chronicle.threads;
 
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
 import net.openhft.chronicle.core.threads.HandlerPriority;
 import org.jetbrains.annotations.NotNull;
 
@@ -11,6 +12,7 @@ import java.util.function.Supplier;
 import static net.openhft.chronicle.threads.EventGroup.REPLICATION_EVENT_PAUSE_TIME;
 
 public class EventGroupBuilder {
+    private static final long DEFAULT_REBALANCE_INTERVAL_MS = 1_000;
 
     private boolean daemon = true;
     private Pauser pauser;
@@ -19,6 +21,7 @@ public class EventGroupBuilder {
     private String replicationBinding = "none";
     private String name = "";
     private int concurrentThreadsNum = EventGroup.CONC_THREADS;
+    private int concurrentThreadsMin = -1;
     private String concurrentBinding = "none";
     @NotNull
     private Supplier<Pauser> concurrentPauserSupplier = () -> Pauser.balancedUpToMillis(REPLICATION_EVENT_PAUSE_TIME);
@@ -26,6 +29,15 @@ public class EventGroupBuilder {
     private String defaultBinding = "none";
     @NotNull
     private Supplier<Pauser> blockingPauserSupplier = PauserMode.balanced;
+    private Boolean blockingVirtualThreads;
+    private int blockingWorkers = 0;
+    private Boolean sharedMonitor;
+    private int stackSampleIntervalMS = 0;
+    @NotNull
+    private Supplier<HandlerPlacement> concurrentPlacementSupplier = HandlerPlacement::roundRobin;
+    private long concurrentRebalanceIntervalMS = 0;
+    private double concurrentOverloaded = 0.8;
+    private double concurrentUnderloaded = 0.5;
 
     public static EventGroupBuilder builder() {
         return new EventGroupBuilder();
@@ -35,7 +47,7 @@ public class EventGroupBuilder {
     }
 
     public EventGroup build() {
-        return new EventGroup(daemon,
+        final EventGroup eventGroup = new EventGroup(daemon,
                 pauserOrDefault(),
                 replicationPauser,
                 defaultBinding(binding),
@@ -45,7 +57,22 @@ public class EventGroupBuilder {
                 defaultBinding(concurrentBinding),
                 concurrentPauserSupplier,
                 priorities,
-                blockingPauserSupplier);
+                blockingPauserSupplier,
+                concurrentPlacementSupplier.get());
+        if (sharedMonitor != null)
+            eventGroup.sharedMonitor(sharedMonitor);
+        if (stackSampleIntervalMS > 0)
+            eventGroup.stackSampling(stackSampleIntervalMS);
+        if (blockingWorkers > 0)
+            eventGroup.blockingWorkers(blockingWorkers);
+        else if (blockingVirtualThreads != null)
+            eventGroup.blockingVirtualThreads(blockingVirtualThreads);
+        final boolean elastic = concurrentThreadsMin > 0 && concurrentThreadsMin < concurrentThreadsNum;
+        if (elastic)
+            eventGroup.elasticConcurrentThreads(concurrentThreadsMin);
+        eventGroup.concurrentRebalancing(concurrentRebalanceIntervalMS > 0 || !elastic ? concurrentRebalanceIntervalMS : DEFAULT_REBALANCE_INTERVAL_MS,
+                concurrentOverloaded, concurrentUnderloaded);
+        return eventGroup;
     }
 
     private Pauser pauserOrDefault() {
@@ -81,6 +108,15 @@ public class EventGroupBuilder {
         return this;
     }
 
+    /**
+     * Uses a new pauser of this mode for the core event loop, and for each concurrent event loop
+     */
+    public EventGroupBuilder withPauserMode(@NotNull PauserMode pauserMode) {
+        this.pauser = pauserMode.get();
+        this.concurrentPauserSupplier = pauserMode;
+        return this;
+    }
+
     public EventGroupBuilder withReplicationBinding(String replicationBinding) {
         this.replicationBinding = replicationBinding;
         return this;
@@ -91,11 +127,56 @@ public class EventGroupBuilder {
         return this;
     }
 
+    /**
+     * Called once for each BLOCKING handler, so each backs off and is woken independently. It should return a new pauser each time.
+     */
     public EventGroupBuilder withBlockingPauserSupplier(@NotNull Supplier<Pauser> blockingPauserSupplier) {
         this.blockingPauserSupplier = blockingPauserSupplier;
         return this;
     }
 
+    /**
+     * Runs each BLOCKING handler on a virtual thread rather than a platform thread from a cached pool.
+     * This needs Java 21+, on earlier versions platform threads are used with a warning.
+     * The default is the system property {@code eventloop.blocking.virtual.threads}
+     */
+    public EventGroupBuilder withBlockingVirtualThreads(boolean blockingVirtualThreads) {
+        this.blockingVirtualThreads = blockingVirtualThreads;
+        return this;
+    }
+
+    /**
+     * Shares this many threads between all the BLOCKING handlers, see {@link PooledBlockingEventLoop}, rather than giving each its own thread.
+     * Each handler gets a pauser from {@link #withBlockingPauserSupplier(Supplier)}. This takes precedence over {@link #withBlockingVirtualThreads(boolean)}.
+     * The default of 0 gives each handler its own thread.
+     */
+    public EventGroupBuilder withBlockingWorkers(int blockingWorkers) {
+        if (blockingWorkers < 0)
+            throw new IllegalArgumentException("blockingWorkers must not be negative, was " + blockingWorkers);
+        this.blockingWorkers = blockingWorkers;
+        return this;
+    }
+
+    /**
+     * Runs the MONITOR handlers, including those watching for blocked event loops, on one thread shared by every event group built this way,
+     * rather than a {@code ~monitor} thread for each group. The handlers of a group are removed when it stops.
+     * The default is the system property {@code eventGroup.shared.monitor}
+     */
+    public EventGroupBuilder withSharedMonitor(boolean sharedMonitor) {
+        this.sharedMonitor = sharedMonitor;
+        return this;
+    }
+
+    /**
+     * Samples the stacks of the core, replication and concurrent event loop threads every interval, see {@link StackSampler},
+     * writing the collapsed stacks to {@code <name>-stacks.collapsed} in the directory {@code eventGroup.stack.sample.dir}.
+     * The default is the system property {@code eventGroup.stack.sample.interval.ms}, or 0 for none.
+     */
+    public EventGroupBuilder withStackSampleIntervalMS(int stackSampleIntervalMS) {
+        this.stackSampleIntervalMS = stackSampleIntervalMS;
+        return this;
+    }
+
     public EventGroupBuilder withName(String name) {
         this.name = name;
         return this;
@@ -103,6 +184,23 @@ public class EventGroupBuilder {
 
     public EventGroupBuilder withConcurrentThreadsNum(int concurrentThreadsNum) {
         this.concurrentThreadsNum = concurrentThreadsNum;
+        this.concurrentThreadsMin = -1;
+        return this;
+    }
+
+    /**
+     * Use between min and max concurrent threads, starting with min. Another is started when those in use are saturated,
+     * and one is retired, its handlers moved to the others, when load falls. See {@link #withConcurrentRebalanceThresholds(double, double)}.
+     * Handlers are rebalanced, every second unless {@link #withConcurrentRebalanceIntervalMS(long)} is set.
+     *
+     * @param min the fewest concurrent threads, at least 1
+     * @param max the most concurrent threads
+     */
+    public EventGroupBuilder withConcurrentThreadsNum(int min, int max) {
+        if (min < 1 || min > max)
+            throw new IllegalArgumentException("Expected 1 <= min <= max, was " + min + " and " + max);
+        this.concurrentThreadsNum = max;
+        this.concurrentThreadsMin = min;
         return this;
     }
 
@@ -128,6 +226,44 @@ public class EventGroupBuilder {
         return this;
     }
 
+    /**
+     * How new CONCURRENT handlers are spread over the concurrent event loops, round robin by default
+     *
+     * @param concurrentPlacement e.g. {@link HandlerPlacement#leastBusy()}, only used by the event group built
+     */
+    public EventGroupBuilder withConcurrentPlacement(@NotNull HandlerPlacement concurrentPlacement) {
+        this.concurrentPlacementSupplier = () -> concurrentPlacement;
+        return this;
+    }
+
+    /**
+     * Moves CONCURRENT handlers from busy concurrent event loops to idle ones while running, off by default
+     * <p>
+     * A moved handler stays started, {@code loopFinished()} isn't called on the old thread nor {@code loopStarted()} on the new one,
+     * as {@code loopFinished()} frees the handler's resources. Setup which is specific to a thread belongs in {@code action()}.
+     * See {@link MediumEventLoop#moveHandler(EventHandler, MediumEventLoop)}.
+     *
+     * @param intervalMS how often to check the busy ratio of each loop, at most one handler is moved per check
+     */
+    public EventGroupBuilder withConcurrentRebalanceIntervalMS(long intervalMS) {
+        this.concurrentRebalanceIntervalMS = intervalMS;
+        return this;
+    }
+
+    /**
+     * The busy ratios, the fraction of the time not pausing, between which handlers are moved when rebalancing. 0.8 and 0.5 by default.
+     *
+     * @param overloaded  the busy ratio at or above which a loop gives up a handler
+     * @param underloaded the busy ratio at or below which a loop can take one, the gap between them prevents handlers moving back and forth
+     */
+    public EventGroupBuilder withConcurrentRebalanceThresholds(double overloaded, double underloaded) {
+        if (!(0 <= underloaded && underloaded < overloaded && overloaded <= 1))
+            throw new IllegalArgumentException("Expected 0 <= underloaded < overloaded <= 1, was " + underloaded + " and " + overloaded);
+        this.concurrentOverloaded = overloaded;
+        this.concurrentUnderloaded = underloaded;
+        return this;
+    }
+
     public EventGroupBuilder withPriorities(Set<HandlerPriority> priorities) {
         this.priorities = priorities;
         return this;
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size histogram of the time taken by an event handler's {@code action()}, in nanoseconds.
+ * <p>
+ * Values are counted in log2 buckets, each split into 8 linear sub-buckets, so any value is reported to within 12.5%.
+ * It is written by the event loop thread only and never allocates when recording.
+ * Use {@link #snapshot()} from any thread to read it.
+ */
+public final class HandlerLatencyHistogram {
+    static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // the largest positive long has its top bit at 62
+    static final int LENGTH = (62 - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(LENGTH);
+    private final AtomicLong totalNS = new AtomicLong();
+    private final AtomicLong maxNS = new AtomicLong();
+    // only accessed by the event loop thread
+    private int sampleCountdown;
+
+    static int indexFor(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) Math.max(0, value);
+        final int msb = 63 - Long.numberOfLeadingZeros(value);
+        final int bucket = msb - SUB_BUCKET_BITS + 1;
+        final int subBucket = (int) (value >>> (msb - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (bucket << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    static long lowestValueAt(int index) {
+        final int bucket = index >>> SUB_BUCKET_BITS;
+        final int subBucket = index & (SUB_BUCKETS - 1);
+        return bucket == 0 ? subBucket : (long) (SUB_BUCKETS + subBucket) << (bucket - 1);
+    }
+
+    static long highestValueAt(int index) {
+        final int bucket = index >>> SUB_BUCKET_BITS;
+        return bucket == 0 ? index : lowestValueAt(index) + (1L << (bucket - 1)) - 1;
+    }
+
+    /**
+     * Called by the event loop thread before each call to the handler
+     *
+     * @param sampleInterval time one call in this many
+     * @return true if this call should be timed
+     */
+    boolean sample(int sampleInterval) {
+        if (--sampleCountdown > 0)
+            return false;
+        sampleCountdown = sampleInterval;
+        return true;
+    }
+
+    /**
+     * Records one duration. Must only be called by one thread.
+     *
+     * @param durationNS the time taken
+     */
+    public void record(long durationNS) {
+        if (durationNS < 0)
+            durationNS = 0;
+        final int index = indexFor(durationNS);
+        // single writer so no need for a CAS
+        counts.lazySet(index, counts.get(index) + 1);
+        totalNS.lazySet(totalNS.get() + durationNS);
+        if (durationNS > maxNS.get())
+            maxNS.lazySet(durationNS);
+    }
+
+    /**
+     * @return a copy of the counts so far, this can be called from any thread
+     */
+    @NotNull
+    public Snapshot snapshot() {
+        final long[] copy = new long[LENGTH];
+        for (int i = 0; i < LENGTH; i++)
+            copy[i] = counts.get(i);
+        return new Snapshot(copy, totalNS.get(), maxNS.get());
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /**
+     * A point in time copy of a {@link HandlerLatencyHistogram}.
+     * As it is taken while the event loop is running, the count, total and max may differ by the calls in progress.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new long[LENGTH], 0, 0);
+
+        private final long[] counts;
+        private final long count;
+        private final long totalNS;
+        private final long maxNS;
+
+        Snapshot(long[] counts, long totalNS, long maxNS) {
+            this.counts = counts;
+            long count = 0;
+            for (long c : counts)
+                count += c;
+            this.count = count;
+            this.totalNS = totalNS;
+            this.maxNS = maxNS;
+        }
+
+        /**
+         * @return the number of calls timed
+         */
+        public long count() {
+            return count;
+        }
+
+        public long totalNS() {
+            return totalNS;
+        }
+
+        public long maxNS() {
+            return maxNS;
+        }
+
+        public long meanNS() {
+            return count == 0 ? 0 : totalNS / count;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return the highest value of the bucket holding this percentile, or 0 if nothing was recorded
+         */
+        public long valueAtPercentile(double percentile) {
+            if (count == 0)
+                return 0;
+            final long rank = Math.max(1, (long) Math.ceil(count * Math.min(100.0, percentile) / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank)
+                    return Math.min(highestValueAt(i), maxNS);
+            }
+            return maxNS;
+        }
+
+        /**
+         * @param earlier a snapshot of the same histogram taken before this one
+         * @return the calls recorded between the two snapshots, the max is that of this snapshot
+         */
+        @NotNull
+        public Snapshot since(@NotNull Snapshot earlier) {
+            final long[] delta = new long[counts.length];
+            for (int i = 0; i < counts.length; i++)
+                delta[i] = Math.max(0, counts[i] - earlier.counts[i]);
+            return new Snapshot(delta, totalNS - earlier.totalNS, maxNS);
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return "count=" + count +
+                    ", meanNS=" + meanNS() +
+                    ", 50%=" + valueAtPercentile(50) +
+                    ", 90%=" + valueAtPercentile(90) +
+                    ", 99%=" + valueAtPercentile(99) +
+                    ", 99.9%=" + valueAtPercentile(99.9) +
+                    ", maxNS=" + maxNS;
+        }
+    }
+}
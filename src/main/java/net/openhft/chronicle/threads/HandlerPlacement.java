@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Chooses which of the CONCURRENT event loops of an {@link EventGroup} a new CONCURRENT handler is added to.
+ * Set with {@link EventGroupBuilder#withConcurrentPlacement(HandlerPlacement)}.
+ * <p>
+ * Some placements keep state, so an instance shouldn't be shared between event groups.
+ */
+@FunctionalInterface
+public interface HandlerPlacement {
+
+    /**
+     * Each handler goes on the next event loop in turn, whatever their load. This is the default.
+     */
+    @NotNull
+    static HandlerPlacement roundRobin() {
+        final AtomicInteger counter = new AtomicInteger();
+        return (handler, loops) -> Math.floorMod(counter.getAndIncrement(), loops.size());
+    }
+
+    /**
+     * Each handler goes on the event loop with the fewest handlers, or of those, the least busy
+     */
+    @NotNull
+    static HandlerPlacement leastHandlers() {
+        return (handler, loops) -> {
+            LoopLoad best = loops.get(0);
+            for (LoopLoad load : loops) {
+                if (load.handlerCount() < best.handlerCount()
+                        || load.handlerCount() == best.handlerCount() && load.busyRatio() < best.busyRatio())
+                    best = load;
+            }
+            return best.index();
+        };
+    }
+
+    /**
+     * Each handler goes on the event loop with the lowest recent busy ratio, or of those, the fewest handlers
+     */
+    @NotNull
+    static HandlerPlacement leastBusy() {
+        return (handler, loops) -> {
+            LoopLoad best = loops.get(0);
+            for (LoopLoad load : loops) {
+                if (load.busyRatio() < best.busyRatio()
+                        || load.busyRatio() == best.busyRatio() && load.handlerCount() < best.handlerCount())
+                    best = load;
+            }
+            return best.index();
+        };
+    }
+
+    /**
+     * Handlers with the same affinity key go on the same event loop, e.g. so handlers sharing data share a CPU cache.
+     * The first handler with a key, and handlers without one, are placed by the fallback.
+     *
+     * @param affinityKey returns the key of a handler, or null if it has none
+     * @param fallback    placement for handlers with a new key or no key
+     */
+    @NotNull
+    static HandlerPlacement byAffinityKey(@NotNull Function<EventHandler, Object> affinityKey, @NotNull HandlerPlacement fallback) {
+        final Map<Object, Integer> loopForKey = new ConcurrentHashMap<>();
+        return (handler, loops) -> {
+            final Object key = affinityKey.apply(handler);
+            if (key == null)
+                return fallback.place(handler, loops);
+            final Integer index = loopForKey.get(key);
+            if (index != null && index < loops.size())
+                return index;
+            final int placed = fallback.place(handler, loops);
+            loopForKey.put(key, placed);
+            return placed;
+        };
+    }
+
+    /**
+     * @param handler the CONCURRENT handler being added
+     * @param loops   the load of each CONCURRENT event loop, in index order. There is always at least one.
+     * @return the index of the event loop to add the handler to
+     */
+    int place(@NotNull EventHandler handler, @NotNull List<LoopLoad> loops);
+
+    /**
+     * The load on one CONCURRENT event loop when a handler is placed
+     */
+    final class LoopLoad {
+        private final int index;
+        private final int handlerCount;
+        private final double busyRatio;
+
+        LoopLoad(int index, int handlerCount, double busyRatio) {
+            this.index = index;
+            this.handlerCount = handlerCount;
+            this.busyRatio = busyRatio;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        /**
+         * @return the handlers on the event loop, including those added but not yet accepted by its thread
+         */
+        public int handlerCount() {
+            return handlerCount;
+        }
+
+        /**
+         * @return the fraction of the recent past the event loop wasn't pausing, see {@link LoopPhaseSnapshot#dutyCycle()}. 0 if it hasn't started.
+         */
+        public double busyRatio() {
+            return busyRatio;
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return "LoopLoad{" +
+                    "index=" + index +
+                    ", handlerCount=" + handlerCount +
+                    ", busyRatio=" + busyRatio +
+                    '}';
+        }
+    }
+}
@@ -19,26 +19,22 @@ package net.openhft.chronicle.threads;
 
 import net.openhft.chronicle.core.Jvm;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.LockSupport;
 
 public class LongPauser implements Pauser, TimingPauser {
     private static final String SHOW_PAUSES = Jvm.getProperty("pauses.show");
     private final long minPauseTimeNS;
     private final long maxPauseTimeNS;
-    private final AtomicBoolean pausing = new AtomicBoolean();
+    private final Doorbell doorbell = new Doorbell();
+    private final PauserCounters counters = new PauserCounters();
     private final int minBusy;
     private final int minCount;
     private int count = 0;
     private long pauseTimeNS;
     private long timePaused = 0;
     private long countPaused = 0;
-    @Nullable
-    private volatile Thread thread = null;
     private long yieldStart = 0;
     private long timeOutStart = Long.MAX_VALUE;
     private long pauseUntilNS = 0;
@@ -65,6 +61,7 @@ public class LongPauser implements Pauser, TimingPauser {
     @Override
     public void reset() {
         checkYieldTime();
+        counters.reset();
         pauseTimeNS = minPauseTimeNS;
         count = 0;
         timeOutStart = Long.MAX_VALUE;
@@ -74,6 +71,7 @@ public class LongPauser implements Pauser, TimingPauser {
     public void pause() {
         ++count;
         if (count < minBusy) {
+            counters.spin();
             Jvm.nanoPause();
             return;
         }
@@ -124,6 +122,7 @@ public class LongPauser implements Pauser, TimingPauser {
     public void pause(long timeout, @NotNull TimeUnit timeUnit) throws TimeoutException {
         ++count;
         if (count < minBusy) {
+            counters.spin();
             Jvm.nanoPause();
             return;
         }
@@ -152,26 +151,30 @@ public class LongPauser implements Pauser, TimingPauser {
     private void yield() {
         if (yieldStart == 0)
             yieldStart = System.nanoTime();
+        counters.yield();
         Thread.yield();
     }
 
     void doPause(long delayNs) {
         long start = System.nanoTime();
-        thread = Thread.currentThread();
-        pausing.set(true);
-        if (!Thread.currentThread().isInterrupted())
-            LockSupport.parkNanos(delayNs);
-        pausing.set(false);
-        long time = System.nanoTime() - start;
+        final boolean unpaused = doorbell.park(delayNs);
+        final long end = System.nanoTime();
+        // a ring while awake returns without parking
+        if (doorbell.parked())
+            counters.parked(start, end, unpaused);
+        long time = end - start;
         timePaused += time;
         countPaused++;
     }
 
     @Override
     public void unpause() {
-        final Thread threadSnapshot = this.thread;
-        if (threadSnapshot != null && pausing.get())
-            LockSupport.unpark(threadSnapshot);
+        doorbell.ring();
+    }
+
+    @Override
+    public boolean isParked() {
+        return doorbell.isParked();
     }
 
     @Override
@@ -183,4 +186,10 @@ public class LongPauser implements Pauser, TimingPauser {
     public long countPaused() {
         return countPaused;
     }
+
+    @NotNull
+    @Override
+    public PauserStats stats() {
+        return counters.snapshot();
+    }
 }
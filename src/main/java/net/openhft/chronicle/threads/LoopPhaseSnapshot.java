@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Where the thread of a {@link CoreEventLoop} has spent its time, either since it started or, using {@link #since(LoopPhaseSnapshot)},
+ * between two snapshots.
+ * <p>
+ * An iteration is one pass over the HIGH and MEDIUM handlers, it is busy if any of them returned true.
+ * The time in the HIGH handler is estimated from a sample of iterations as it is called between every MEDIUM handler.
+ * The time not accounted for by any phase is the overhead of the loop itself.
+ */
+public final class LoopPhaseSnapshot {
+    static final LoopPhaseSnapshot EMPTY = new LoopPhaseSnapshot(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    private final long elapsedNS;
+    private final long iterations;
+    private final long busyIterations;
+    private final long highNS;
+    private final long mediumNS;
+    private final long tasksNS;
+    private final long timerNS;
+    private final long daemonNS;
+    private final long acceptNS;
+    private final long pauseNS;
+    private final long pauses;
+
+    LoopPhaseSnapshot(long elapsedNS, long iterations, long busyIterations,
+                      long highNS, long mediumNS, long tasksNS, long timerNS, long daemonNS, long acceptNS,
+                      long pauseNS, long pauses) {
+        this.elapsedNS = elapsedNS;
+        this.iterations = iterations;
+        this.busyIterations = busyIterations;
+        this.highNS = highNS;
+        this.mediumNS = mediumNS;
+        this.tasksNS = tasksNS;
+        this.timerNS = timerNS;
+        this.daemonNS = daemonNS;
+        this.acceptNS = acceptNS;
+        this.pauseNS = pauseNS;
+        this.pauses = pauses;
+    }
+
+    /**
+     * @return the time the loop has been running for when this snapshot was taken
+     */
+    public long elapsedNS() {
+        return elapsedNS;
+    }
+
+    public long iterations() {
+        return iterations;
+    }
+
+    public long busyIterations() {
+        return busyIterations;
+    }
+
+    public long idleIterations() {
+        return iterations - busyIterations;
+    }
+
+    /**
+     * @return the estimated time in the HIGH handler
+     */
+    public long highNS() {
+        return highNS;
+    }
+
+    public long mediumNS() {
+        return mediumNS;
+    }
+
+    /**
+     * @return the time running tasks passed to {@link CoreEventLoop#execute(Runnable)}, which isn't included in the handlers' time
+     */
+    public long tasksNS() {
+        return tasksNS;
+    }
+
+    public long timerNS() {
+        return timerNS;
+    }
+
+    public long daemonNS() {
+        return daemonNS;
+    }
+
+    public long acceptNS() {
+        return acceptNS;
+    }
+
+    public long pauseNS() {
+        return pauseNS;
+    }
+
+    /**
+     * @return the number of times the pauser was called
+     */
+    public long pauses() {
+        return pauses;
+    }
+
+    public double iterationsPerSecond() {
+        return elapsedNS <= 0 ? 0 : iterations * 1e9 / elapsedNS;
+    }
+
+    /**
+     * @return the fraction of iterations which were busy
+     */
+    public double busyIterationRatio() {
+        return iterations <= 0 ? 0 : (double) busyIterations / iterations;
+    }
+
+    /**
+     * @return the fraction of the elapsed time not spent pausing, i.e. how much of a CPU this loop would need if its pauser never spun
+     */
+    public double dutyCycle() {
+        return elapsedNS <= 0 ? 0 : Math.max(0.0, Math.min(1.0, 1 - (double) pauseNS / elapsedNS));
+    }
+
+    /**
+     * @param earlier a snapshot of the same event loop taken before this one
+     * @return the activity between the two snapshots
+     */
+    @NotNull
+    public LoopPhaseSnapshot since(@NotNull LoopPhaseSnapshot earlier) {
+        return new LoopPhaseSnapshot(
+                elapsedNS - earlier.elapsedNS,
+                iterations - earlier.iterations,
+                busyIterations - earlier.busyIterations,
+                highNS - earlier.highNS,
+                mediumNS - earlier.mediumNS,
+                tasksNS - earlier.tasksNS,
+                timerNS - earlier.timerNS,
+                daemonNS - earlier.daemonNS,
+                acceptNS - earlier.acceptNS,
+                pauseNS - earlier.pauseNS,
+                pauses - earlier.pauses);
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "LoopPhaseSnapshot{" +
+                "elapsedNS=" + elapsedNS +
+                ", iterations=" + iterations +
+                ", busyIterations=" + busyIterations +
+                ", highNS=" + highNS +
+                ", mediumNS=" + mediumNS +
+                ", tasksNS=" + tasksNS +
+                ", timerNS=" + timerNS +
+                ", daemonNS=" + daemonNS +
+                ", acceptNS=" + acceptNS +
+                ", pauseNS=" + pauseNS +
+                ", pauses=" + pauses +
+                ", iterationsPerSecond=" + (long) iterationsPerSecond() +
+                ", dutyCycle=" + Math.round(dutyCycle() * 1000) / 10.0 + "%" +
+                '}';
+    }
+}
@@ -17,6 +17,7 @@
  */
 package net.openhft.chronicle.threads;
 
+import net.openhft.affinity.Affinity;
 import net.openhft.affinity.AffinityLock;
 import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.annotation.HotMethod;
@@ -25,15 +26,24 @@ import net.openhft.chronicle.core.io.Closeable;
 import net.openhft.chronicle.core.threads.EventHandler;
 import net.openhft.chronicle.core.threads.EventLoop;
 import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.threads.internal.DispatchChain;
 import net.openhft.chronicle.threads.internal.EventLoopUtil;
+import net.openhft.chronicle.threads.internal.MonomorphicDispatcher;
+import net.openhft.chronicle.threads.internal.MpscArrayQueue;
+import net.openhft.chronicle.threads.internal.StackCapture;
+import net.openhft.chronicle.threads.internal.SubmittedTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.BooleanSupplier;
@@ -50,6 +60,26 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
     public static final int NO_CPU = -1;
 
     protected static final EventHandler[] NO_EVENT_HANDLERS = {};
+    private static final HandlerLatencyHistogram[] NO_HISTOGRAMS = {};
+
+    // indexes into phaseCounters
+    private static final int ITERATIONS = 0;
+    private static final int BUSY_ITERATIONS = 1;
+    private static final int HANDLERS_NS = 2;
+    private static final int HIGH_ITERATIONS = 3;
+    private static final int HIGH_TIMED_ITERATIONS = 4;
+    private static final int HIGH_TIMED_NS = 5;
+    private static final int TIMER_NS = 6;
+    private static final int DAEMON_NS = 7;
+    private static final int ACCEPT_NS = 8;
+    private static final int PAUSE_NS = 9;
+    private static final int PAUSES = 10;
+    private static final int TASKS_NS = 11;
+    private static final int PHASE_COUNTERS = 12;
+    // time the HIGH handler one iteration in 64
+    private static final int HIGH_HANDLER_TIMING_MASK = 63;
+    // moves are rare, each source loop makes one at a time
+    private static final int MOVED_HANDLER_QUEUE_SIZE = 16;
     protected static final long FINISHED = Long.MAX_VALUE - 1;
 
     @Nullable
@@ -57,7 +87,16 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
     @NotNull
     protected transient final ExecutorService service;
     protected final List<EventHandler> mediumHandlers = new CopyOnWriteArrayList<>();
-    protected final AtomicReference<EventHandler> newHandler = new AtomicReference<>();
+    protected final MpscArrayQueue<EventHandler> newHandlers = new MpscArrayQueue<>(EventLoopUtil.ACCEPT_HANDLER_QUEUE_SIZE);
+    // one off tasks to run on the event loop thread, see execute()
+    protected final MpscArrayQueue<Runnable> tasks = new MpscArrayQueue<>(EventLoopUtil.TASK_QUEUE_SIZE);
+    private final Executor executor = this::execute;
+    // true while the event loop thread may be pausing, so producers of tasks only unpause it then
+    private volatile boolean pausing = false;
+    // a handler to hand over to another event loop, see moveHandler()
+    private final AtomicReference<HandlerMove> pendingMove = new AtomicReference<>();
+    // handlers moved here from another event loop, which are already started
+    private final MpscArrayQueue<EventHandler> movedHandlers = new MpscArrayQueue<>(MOVED_HANDLER_QUEUE_SIZE);
     protected final Pauser pauser;
     protected final boolean daemon;
     private final String binding;
@@ -65,13 +104,52 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
     @NotNull
     protected EventHandler[] mediumHandlersArray = NO_EVENT_HANDLERS;
     protected EventHandler highHandler = EventHandlers.NOOP;
+    // all the HIGH handlers, the first is also highHandler
+    @NotNull
+    protected EventHandler[] highHandlersArray = NO_EVENT_HANDLERS;
+    private volatile int maxHighHandlers = EventLoopUtil.MAX_HIGH_HANDLERS;
+    private volatile boolean generatedDispatch = EventLoopUtil.GENERATED_DISPATCH;
+    @Nullable
+    private MonomorphicDispatcher dispatcher;
+    // calls mediumHandlersArray when generatedDispatch is on, otherwise null
+    @Nullable
+    private DispatchChain mediumHandlersChain;
+    private volatile int highHandlerInterleave = EventLoopUtil.HIGH_HANDLER_INTERLEAVE;
 
     protected volatile long loopStartNS;
+    // only accessed by the event loop thread
+    private long nextTimerCheckNS = Long.MIN_VALUE;
     @Nullable
     protected volatile Thread thread = null;
+    // set by the event loop thread when it starts, see StallAttribution
+    private volatile int boundCpuId = -1;
+    private volatile int nativeThreadId = -1;
     @NotNull
     protected final ExceptionHandlerStrategy exceptionThrownByHandler = ExceptionHandlerStrategy.strategy();
 
+    // written by the event loop thread only, see phaseSnapshot()
+    private final AtomicLongArray phaseCounters = new AtomicLongArray(PHASE_COUNTERS);
+    private volatile long phaseStartNS = 0;
+    private volatile long phaseEndNS = 0;
+    // time in the HIGH handler this iteration, when timed
+    private long highHandlerNS;
+
+    private final Map<EventHandler, HandlerLatencyHistogram> handlerLatencies = new ConcurrentHashMap<>();
+    private volatile long handlerBackoffMaxNS = EventLoopUtil.HANDLER_BACKOFF_MAX_US * 1_000L;
+    // the MEDIUM handlers with when each can next be called, replaced as one with mediumHandlersArray
+    @NotNull
+    private HandlerSchedule mediumHandlerSchedule = new HandlerSchedule(NO_EVENT_HANDLERS);
+    private volatile int handlerLatencySampleInterval = EventLoopUtil.HANDLER_LATENCY_SAMPLE_INTERVAL;
+    private volatile long daemonMaxIntervalNS = EventLoopUtil.DAEMON_MAX_INTERVAL_MS * 1_000_000L;
+    private volatile long daemonBudgetNS = EventLoopUtil.DAEMON_BUDGET_US * 1_000L;
+    // in the same order as mediumHandlersArray, only used by the event loop thread when sampling
+    @NotNull
+    private HandlerLatencyHistogram[] mediumHandlerLatencies = NO_HISTOGRAMS;
+    @NotNull
+    private EventHandler[] sampledHighHandlers = NO_EVENT_HANDLERS;
+    @NotNull
+    private HandlerLatencyHistogram[] highHandlerLatencies = NO_HISTOGRAMS;
+
     /**
      * @param parent  the parent event loop
      * @param name    the name of this event handler
@@ -126,6 +204,16 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
         return thread;
     }
 
+    @Override
+    public int boundCpuId() {
+        return boundCpuId;
+    }
+
+    @Override
+    public int nativeThreadId() {
+        return nativeThreadId;
+    }
+
     @NotNull
     @Override
     public String toString() {
@@ -133,9 +221,9 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
                 "name='" + name + '\'' +
                 ", parent=" + parent +
                 ", service=" + service +
-                ", highHandler=" + highHandler +
+                ", highHandlers=" + Arrays.toString(highHandlersArray) +
                 ", mediumHandlers=" + mediumHandlers +
-                ", newHandler=" + newHandler +
+                ", newHandlers=" + newHandlers +
                 ", pauser=" + pauser +
                 '}';
     }
@@ -191,14 +279,92 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
             addNewHandler(handler);
             return;
         }
-        do {
-            if (isStopped()) {
+        offerNewHandler(handler);
+    }
+
+    /**
+     * Queues a handler to be accepted by the event loop thread. This only spins if the queue is full.
+     */
+    void offerNewHandler(@NotNull final EventHandler handler) {
+        if (isStopped())
+            return;
+        while (!newHandlers.offer(handler)) {
+            if (isStopped())
                 return;
-            }
             pauser.unpause();
 
             checkInterruptedAddingNewHandler();
-        } while (!newHandler.compareAndSet(null, handler));
+            Jvm.nanoPause();
+        }
+        pauser.unpause();
+    }
+
+    @Override
+    public void execute(@NotNull final Runnable task) {
+        throwIfCannotRunTasks();
+        while (!tasks.offer(task)) {
+            throwIfCannotRunTasks();
+            // the event loop thread can't wait for itself to make room
+            if (thread == Thread.currentThread()) {
+                runTask(task);
+                return;
+            }
+            pauser.unpause();
+            if (Thread.currentThread().isInterrupted())
+                throw new RejectedExecutionException(hasBeen("interrupted. Task was not queued."));
+            Jvm.nanoPause();
+        }
+        if (pausing)
+            pauser.unpause();
+    }
+
+    /**
+     * Queues a task if there is room, see {@link #execute(Runnable)}
+     *
+     * @return false if the queue of tasks is full
+     * @throws RejectedExecutionException if the event loop has stopped
+     */
+    public boolean offerTask(@NotNull final Runnable task) {
+        throwIfCannotRunTasks();
+        if (!tasks.offer(task))
+            return false;
+        if (pausing)
+            pauser.unpause();
+        return true;
+    }
+
+    private void throwIfCannotRunTasks() {
+        if (isStopped() || isClosing())
+            throw new RejectedExecutionException(hasBeen("stopped"));
+    }
+
+    @NotNull
+    @Override
+    public Executor executor() {
+        return executor;
+    }
+
+    /**
+     * @return true if any tasks were run
+     */
+    private boolean runTasks() {
+        Runnable task = tasks.poll();
+        if (task == null)
+            return false;
+        // bounded so producers submitting continuously can't hold up the loop
+        int remaining = tasks.capacity();
+        do {
+            runTask(task);
+        } while (--remaining > 0 && (task = tasks.poll()) != null);
+        return true;
+    }
+
+    private void runTask(@NotNull final Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            Jvm.warn().on(getClass(), "Task threw an exception " + task, t);
+        }
     }
 
     void checkInterruptedAddingNewHandler() {
@@ -219,11 +385,17 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
                 thread = Thread.currentThread();
                 if (thread == null)
                     throw new NullPointerException();
+                if (lock.isBound()) {
+                    boundCpuId = lock.cpuId();
+                    nativeThreadId = Affinity.getThreadId();
+                }
                 loopStartedAllHandlers();
                 runLoop();
             } catch (IllegalStateException e) {
                 // ignore, already closed
             } finally {
+                if (phaseStartNS != 0)
+                    phaseEndNS = System.nanoTime();
                 loopFinishedAllHandlers();
                 loopStartNS = FINISHED;
             }
@@ -233,39 +405,86 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
     }
 
     protected void loopStartedAllHandlers() {
-        highHandler.loopStarted();
+        for (EventHandler handler : highHandlersArray)
+            handler.loopStarted();
         if (!mediumHandlers.isEmpty())
             mediumHandlers.forEach(EventHandler::loopStarted);
     }
 
     protected void loopFinishedAllHandlers() {
-        loopFinishedQuietly(highHandler);
+        // started by the event loop they were moved from, so they finish with the rest
+        for (EventHandler handler; (handler = movedHandlers.poll()) != null; )
+            addMovedHandler(handler);
+        for (EventHandler handler : highHandlersArray)
+            loopFinishedQuietly(handler);
         if (!mediumHandlers.isEmpty())
             mediumHandlers.forEach(Threads::loopFinishedQuietly);
-        Optional.ofNullable(newHandler.get())
-                .ifPresent(eventHandler -> {
-                    Jvm.warn().on(getClass(), "Handler in newHandler was not accepted before loop finished " + eventHandler);
-                    loopFinishedQuietly(eventHandler);
-                });
+        for (EventHandler eventHandler; (eventHandler = newHandlers.poll()) != null; ) {
+            Jvm.warn().on(getClass(), "Handler in newHandler was not accepted before loop finished " + eventHandler);
+            loopFinishedQuietly(eventHandler);
+            Closeable.closeQuietly(eventHandler);
+        }
+        rejectTasks("loop finished");
+    }
+
+    /**
+     * Drops the tasks which haven't been run, failing the futures of any submitted
+     */
+    private void rejectTasks(@NotNull final String when) {
+        for (Runnable task; (task = tasks.poll()) != null; ) {
+            Jvm.warn().on(getClass(), "Task was not run before " + when + " " + task);
+            if (task instanceof SubmittedTask)
+                ((SubmittedTask<?>) task).reject(new RejectedExecutionException(hasBeen("stopped. Task was not run.")));
+        }
     }
 
     private void runLoop() {
         int acceptHandlerModCount = EventLoopUtil.ACCEPT_HANDLER_MOD_COUNT;
-        long lastTimerNS = 0;
+        long iterations = 0;
+        long busyIterations = 0;
+        phaseStartNS = System.nanoTime();
+        long lastDaemonNS = phaseStartNS;
         while (isStarted()) {
             throwExceptionIfClosed();
 
-            loopStartNS = System.nanoTime();
+            final long startNS = System.nanoTime();
+            loopStartNS = startNS;
+            final int sampleInterval = handlerLatencySampleInterval;
+            final boolean hasHighHandler = highHandler != EventHandlers.NOOP;
+            final boolean timeHighHandler = hasHighHandler && (iterations & HIGH_HANDLER_TIMING_MASK) == 0;
+            final long backoffMaxNS = handlerBackoffMaxNS;
+            final HandlerSchedule schedule = mediumHandlerSchedule;
+            final boolean scheduled = backoffMaxNS > 0 || schedule.scheduled;
+            final int interleave = highHandlerInterleave;
             boolean busy =
-                    highHandler == EventHandlers.NOOP
-                            ? runAllMediumHandler()
-                            : runAllHandlers();
+                    sampleInterval > 0 || scheduled || interleave != 1 || highHandlersArray.length > 1
+                            ? runAllHandlersGeneric(schedule, sampleInterval, timeHighHandler, scheduled ? backoffMaxNS : -1, interleave, startNS, iterations)
+                            : hasHighHandler
+                            ? runAllHandlers(timeHighHandler)
+                            : mediumHandlersChain != null
+                            ? runAllMediumHandlerGenerated()
+                            : runAllMediumHandler();
+            long endNS = addPhaseTime(HANDLERS_NS, startNS);
+            if (!tasks.isEmpty()) {
+                busy |= runTasks();
+                endNS = addPhaseTime(TASKS_NS, endNS);
+            }
+            if (hasHighHandler) {
+                incrementPhaseCounter(HIGH_ITERATIONS, 1);
+                if (timeHighHandler) {
+                    incrementPhaseCounter(HIGH_TIMED_ITERATIONS, 1);
+                    incrementPhaseCounter(HIGH_TIMED_NS, highHandlerNS);
+                }
+            }
 
-            if (lastTimerNS + timerIntervalMS() * 1_000_000 < loopStartNS) {
-                lastTimerNS = loopStartNS;
+            if (nextTimerCheckNS <= startNS) {
                 runTimerHandlers();
+                endNS = addPhaseTime(TIMER_NS, endNS);
+                nextTimerCheckNS = nextTimerNS(endNS);
             }
+            phaseCounters.lazySet(ITERATIONS, ++iterations);
             if (busy) {
+                phaseCounters.lazySet(BUSY_ITERATIONS, ++busyIterations);
                 pauser.reset();
                 /*
                  * This is used for preventing starvation for new event handlers.
@@ -274,39 +493,172 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
                  */
                 if (EventLoopUtil.IS_ACCEPT_HANDLER_MOD_COUNT && --acceptHandlerModCount <= 0) {
                     acceptNewHandlers();
+                    endNS = addPhaseTime(ACCEPT_NS, endNS);
                     acceptHandlerModCount = EventLoopUtil.ACCEPT_HANDLER_MOD_COUNT; // Re-arm
                 }
+                // don't let the DAEMON handlers starve while busy
+                final long daemonMaxIntervalNS = this.daemonMaxIntervalNS;
+                if (daemonMaxIntervalNS > 0 && endNS - lastDaemonNS >= daemonMaxIntervalNS) {
+                    runDaemonHandlers(daemonBudgetNS);
+                    lastDaemonNS = addPhaseTime(DAEMON_NS, endNS);
+                }
             } else {
-                if (acceptNewHandlers())
+                final boolean accepted = acceptNewHandlers();
+                endNS = addPhaseTime(ACCEPT_NS, endNS);
+                if (accepted)
                     continue;
 
                 runDaemonHandlers();
+                endNS = lastDaemonNS = addPhaseTime(DAEMON_NS, endNS);
                 // reset the loop timeout.
                 loopStartNS = Long.MAX_VALUE;
-                pauser.pause();
+                // a producer either sees pausing or its task is seen here
+                pausing = true;
+                if (tasks.isEmpty())
+                    pauser.pause();
+                pausing = false;
+                addPhaseTime(PAUSE_NS, endNS);
+                incrementPhaseCounter(PAUSES, 1);
             }
         }
     }
 
+    private long addPhaseTime(final int index, final long fromNS) {
+        final long now = System.nanoTime();
+        incrementPhaseCounter(index, now - fromNS);
+        return now;
+    }
+
+    private void incrementPhaseCounter(final int index, final long delta) {
+        // only the event loop thread writes
+        phaseCounters.lazySet(index, phaseCounters.get(index) + delta);
+    }
+
+    /**
+     * @return the time spent in each phase of the loop so far, this can be called from any thread
+     */
+    @NotNull
+    @Override
+    public LoopPhaseSnapshot phaseSnapshot() {
+        final long startNS = phaseStartNS;
+        if (startNS == 0)
+            return LoopPhaseSnapshot.EMPTY;
+        final long endNS = phaseEndNS;
+        final long elapsedNS = (endNS == 0 ? System.nanoTime() : endNS) - startNS;
+        final long handlersNS = phaseCounters.get(HANDLERS_NS);
+        final long highTimedIterations = phaseCounters.get(HIGH_TIMED_ITERATIONS);
+        final long highNS = highTimedIterations == 0 ? 0
+                : (long) ((double) phaseCounters.get(HIGH_TIMED_NS) * phaseCounters.get(HIGH_ITERATIONS) / highTimedIterations);
+        return new LoopPhaseSnapshot(
+                elapsedNS,
+                phaseCounters.get(ITERATIONS),
+                phaseCounters.get(BUSY_ITERATIONS),
+                Math.min(highNS, handlersNS),
+                Math.max(0, handlersNS - highNS),
+                phaseCounters.get(TASKS_NS),
+                phaseCounters.get(TIMER_NS),
+                phaseCounters.get(DAEMON_NS),
+                phaseCounters.get(ACCEPT_NS),
+                phaseCounters.get(PAUSE_NS),
+                phaseCounters.get(PAUSES));
+    }
+
     protected long timerIntervalMS() {
         return Long.MAX_VALUE / 2;
     }
 
+    /**
+     * Called by the event loop thread after running the timer handlers
+     *
+     * @param nowNS the current time
+     * @return when the timer handlers should next be run
+     */
+    protected long nextTimerNS(final long nowNS) {
+        final long intervalMS = Math.max(0, timerIntervalMS());
+        if (intervalMS >= Long.MAX_VALUE / 1_000_000)
+            return Long.MAX_VALUE;
+        final long nextNS = nowNS + intervalMS * 1_000_000;
+        return nextNS < nowNS ? Long.MAX_VALUE : nextNS;
+    }
+
+    /**
+     * Run the timer handlers on the next iteration, e.g. as one has been added. Only called by the event loop thread.
+     */
+    protected void checkTimersNextIteration() {
+        nextTimerCheckNS = Long.MIN_VALUE;
+    }
+
     protected void runTimerHandlers() {
         // Do nothing unless overridden
     }
 
+    /**
+     * Called by the event loop thread when it accepts new handlers, to take on any which other threads could only stage
+     */
+    protected void acceptStagedHandlers() {
+        // Do nothing unless overridden
+    }
+
     protected void runDaemonHandlers() {
         // Do nothing unless overridden
     }
 
+    /**
+     * Called while the event loop is busy, if the DAEMON handlers haven't run for {@link #daemonMaxIntervalNS()}
+     *
+     * @param budgetNS how long to run DAEMON handlers for, at least one is run
+     */
+    protected void runDaemonHandlers(final long budgetNS) {
+        // Do nothing unless overridden
+    }
+
+    /**
+     * @return the longest the DAEMON handlers wait while the event loop is busy, 0 = until it is idle
+     */
+    public long daemonMaxIntervalNS() {
+        return daemonMaxIntervalNS;
+    }
+
+    /**
+     * DAEMON handlers are normally only run when an iteration finds no work, so under sustained load they never run.
+     * With a maximum interval, a busy event loop runs them anyway once per interval for up to {@link #daemonBudgetNS()},
+     * carrying on from where it stopped the time before.
+     * This can be changed while the event loop is running.
+     * The default is set by the system property {@code eventloop.daemon.max.interval.ms}
+     *
+     * @param maxIntervalNS the longest DAEMON handlers wait, or 0 to only run them when idle
+     */
+    public void daemonMaxIntervalNS(long maxIntervalNS) {
+        if (maxIntervalNS < 0)
+            throw new IllegalArgumentException("maxIntervalNS must not be negative, was " + maxIntervalNS);
+        this.daemonMaxIntervalNS = maxIntervalNS;
+    }
+
+    /**
+     * @return how long DAEMON handlers can run for when run while the event loop is busy
+     */
+    public long daemonBudgetNS() {
+        return daemonBudgetNS;
+    }
+
+    /**
+     * The default is set by the system property {@code eventloop.daemon.budget.us}
+     *
+     * @param budgetNS how long DAEMON handlers can run for when run while the event loop is busy, at least one is always run
+     */
+    public void daemonBudgetNS(long budgetNS) {
+        if (budgetNS <= 0)
+            throw new IllegalArgumentException("budgetNS must be positive, was " + budgetNS);
+        this.daemonBudgetNS = budgetNS;
+    }
+
     private void closeAll() {
         closeAllHandlers();
         Jvm.debug().on(getClass(), "Remaining handlers");
         dumpRunningHandlers();
     }
 
-    private boolean runAllMediumHandler() {
+    protected boolean runAllMediumHandler() {
         boolean busy = false;
         final EventHandler[] handlers = this.mediumHandlersArray;
         try {
@@ -360,18 +712,42 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
         return busy;
     }
 
+    /**
+     * The same as {@link #runAllMediumHandler()} using a chain of calls generated for the current handlers, see {@link #generatedDispatch(boolean)}
+     */
+    protected boolean runAllMediumHandlerGenerated() {
+        final DispatchChain chain = this.mediumHandlersChain;
+        if (chain == null)
+            return runAllMediumHandler();
+        try {
+            return chain.run();
+        } catch (Throwable e) {
+            Jvm.warn().on(getClass(), e);
+            return false;
+        }
+    }
+
     // NOTE The loop is unrolled to reduce megamorphic calls.
     protected boolean runAllHandlers() {
+        return runAllHandlers(false);
+    }
+
+    /**
+     * @param timeHighHandler whether to add the time of every HIGH handler call to {@code highHandlerNS},
+     *                        done here so the sampled iterations take the same path as the rest
+     */
+    private boolean runAllHandlers(final boolean timeHighHandler) {
         boolean busy = false;
         final EventHandler[] handlers = this.mediumHandlersArray;
+        highHandlerNS = 0;
         try {
             // run HIGH handler
-            busy |= callHighHandler();
+            busy |= callHighHandler(timeHighHandler);
 
             switch (handlers.length) {
                 default:
                     for (int i = handlers.length - 1; i >= 4; i--) {
-                        busy |= callHighHandler();
+                        busy |= callHighHandler(timeHighHandler);
                         try {
                             busy |= handlers[i].action();
                         } catch (Exception e) {
@@ -381,7 +757,7 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
                     // fallthrough.
 
                 case 4:
-                    busy |= callHighHandler();
+                    busy |= callHighHandler(timeHighHandler);
                     try {
                         busy |= handlers[3].action();
                     } catch (Exception e) {
@@ -389,7 +765,7 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
                     }
                     // fall through
                 case 3:
-                    busy |= callHighHandler();
+                    busy |= callHighHandler(timeHighHandler);
                     try {
                         busy |= handlers[2].action();
                     } catch (Exception e) {
@@ -397,7 +773,7 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
                     }
                     // fall through
                 case 2:
-                    busy |= callHighHandler();
+                    busy |= callHighHandler(timeHighHandler);
                     try {
                         busy |= handlers[1].action();
                     } catch (Exception e) {
@@ -405,7 +781,7 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
                     }
                     // fall through
                 case 1: {
-                    busy |= callHighHandler();
+                    busy |= callHighHandler(timeHighHandler);
                     try {
                         busy |= handlers[0].action();
                     } catch (Exception e) {
@@ -419,29 +795,152 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
             }
 
             // run HIGH handler again
-            busy |= callHighHandler();
+            busy |= callHighHandler(timeHighHandler);
+        } catch (Throwable e) {
+            Jvm.warn().on(getClass(), e);
+        }
+        return busy;
+    }
+
+    /**
+     * The same as {@link #runAllHandlers()} but supporting the options which need per handler state.
+     * This isn't unrolled as the cost of the options outweighs the cost of the megamorphic call.
+     *
+     * @param schedule        the MEDIUM handlers to call and when each is next due
+     * @param sampleInterval  record handler latencies every Nth call, or 0 to not record them
+     * @param timeHighHandler whether to add the time of every HIGH handler call to {@code highHandlerNS}
+     * @param backoffMaxNS    the maximum time to skip an idle MEDIUM handler, 0 to only honour {@link SelfSchedulingEventHandler}s
+     *                        and {@link TieredEventHandler}s, or -1 to call every handler
+     * @param interleave      call the HIGH handlers before every Nth MEDIUM handler
+     * @param nowNS           the start of this iteration
+     * @param iteration       the number of this iteration
+     */
+    private boolean runAllHandlersGeneric(@NotNull final HandlerSchedule schedule, final int sampleInterval, final boolean timeHighHandler,
+                                          final long backoffMaxNS, final int interleave, final long nowNS, final long iteration) {
+        boolean busy = false;
+        final EventHandler[] handlers = schedule.handlers;
+        HandlerLatencyHistogram[] histograms = this.mediumHandlerLatencies;
+        if (sampleInterval > 0 && histograms.length != handlers.length)
+            histograms = this.mediumHandlerLatencies = handlerLatenciesFor(handlers);
+        final boolean hasHighHandler = highHandler != EventHandlers.NOOP;
+        highHandlerNS = 0;
+        try {
+            if (hasHighHandler)
+                busy |= callHighHandlersTimed(sampleInterval, timeHighHandler);
+
+            int sinceHighHandlers = 0;
+            for (int i = handlers.length - 1; i >= 0; i--) {
+                // a skipped handler doesn't count towards calling the HIGH handlers either
+                if (backoffMaxNS >= 0 && !schedule.isDue(i, nowNS, iteration))
+                    continue;
+                if (hasHighHandler && ++sinceHighHandlers >= interleave) {
+                    sinceHighHandlers = 0;
+                    busy |= callHighHandlersTimed(sampleInterval, timeHighHandler);
+                }
+                try {
+                    final boolean handlerBusy = sampleInterval > 0
+                            ? callSampled(handlers[i], histograms[i], sampleInterval)
+                            : handlers[i].action();
+                    if (backoffMaxNS >= 0)
+                        schedule.scheduleNext(i, handlerBusy, nowNS, backoffMaxNS);
+                    busy |= handlerBusy;
+                } catch (Exception e) {
+                    handleExceptionMediumHandler(handlers[i], e);
+                }
+            }
+
+            if (hasHighHandler)
+                busy |= callHighHandlersTimed(sampleInterval, timeHighHandler);
         } catch (Throwable e) {
             Jvm.warn().on(getClass(), e);
         }
         return busy;
     }
 
-    private boolean callHighHandler() {
+    private boolean callHighHandlersTimed(final int sampleInterval, final boolean timeHighHandler) {
+        final EventHandler[] handlers = this.highHandlersArray;
+        HandlerLatencyHistogram[] histograms = this.highHandlerLatencies;
+        if (sampleInterval > 0 && handlers != sampledHighHandlers) {
+            sampledHighHandlers = handlers;
+            histograms = this.highHandlerLatencies = handlerLatenciesFor(handlers);
+        }
+        boolean busy = false;
+        for (int i = 0; i < handlers.length; i++) {
+            HandlerLatencyHistogram histogram = null;
+            if (sampleInterval > 0) {
+                histogram = histograms[i];
+                if (!histogram.sample(sampleInterval))
+                    histogram = null;
+            }
+            if (histogram == null && !timeHighHandler) {
+                busy |= callHighHandler(handlers[i]);
+                continue;
+            }
+            final long start = System.nanoTime();
+            try {
+                busy |= callHighHandler(handlers[i]);
+            } finally {
+                final long durationNS = System.nanoTime() - start;
+                highHandlerNS += durationNS;
+                if (histogram != null)
+                    histogram.record(durationNS);
+            }
+        }
+        return busy;
+    }
+
+    /**
+     * Calls the handler, timing it if it is due to be sampled
+     */
+    protected static boolean callSampled(@NotNull final EventHandler handler,
+                                         @NotNull final HandlerLatencyHistogram histogram,
+                                         final int sampleInterval) throws InvalidEventHandlerException {
+        if (!histogram.sample(sampleInterval))
+            return handler.action();
+        final long start = System.nanoTime();
+        try {
+            return handler.action();
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    private boolean callHighHandler(final boolean timed) {
+        if (!timed)
+            return callHighHandler(highHandler);
+        final long start = System.nanoTime();
         try {
-            return highHandler.action();
+            return callHighHandler(highHandler);
+        } finally {
+            highHandlerNS += System.nanoTime() - start;
+        }
+    }
+
+    private boolean callHighHandler(final EventHandler handler) {
+        try {
+            return handler.action();
         } catch (Exception e) {
-            if (exceptionThrownByHandler.handle(this, highHandler, e)) {
-                loopFinishedQuietly(highHandler);
-                Closeable.closeQuietly(highHandler);
-                highHandler = EventHandlers.NOOP;
+            if (exceptionThrownByHandler.handle(this, handler, e)) {
+                loopFinishedQuietly(handler);
+                Closeable.closeQuietly(handler);
+                removeHandlerLatency(handler);
+                removeHighHandler(handler);
             }
         }
         return true;
     }
 
+    private synchronized void removeHighHandler(final EventHandler handler) {
+        final List<EventHandler> handlers = new ArrayList<>(Arrays.asList(highHandlersArray));
+        handlers.remove(handler);
+        highHandlersArray = handlers.toArray(NO_EVENT_HANDLERS);
+        highHandler = highHandlersArray.length == 0 ? EventHandlers.NOOP : highHandlersArray[0];
+    }
+
     private void handleExceptionMediumHandler(EventHandler handler, Throwable t) {
         if (exceptionThrownByHandler.handle(this, handler, t)) {
             removeHandler(handler, mediumHandlers);
+            removeHandlerLatency(handler);
             updateMediumHandlersArray();
         }
     }
@@ -452,17 +951,217 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
      * {@see https://github.com/OpenHFT/Chronicle-Threads/issues/106}
      */
     protected synchronized void updateMediumHandlersArray() {
-        this.mediumHandlersArray = mediumHandlers.toArray(NO_EVENT_HANDLERS);
+        final EventHandler[] handlers = mediumHandlers.toArray(NO_EVENT_HANDLERS);
+        // if sampling is turned on later, the length mismatch tells the loop to rebuild this
+        this.mediumHandlerLatencies = handlerLatencySampleInterval > 0 ? handlerLatenciesFor(handlers) : NO_HISTOGRAMS;
+        this.mediumHandlerSchedule = new HandlerSchedule(handlers);
+        this.mediumHandlersChain = generatedDispatch ? buildMediumHandlersChain(handlers) : null;
+        this.mediumHandlersArray = handlers;
+    }
+
+    @Nullable
+    private DispatchChain buildMediumHandlersChain(@NotNull final EventHandler[] handlers) {
+        // the unrolled switch is as good for a few handlers, and the chain is called recursively so keep it short
+        if (handlers.length <= 4 || handlers.length > EventLoopUtil.GENERATED_DISPATCH_MAX_HANDLERS)
+            return null;
+        if (dispatcher == null)
+            dispatcher = new MonomorphicDispatcher(this::handleExceptionMediumHandler);
+        return dispatcher.build(handlers);
+    }
+
+    /**
+     * @return whether the MEDIUM handlers are called through generated code
+     */
+    public boolean generatedDispatch() {
+        return generatedDispatch;
+    }
+
+    /**
+     * When there are more than 4 MEDIUM handlers and no HIGH handler, call them through a chain of classes generated for the current handlers
+     * so that every {@code action()} call site sees only one handler class and can be inlined.
+     * Above {@code eventloop.generated.dispatch.max.handlers} (default 12) handlers the array is looped over as usual.
+     * The chain is rebuilt from the first handler which changed, which costs a class per distinct handler class and position.
+     * This is not used while any option needing per handler state, e.g. {@link #handlerBackoffMaxNS(long)}, is in use.
+     * The default is set by the system property {@code eventloop.generated.dispatch}
+     *
+     * @param generatedDispatch true to use generated code
+     */
+    public void generatedDispatch(boolean generatedDispatch) {
+        if (generatedDispatch && !MonomorphicDispatcher.isSupported()) {
+            Jvm.warn().on(getClass(), "Generated dispatch is not supported in this environment");
+            return;
+        }
+        this.generatedDispatch = generatedDispatch;
+        updateMediumHandlersArray();
+    }
+
+    /**
+     * @return the maximum time an idle MEDIUM handler is skipped for, 0 = never skipped
+     */
+    public long handlerBackoffMaxNS() {
+        return handlerBackoffMaxNS;
+    }
+
+    /**
+     * Skip MEDIUM handlers which keep returning false from {@code action()}. Each time a handler is idle it is skipped for twice as long,
+     * starting at 1 microsecond, up to this maximum. The first time it is busy it is called on every iteration again.
+     * This can be changed while the event loop is running.
+     * The default is set by the system property {@code eventloop.handler.backoff.max.us}
+     *
+     * @param backoffMaxNS the longest a handler can be skipped for, or 0 to call every handler on every iteration.
+     */
+    public void handlerBackoffMaxNS(long backoffMaxNS) {
+        if (backoffMaxNS < 0)
+            throw new IllegalArgumentException("backoffMaxNS must not be negative, was " + backoffMaxNS);
+        this.handlerBackoffMaxNS = backoffMaxNS;
     }
 
+    @NotNull
+    private HandlerLatencyHistogram[] handlerLatenciesFor(@NotNull final EventHandler[] handlers) {
+        final HandlerLatencyHistogram[] histograms = new HandlerLatencyHistogram[handlers.length];
+        for (int i = 0; i < handlers.length; i++)
+            histograms[i] = handlerLatencyFor(handlers[i]);
+        return histograms;
+    }
+
+    @NotNull
+    protected HandlerLatencyHistogram handlerLatencyFor(@NotNull final EventHandler handler) {
+        return handlerLatencies.computeIfAbsent(handler, h -> new HandlerLatencyHistogram());
+    }
+
+    /**
+     * Stops recording the latency of a handler which has been removed
+     */
+    protected void removeHandlerLatency(@Nullable final EventHandler handler) {
+        if (handler != null)
+            handlerLatencies.remove(handler);
+    }
+
+    /**
+     * @return how often each handler's {@code action()} is timed, 0 = never, 1 = every call, N = every Nth call
+     */
+    public int handlerLatencySampleInterval() {
+        return handlerLatencySampleInterval;
+    }
+
+    /**
+     * Turns on, or off, recording of the time taken by each handler's {@code action()}.
+     * This can be changed while the event loop is running.
+     * The default is set by the system property {@code eventloop.handler.latency.sample}
+     *
+     * @param sampleInterval 0 = off, 1 = time every call, N = time every Nth call of each handler.
+     */
+    public void handlerLatencySampleInterval(int sampleInterval) {
+        if (sampleInterval < 0)
+            throw new IllegalArgumentException("sampleInterval must not be negative, was " + sampleInterval);
+        this.handlerLatencySampleInterval = sampleInterval;
+    }
+
+    /**
+     * The latency of each handler currently on this event loop, recorded while {@link #handlerLatencySampleInterval()} &gt; 0.
+     * Histograms are kept while sampling is turned off, and dropped when their handler is removed.
+     *
+     * @return a live, read only view which can be read from any thread
+     */
+    @NotNull
+    public Map<EventHandler, HandlerLatencyHistogram> handlerLatencies() {
+        return Collections.unmodifiableMap(handlerLatencies);
+    }
+
+    /**
+     * Accepts the handlers queued by other threads, at most one queue's worth per call so a producer
+     * adding continuously can't hold up the loop.
+     *
+     * @return true if any handlers were accepted
+     */
     @HotMethod
     private boolean acceptNewHandlers() {
-        final EventHandler handler = newHandler.getAndSet(null);
-        if (handler != null) {
+        if (pendingMove.get() != null)
+            movePendingHandler();
+        acceptStagedHandlers();
+        EventHandler handler = movedHandlers.poll();
+        final boolean moved = handler != null;
+        for (; handler != null; handler = movedHandlers.poll())
+            addMovedHandler(handler);
+        handler = newHandlers.poll();
+        if (handler == null)
+            return moved;
+        int remaining = newHandlers.capacity();
+        do {
             addNewHandler(handler);
-            return true;
+        } while (--remaining > 0 && (handler = newHandlers.poll()) != null);
+        return true;
+    }
+
+    /**
+     * Moves a MEDIUM handler to another event loop.
+     * <p>
+     * The move is made by this event loop's thread between calls to the handlers. It removes the handler without closing it
+     * and passes it to the target, whose thread adds it and calls {@code eventLoop(target)},
+     * so {@code action()} is never called by both threads at once.
+     * <p>
+     * The handler stays started, {@code loopFinished()} and {@code loopStarted()} are not called by the move,
+     * as {@code loopFinished()} is where a handler frees its resources, and it couldn't use them again on the new thread.
+     * Setup which is specific to a thread belongs in the first {@code action()} on that thread rather than in {@code loopStarted()}.
+     * An {@link AbstractCloseable} handler is released by the old thread, so the new one can use it.
+     * If the target won't take the handler, e.g. it has stopped, it stays on this event loop.
+     *
+     * @param handler to move, ignored if it isn't a MEDIUM handler of this event loop by the time the move is made
+     * @param target  to move it to
+     * @return false if another move hasn't been made yet
+     */
+    public boolean moveHandler(@NotNull final EventHandler handler, @NotNull final MediumEventLoop target) {
+        throwExceptionIfClosed();
+        return pendingMove.compareAndSet(null, new HandlerMove(handler, target));
+    }
+
+    /**
+     * @return true if a handler passed to {@link #moveHandler(EventHandler, MediumEventLoop)} hasn't been moved yet
+     */
+    public boolean isMovingHandler() {
+        return pendingMove.get() != null;
+    }
+
+    private void movePendingHandler() {
+        final HandlerMove move = pendingMove.get();
+        final EventHandler handler = move.handler;
+        try {
+            if (!mediumHandlers.remove(handler))
+                return;
+            updateMediumHandlersArray();
+            removeHandlerLatency(handler);
+            if (!move.target.acceptMovedHandler(handler)) {
+                Jvm.warn().on(getClass(), "Unable to move " + handler + " to " + move.target.name() + ", keeping it");
+                addMovedHandler(handler);
+            }
+        } finally {
+            pendingMove.set(null);
         }
-        return false;
+    }
+
+    /**
+     * Queues a started handler moved from another event loop, to be added by this event loop's thread.
+     *
+     * @return false if this event loop hasn't started, is stopping or can't take it now, in which case the handler wasn't queued
+     */
+    boolean acceptMovedHandler(@NotNull final EventHandler handler) {
+        // once started, its thread adds the handler after calling loopStarted() on the others, even if it isn't running yet
+        if (!isStarted() || !movedHandlers.offer(handler))
+            return false;
+        pauser.unpause();
+        return true;
+    }
+
+    /**
+     * Adds a MEDIUM handler which is already started, without calling {@code loopStarted()} again
+     */
+    private void addMovedHandler(@NotNull final EventHandler handler) {
+        if (mediumHandlers.contains(handler))
+            return;
+        clearUsedByThread(handler);
+        mediumHandlers.add(handler);
+        updateMediumHandlersArray();
+        handler.eventLoop(parent != null ? parent : this);
     }
 
     protected void addNewHandler(@NotNull final EventHandler handler) {
@@ -472,7 +1171,7 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
                 if (updateHighHandler(handler)) {
                     break;
                 } else {
-                    Jvm.warn().on(getClass(), "Only one high handler supported was " + highHandler + ", treating " + handler + " as MEDIUM");
+                    warnTooManyHighHandlers(handler);
                     // fall through to MEDIUM
                 }
 
@@ -508,13 +1207,76 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
 
     /**
      * This check/assignment needs to be atomic
+     *
+     * @return false if there are already {@link #maxHighHandlers()}
      */
     protected synchronized boolean updateHighHandler(@NotNull EventHandler handler) {
         if (highHandler == EventHandlers.NOOP || highHandler == handler) {
             highHandler = handler;
+            highHandlersArray = new EventHandler[]{handler};
             return true;
         }
-        return false;
+        for (EventHandler eventHandler : highHandlersArray) {
+            if (eventHandler == handler)
+                return true;
+        }
+        if (highHandlersArray.length >= maxHighHandlers)
+            return false;
+        final EventHandler[] handlers = Arrays.copyOf(highHandlersArray, highHandlersArray.length + 1);
+        handlers[handlers.length - 1] = handler;
+        highHandlersArray = handlers;
+        return true;
+    }
+
+    protected void warnTooManyHighHandlers(@NotNull EventHandler handler) {
+        if (maxHighHandlers == 1)
+            Jvm.warn().on(getClass(), "Only one high handler supported was " + highHandler + ", treating " + handler + " as MEDIUM");
+        else
+            Jvm.warn().on(getClass(), "Only " + maxHighHandlers + " high handlers supported were " + Arrays.toString(highHandlersArray) + ", treating " + handler + " as MEDIUM");
+    }
+
+    /**
+     * @return the most HIGH handlers this event loop will run as HIGH, any more are run as MEDIUM
+     */
+    public int maxHighHandlers() {
+        return maxHighHandlers;
+    }
+
+    /**
+     * Sets how many HIGH handlers can be added before further ones are treated as MEDIUM.
+     * With more than one, every HIGH handler is called in turn wherever a single HIGH handler would be.
+     * This only affects handlers added afterwards.
+     * The default is set by the system property {@code eventloop.high.handlers.max}
+     *
+     * @param maxHighHandlers at least 1
+     */
+    public void maxHighHandlers(int maxHighHandlers) {
+        if (maxHighHandlers < 1)
+            throw new IllegalArgumentException("maxHighHandlers must be at least 1, was " + maxHighHandlers);
+        this.maxHighHandlers = maxHighHandlers;
+    }
+
+    /**
+     * @return how many MEDIUM handlers are called between calls to the HIGH handlers
+     */
+    public int highHandlerInterleave() {
+        return highHandlerInterleave;
+    }
+
+    /**
+     * Sets how many MEDIUM handlers are called between calls to the HIGH handlers.
+     * 1, the default, calls the HIGH handlers before every MEDIUM handler which gives them the lowest latency,
+     * a higher value reduces the cost of polling them when MEDIUM handlers are cheap.
+     * The HIGH handlers are still called at the start and end of every iteration.
+     * This can be changed while the event loop is running.
+     * The default is set by the system property {@code eventloop.high.handler.interleave}
+     *
+     * @param interleave at least 1
+     */
+    public void highHandlerInterleave(int interleave) {
+        if (interleave < 1)
+            throw new IllegalArgumentException("interleave must be at least 1, was " + interleave);
+        this.highHandlerInterleave = interleave;
     }
 
     @Override
@@ -522,24 +1284,31 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
         final Thread threadSnapshot = this.thread;
         if (threadSnapshot == null || !Jvm.isPerfEnabled(getClass()))
             return;
-        final StringBuilder out = new StringBuilder(message);
-        final int messageIndex = out.length();
-        final long startTimeNanos = System.nanoTime();
-        Jvm.trimStackTrace(out, threadSnapshot.getStackTrace());
+        StackCapture.INSTANCE.request(threadSnapshot, (stackTrace, captureNS) -> dumpRunningState(message, finalCheck, stackTrace, captureNS));
+    }
 
-        if (!finalCheck.getAsBoolean()) {
+    @Override
+    public void dumpRunningState(@NotNull final String message, @NotNull final BooleanSupplier finalCheck,
+                                 @Nullable final StackTraceElement[] stackTrace, final long captureNS) {
+        if (!Jvm.isPerfEnabled(getClass()))
+            return;
+        final StringBuilder out = new StringBuilder(message);
+        if (stackTrace == null) {
+            out.append(" The stack trace was not captured as another was less than ")
+                    .append(StackCapture.INSTANCE.minIntervalNS() / 1_000_000).append("ms ago");
+        } else if (!finalCheck.getAsBoolean()) {
             // Previously, we did not log anything when finalCheck failed, leading to surprises when loop block monitor
             // detected pauses but a slow getStackTrace() meant the warning was not logged.
             // Better to log that a blockage was found (and that the user has paid for a slow getStackTrace())
-            final long timeToTakeStackTraceMillis = (System.nanoTime() - startTimeNanos) / 1_000_000;
-            out.setLength(messageIndex);
-            out.append(" An accurate stack trace could not be determined (capturing the stack trace took " + timeToTakeStackTraceMillis + "ms)");
+            out.append(" An accurate stack trace could not be determined (capturing the stack trace took " + captureNS / 1_000_000 + "ms)");
+        } else {
+            Jvm.trimStackTrace(out, stackTrace);
         }
         Jvm.perf().on(getClass(), out.toString());
     }
 
     public int nonDaemonHandlerCount() {
-        return (highHandler == EventHandlers.NOOP ? 0 : 1) +
+        return highHandlersArray.length +
                 mediumHandlers.size();
     }
 
@@ -547,21 +1316,31 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
         return nonDaemonHandlerCount();
     }
 
+    /**
+     * @return the handlers added from another thread which the event loop thread hasn't accepted yet
+     */
+    public int pendingHandlerCount() {
+        return newHandlers.size();
+    }
+
     protected void closeAllHandlers() {
-        Closeable.closeQuietly(highHandler);
+        Closeable.closeQuietly(highHandlersArray);
         closeAll(mediumHandlers);
-        Optional.ofNullable(newHandler.get())
-                .ifPresent(eventHandler -> {
-                    Jvm.warn().on(getClass(), "Handler in newHandler was not accepted before close " + eventHandler);
-                    Closeable.closeQuietly(eventHandler);
-                });
+        for (EventHandler eventHandler; (eventHandler = newHandlers.poll()) != null; ) {
+            Jvm.warn().on(getClass(), "Handler in newHandler was not accepted before close " + eventHandler);
+            Closeable.closeQuietly(eventHandler);
+        }
+        for (EventHandler eventHandler; (eventHandler = movedHandlers.poll()) != null; ) {
+            loopFinishedQuietly(eventHandler);
+            Closeable.closeQuietly(eventHandler);
+        }
     }
 
     public void dumpRunningHandlers() {
         final int handlerCount = handlerCount();
         if (handlerCount <= 0)
             return;
-        final List<EventHandler> collect = Stream.of(Collections.singletonList(highHandler), mediumHandlers)
+        final List<EventHandler> collect = Stream.of(Arrays.asList(highHandlersArray), mediumHandlers)
                 .flatMap(List::stream)
                 .filter(e -> e != EventHandlers.NOOP)
                 .filter(Closeable.class::isInstance)
@@ -585,9 +1364,15 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
         } finally {
             closeAllHandlers();
             highHandler = EventHandlers.NOOP;
+            highHandlersArray = NO_EVENT_HANDLERS;
             mediumHandlers.clear();
+            handlerLatencies.clear();
             updateMediumHandlersArray();
-            newHandler.set(null);
+            while (newHandlers.poll() != null) {
+                // discard, already closed in closeAllHandlers()
+            }
+            // any queued after the loop finished
+            rejectTasks("close");
         }
     }
 
@@ -620,4 +1405,73 @@ public class MediumEventLoop extends AbstractLifecycleEventLoop implements CoreE
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A handler to move to another event loop, see {@link #moveHandler(EventHandler, MediumEventLoop)}
+     */
+    private static final class HandlerMove {
+        final EventHandler handler;
+        final MediumEventLoop target;
+
+        HandlerMove(EventHandler handler, MediumEventLoop target) {
+            this.handler = handler;
+            this.target = target;
+        }
+    }
+
+    /**
+     * The MEDIUM handlers and when each can next be called.
+     * Only used by the event loop thread, and replaced whenever the handlers change,
+     * so the handlers can't change between checking whether one is due and calling it.
+     */
+    static final class HandlerSchedule {
+        static final long BACKOFF_MIN_NS = 1_000;
+
+        final EventHandler[] handlers;
+        final long[] notBeforeNS;
+        final long[] backoffNS;
+        final boolean[] selfScheduling;
+        final int[] pollEvery;
+        // whether any handler needs to be checked before calling it
+        final boolean scheduled;
+
+        HandlerSchedule(@NotNull final EventHandler[] handlers) {
+            this.handlers = handlers;
+            notBeforeNS = new long[handlers.length];
+            backoffNS = new long[handlers.length];
+            selfScheduling = new boolean[handlers.length];
+            pollEvery = new int[handlers.length];
+            boolean any = false;
+            for (int i = 0; i < handlers.length; i++) {
+                any |= selfScheduling[i] = handlers[i] instanceof SelfSchedulingEventHandler;
+                pollEvery[i] = handlers[i] instanceof TieredEventHandler
+                        ? Math.max(1, ((TieredEventHandler) handlers[i]).pollEvery())
+                        : 1;
+                any |= pollEvery[i] > 1;
+            }
+            scheduled = any;
+        }
+
+        boolean isDue(final int index, final long nowNS, final long iteration) {
+            if (notBeforeNS[index] > nowNS)
+                return false;
+            final int every = pollEvery[index];
+            // offset by index so handlers in the same tier are spread across iterations
+            return every <= 1 || (iteration + index) % every == 0;
+        }
+
+        void scheduleNext(final int index, final boolean busy, final long nowNS, final long backoffMaxNS) {
+            long notBefore = selfScheduling[index] ? ((SelfSchedulingEventHandler) handlers[index]).notBeforeNS() : 0;
+            if (backoffMaxNS > 0) {
+                if (busy) {
+                    backoffNS[index] = 0;
+                } else {
+                    final long backoff = Math.min(backoffMaxNS, backoffNS[index] == 0 ? BACKOFF_MIN_NS : backoffNS[index] * 2);
+                    backoffNS[index] = backoff;
+                    notBefore = Math.max(notBefore, nowNS + backoff);
+                }
+            }
+            notBeforeNS[index] = notBefore;
+        }
+    }
+}
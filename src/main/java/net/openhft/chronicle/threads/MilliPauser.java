@@ -17,12 +17,11 @@
  */
 package net.openhft.chronicle.threads;
 
-import net.openhft.chronicle.core.Jvm;
-
-import java.util.concurrent.atomic.AtomicBoolean;
+import org.jetbrains.annotations.NotNull;
 
 public class MilliPauser implements Pauser {
-    private final AtomicBoolean pausing = new AtomicBoolean();
+    private final Doorbell doorbell = new Doorbell();
+    private final PauserCounters counters = new PauserCounters();
     private long pauseTimeMS;
     private long timePaused = 0;
     private long countPaused = 0;
@@ -65,10 +64,21 @@ public class MilliPauser implements Pauser {
 
     void doPauseMS(long delayMS) {
         long start = System.nanoTime();
-        pausing.set(true);
-        Jvm.pause(delayMS);
-        pausing.set(false);
-        long time = System.nanoTime() - start;
+        final long endNS = start + delayMS * 1_000_000;
+        // park for the whole delay unless woken by unpause()
+        boolean unpaused = false;
+        boolean parked = false;
+        for (long remainingNS = endNS - start; remainingNS > 0; remainingNS = endNS - System.nanoTime()) {
+            unpaused = doorbell.park(remainingNS);
+            parked |= doorbell.parked();
+            if (unpaused || Thread.currentThread().isInterrupted())
+                break;
+        }
+        final long end = System.nanoTime();
+        // a ring while awake returns without parking
+        if (parked)
+            counters.parked(start, end, unpaused);
+        long time = end - start;
         timePaused += time;
         countPaused++;
     }
@@ -85,16 +95,27 @@ public class MilliPauser implements Pauser {
 
     @Override
     public void unpause() {
-        // Do nothing
+        doorbell.ring();
+    }
+
+    @Override
+    public boolean isParked() {
+        return doorbell.isParked();
     }
 
     @Override
     public long timePaused() {
-        return timePaused;
+        return timePaused / 1_000_000;
     }
 
     @Override
     public long countPaused() {
         return countPaused;
     }
+
+    @NotNull
+    @Override
+    public PauserStats stats() {
+        return counters.snapshot();
+    }
 }
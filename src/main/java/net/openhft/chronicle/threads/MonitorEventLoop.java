@@ -25,21 +25,39 @@ import net.openhft.chronicle.core.threads.EventHandler;
 import net.openhft.chronicle.core.threads.EventLoop;
 import net.openhft.chronicle.core.threads.HandlerPriority;
 import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.threads.internal.StackCapture;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the MONITOR handlers of an event group on one thread.
+ * <p>
+ * A handler which implements {@link SelfSchedulingEventHandler} is only called once its {@link SelfSchedulingEventHandler#notBeforeNS()} has passed.
+ * If every handler has a deadline, the thread parks until the earliest of them, or until a handler is added or it is unpaused,
+ * rather than waking every {@code monitor.interval}. Otherwise, the pauser sets how often the handlers are polled.
+ */
 public class MonitorEventLoop extends AbstractLifecycleEventLoop implements Runnable, EventLoop {
     public static final String MONITOR_INITIAL_DELAY = "MonitorInitialDelay";
     static int MONITOR_INITIAL_DELAY_MS = Jvm.getInteger(MONITOR_INITIAL_DELAY, 10_000);
+    // the longest time to park while waiting for a deadline
+    static final long MAX_PARK_NS = Jvm.getLong("monitor.max.park.ms", 1_000L) * 1_000_000L;
 
     private transient final ExecutorService service;
     private transient final EventLoop parent;
-    private final List<EventHandler> handlers = new CopyOnWriteArrayList<>();
+    private final List<IdempotentLoopStartedEventHandler> handlers = new CopyOnWriteArrayList<>();
+    // removed by the event loop thread, so it doesn't lose its place in the handlers
+    private final Queue<EventHandler> removals = new ConcurrentLinkedQueue<>();
     private final Pauser pauser;
+    private volatile Thread thread;
+    // the earliest deadline of the handlers after the last call to runHandlers(), only accessed by the event loop thread
+    private long nextDueNS;
 
     public MonitorEventLoop(final EventLoop parent, final Pauser pauser) {
         this(parent, "", pauser);
@@ -61,6 +79,10 @@ public class MonitorEventLoop extends AbstractLifecycleEventLoop implements Runn
     @Override
     public void unpause() {
         pauser.unpause();
+        // in case the pauser doesn't keep an unpause made just before the thread parks
+        final Thread thread = this.thread;
+        if (thread != null)
+            LockSupport.unpark(thread);
     }
 
     @Override
@@ -96,23 +118,49 @@ public class MonitorEventLoop extends AbstractLifecycleEventLoop implements Runn
         if (!handlers.contains(handler))
             handlers.add(new IdempotentLoopStartedEventHandler(handler));
         handler.eventLoop(parent);
+        // the new handler may be due before the deadline being waited for
+        unpause();
+    }
+
+    /**
+     * Removes a handler added by {@link #addHandler(EventHandler)}, calling its {@code loopFinished()} and closing it on the event loop thread.
+     * This returns before it has been removed.
+     */
+    void removeHandler(@NotNull final EventHandler handler) {
+        removals.add(handler);
+        unpause();
+    }
+
+    private void processRemovals() {
+        for (EventHandler handler; (handler = removals.poll()) != null; ) {
+            for (int i = 0; i < handlers.size(); i++) {
+                if (handlers.get(i).eventHandler == handler) {
+                    removeHandler(i);
+                    break;
+                }
+            }
+        }
     }
 
     @Override
     @HotMethod
     public void run() {
         throwExceptionIfClosed();
+        thread = Thread.currentThread();
+        StackCapture.batching(true);
 
         try {
             // don't do any monitoring for the first MONITOR_INITIAL_DELAY_MS ms
-            final long waitUntilMs = System.currentTimeMillis() + MONITOR_INITIAL_DELAY_MS;
-            while (System.currentTimeMillis() < waitUntilMs && isStarted())
-                pauser.pause();
+            final long waitUntilNS = System.nanoTime() + MONITOR_INITIAL_DELAY_MS * 1_000_000L;
+            while (System.nanoTime() < waitUntilNS && isStarted())
+                parkUntil(waitUntilNS);
             pauser.reset();
             while (isStarted() && !Thread.currentThread().isInterrupted()) {
-                boolean busy;
-                busy = runHandlers();
-                pauser.pause();
+                final boolean busy = runHandlers();
+                if (nextDueNS - System.nanoTime() > 0)
+                    parkUntil(nextDueNS);
+                else
+                    pauser.pause();
                 if (busy)
                     pauser.reset();
             }
@@ -121,14 +169,30 @@ public class MonitorEventLoop extends AbstractLifecycleEventLoop implements Runn
         }
     }
 
+    private void parkUntil(long deadlineNS) {
+        final long delayNS = Math.min(MAX_PARK_NS, deadlineNS - System.nanoTime());
+        if (delayNS > 0)
+            LockSupport.parkNanos(this, delayNS);
+    }
+
     @HotMethod
     private boolean runHandlers() {
+        if (!removals.isEmpty())
+            processRemovals();
         boolean busy = false;
+        final long nowNS = System.nanoTime();
+        long nextDueNS = nowNS + MAX_PARK_NS;
         for (int i = 0; i < handlers.size(); i++) {
-            final EventHandler handler = handlers.get(i);
+            final IdempotentLoopStartedEventHandler handler = handlers.get(i);
             handler.loopStarted();
+            if (handler.notBeforeNS - nowNS > 0) {
+                nextDueNS = earliest(nextDueNS, handler.notBeforeNS);
+                continue;
+            }
             try {
                 busy |= handler.action();
+                // a handler without a deadline is polled
+                nextDueNS = earliest(nextDueNS, handler.notBeforeNS == 0 ? nowNS : handler.notBeforeNS);
 
             } catch (InvalidEventHandlerException e) {
                 removeHandler(i--);
@@ -137,9 +201,16 @@ public class MonitorEventLoop extends AbstractLifecycleEventLoop implements Runn
                 removeHandler(i--);
             }
         }
+        this.nextDueNS = nextDueNS;
+        // one capture for all the stalled threads found in this pass
+        StackCapture.INSTANCE.flush();
         return busy;
     }
 
+    private static long earliest(long aNS, long bNS) {
+        return bNS - aNS < 0 ? bNS : aNS;
+    }
+
     private synchronized void removeHandler(int handlerIndex) {
         try {
             EventHandler removedHandler = handlers.remove(handlerIndex);
@@ -168,15 +239,22 @@ public class MonitorEventLoop extends AbstractLifecycleEventLoop implements Runn
     private static final class IdempotentLoopStartedEventHandler extends AbstractCloseable implements EventHandler {
 
         private transient final EventHandler eventHandler;
+        private final SelfSchedulingEventHandler selfScheduling;
         private boolean loopStarted = false;
+        // when it next needs calling, or 0 to be polled
+        long notBeforeNS = 0;
 
         public IdempotentLoopStartedEventHandler(@NotNull EventHandler eventHandler) {
             this.eventHandler = eventHandler;
+            this.selfScheduling = eventHandler instanceof SelfSchedulingEventHandler ? (SelfSchedulingEventHandler) eventHandler : null;
         }
 
         @Override
         public boolean action() throws InvalidEventHandlerException {
-            return eventHandler.action();
+            final boolean busy = eventHandler.action();
+            if (selfScheduling != null)
+                notBeforeNS = selfScheduling.notBeforeNS();
+            return busy;
         }
 
         @Override
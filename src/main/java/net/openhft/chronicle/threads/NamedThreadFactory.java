@@ -21,6 +21,7 @@ import net.openhft.chronicle.core.Jvm;
 import net.openhft.chronicle.core.StackTrace;
 import net.openhft.chronicle.core.threads.CleaningThread;
 import net.openhft.chronicle.core.threads.ThreadDump;
+import net.openhft.chronicle.threads.internal.VirtualThreads;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.concurrent.ThreadFactory;
@@ -33,6 +34,7 @@ public class NamedThreadFactory extends ThreadGroup implements ThreadFactory {
     private final Integer priority;
     private final StackTrace createdHere;
     private final boolean inEventLoop;
+    private final boolean virtual;
 
     public NamedThreadFactory(String name) {
         this(name, null, null);
@@ -47,7 +49,19 @@ public class NamedThreadFactory extends ThreadGroup implements ThreadFactory {
     }
 
     public NamedThreadFactory(String name, Boolean daemon, Integer priority, boolean inEventLoop) {
+        this(name, daemon, priority, inEventLoop, false);
+    }
+
+    /**
+     * @param virtual true to create virtual threads, these are always daemon threads and ignore the priority.
+     *                Needs Java 21+, see {@link VirtualThreads#isSupported()}
+     * @throws UnsupportedOperationException if virtual threads are requested before Java 21
+     */
+    public NamedThreadFactory(String name, Boolean daemon, Integer priority, boolean inEventLoop, boolean virtual) {
         super(name);
+        if (virtual && !VirtualThreads.isSupported())
+            throw new UnsupportedOperationException("Virtual threads need Java 21+");
+        this.virtual = virtual;
         this.nameShadow = name;
         this.daemonShadow = daemon;
         this.priority = priority;
@@ -60,6 +74,12 @@ public class NamedThreadFactory extends ThreadGroup implements ThreadFactory {
     public Thread newThread(@NotNull Runnable r) {
         final int idSnapshot = this.id.getAndIncrement();
         final String nameN = Threads.threadGroupPrefix() + (idSnapshot == 0 ? this.nameShadow : (this.nameShadow + '-' + idSnapshot));
+        if (virtual) {
+            // a virtual thread can't be a CleaningThread, its thread locals go with it
+            final Thread t = VirtualThreads.newThread(nameN, r);
+            ThreadDump.add(t, createdHere);
+            return t;
+        }
         Thread t = new CleaningThread(r, nameN, inEventLoop);
         ThreadDump.add(t, createdHere);
         if (daemonShadow != null)
@@ -69,6 +89,13 @@ public class NamedThreadFactory extends ThreadGroup implements ThreadFactory {
         return t;
     }
 
+    /**
+     * @return true if this creates virtual threads
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
     public void interruptAll() {
         Thread[] list = new Thread[activeCount() + 1];
         super.enumerate(list);
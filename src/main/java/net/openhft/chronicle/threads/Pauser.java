@@ -69,6 +69,17 @@ public interface Pauser {
         return SLEEPY ? sleepy() : new LongPauser(20000, 250, 10, (Jvm.isDebug() ? 200_000 : 0) + millis * 1_000L, TimeUnit.MICROSECONDS);
     }
 
+    /**
+     * A pauser which learns how long it is usually idle for, spins then yields for long enough to catch 90% of the work, and backs off when idle.
+     * It limits its own CPU use so, unlike busy or yielding, it isn't replaced when there are few processors.
+     *
+     * @return an adaptive pauser
+     * @see AdaptivePauser
+     */
+    static AdaptivePauser adaptive() {
+        return new AdaptivePauser(20, 200, 50, 20_000, TimeUnit.MICROSECONDS, 0.9);
+    }
+
     /**
      * Wait a fixed time before running again unless woken
      *
@@ -185,9 +196,22 @@ public interface Pauser {
      * <p>
      * No guarantee is made as to if unpause will actually
      * have an effect.
+     * <p>
+     * Pausers which park use a {@link Doorbell}, so this only unparks the thread if it is parked,
+     * once however often it is called. Called while the thread is awake, its next park returns at once.
      */
     void unpause();
 
+    /**
+     * Returns if the pausing thread is parked, or about to park, and needs {@link #unpause()} to wake it before its pause time.
+     * A pauser which only spins or yields is never parked.
+     *
+     * @return true if the pausing thread is parked
+     */
+    default boolean isParked() {
+        return false;
+    }
+
     /**
      * Returns the paused time so far in milliseconds.
      *
@@ -204,6 +228,17 @@ public interface Pauser {
      */
     long countPaused();
 
+    /**
+     * Returns where this pauser has spent its time so far, in nanoseconds, split into spinning, yielding and parking.
+     * This can be called from any thread. Pausers which don't record this return all zeros.
+     *
+     * @return a snapshot of the stats so far
+     */
+    @NotNull
+    default PauserStats stats() {
+        return PauserStats.EMPTY;
+    }
+
     enum SleepyWarning {
         ; // none
 
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the {@link PauserStats} of a pauser. It is written by the pausing thread only, and only reads the clock when the stage changes,
+ * so a pauser which keeps spinning pays for an increment per pause. {@link #snapshot()} can be called from any thread.
+ */
+final class PauserCounters {
+    private static final int NONE = -1;
+    private static final int SPIN = 0;
+    private static final int YIELD = 1;
+    private static final int PARK = 2;
+    // indices into totals, the time in each stage is at the stage index
+    private static final int SPINS = 3;
+    private static final int YIELDS = 4;
+    private static final int PARKS = 5;
+    private static final int UNPAUSE_WAKES = 6;
+    private static final int TIMEOUT_WAKES = 7;
+    private static final int MAX_PAUSE = 8;
+
+    private final AtomicLongArray totals = new AtomicLongArray(9);
+    // the run of spins or yields in progress
+    private volatile int stage = NONE;
+    private volatile long stageStartNS;
+    private long runCount;
+
+    /**
+     * Called on each pause which busy waits
+     */
+    void spin() {
+        if (stage != SPIN)
+            startRun(SPIN);
+        runCount++;
+    }
+
+    /**
+     * Called on each pause which yields
+     */
+    void yield() {
+        if (stage != YIELD)
+            startRun(YIELD);
+        runCount++;
+    }
+
+    /**
+     * Called when a park or sleep has finished
+     *
+     * @param startNS  when it started
+     * @param endNS    when it finished
+     * @param unpaused true if it was woken by {@code unpause()}
+     */
+    void parked(long startNS, long endNS, boolean unpaused) {
+        if (stage != NONE)
+            endRun(startNS);
+        final long timeNS = endNS - startNS;
+        add(PARK, timeNS);
+        add(PARKS, 1);
+        add(unpaused ? UNPAUSE_WAKES : TIMEOUT_WAKES, 1);
+        max(timeNS);
+    }
+
+    /**
+     * Called when the pauser is reset, cheap if nothing is in progress
+     */
+    void reset() {
+        if (stage != NONE)
+            endRun(System.nanoTime());
+    }
+
+    private void startRun(int newStage) {
+        final long now = System.nanoTime();
+        if (stage != NONE)
+            endRun(now);
+        stageStartNS = now;
+        stage = newStage;
+    }
+
+    private void endRun(long endNS) {
+        final int ended = stage;
+        final long timeNS = endNS - stageStartNS;
+        add(ended, timeNS);
+        add(ended == SPIN ? SPINS : YIELDS, runCount);
+        max(timeNS);
+        runCount = 0;
+        stage = NONE;
+    }
+
+    private void add(int index, long delta) {
+        // single writer so no need for a CAS
+        totals.lazySet(index, totals.get(index) + delta);
+    }
+
+    private void max(long timeNS) {
+        if (timeNS > totals.get(MAX_PAUSE))
+            totals.lazySet(MAX_PAUSE, timeNS);
+    }
+
+    /**
+     * @return the stats so far, including the time of a run in progress but not its count
+     */
+    @NotNull
+    PauserStats snapshot() {
+        final int current = stage;
+        final long runningNS = current == NONE ? 0 : Math.max(0, System.nanoTime() - stageStartNS);
+        return new PauserStats(
+                totals.get(SPIN) + (current == SPIN ? runningNS : 0),
+                totals.get(YIELD) + (current == YIELD ? runningNS : 0),
+                totals.get(PARK),
+                totals.get(SPINS),
+                totals.get(YIELDS),
+                totals.get(PARKS),
+                totals.get(UNPAUSE_WAKES),
+                totals.get(TIMEOUT_WAKES),
+                Math.max(totals.get(MAX_PAUSE), runningNS));
+    }
+}
@@ -28,6 +28,23 @@ import java.util.function.Supplier;
  */
 public enum PauserMode implements Supplier<Pauser> {
 
+    /**
+     * Returns Suppliers providing pausers that learn how long they are usually idle for, and only busy wait and yield
+     * for long enough to catch most of the work before backing off.
+     * <p>
+     * Adaptive pausers have latency close to balanced for regular traffic but use less CPU when it is sparse.
+     * <p>
+     * The various Pauser modes and their properties can be seen here:
+     * <a href="https://github.com/OpenHFT/Chronicle-Threads#pauser-modes">Pauser Mode features</a>
+     *
+     * @see AdaptivePauser
+     */
+    adaptive {
+        @Override
+        public Pauser get() {
+            return Pauser.adaptive();
+        }
+    },
     /**
      * Returns Suppliers providing pausers performing busy waiting (spin-wait at 100% CPU) for short
      * periods and then backs off when idle for longer periods, if there are sufficient available processors.
@@ -18,14 +18,13 @@
 package net.openhft.chronicle.threads;
 
 import net.openhft.chronicle.core.Jvm;
-import net.openhft.chronicle.core.threads.EventHandler;
 import net.openhft.chronicle.core.threads.HandlerPriority;
 import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.ref.WeakReference;
 
-public class PauserMonitor implements EventHandler {
+public class PauserMonitor implements SelfSchedulingEventHandler {
 
     public static final boolean PERF_ENABLED = Jvm.isDebugEnabled(PauserMonitor.class);
     @NotNull
@@ -33,9 +32,12 @@ public class PauserMonitor implements EventHandler {
     private final String description;
     private final int mills;
     private long nextLongTime = 0;
+    private long nextNS = 0;
     private long lastTime = 0;
     private long lastTimePaused = 0;
     private long lastCountPaused = 0;
+    @NotNull
+    private PauserStats lastStats = PauserStats.EMPTY;
 
     public PauserMonitor(Pauser pauser, String description, int seconds) {
         this.pauser = new WeakReference<>(pauser);
@@ -54,6 +56,7 @@ public class PauserMonitor implements EventHandler {
             throw new InvalidEventHandlerException();
         long timePaused = pauserSnapshot.timePaused();
         long countPaused = pauserSnapshot.countPaused();
+        final PauserStats stats = pauserSnapshot.stats();
 
         if (nextLongTime > 0) {
             long timeDelta = now - lastTime;
@@ -66,19 +69,37 @@ public class PauserMonitor implements EventHandler {
                 if (PERF_ENABLED)
                     Jvm.perf().on(getClass(), description + ": avg pause: " + averageTime + " ms, "
                             + "count=" + countPausedDelta
-                            + (lastTime > 0 ? ", busy=" + busy + "%" : ""));
+                            + (lastTime > 0 ? ", busy=" + busy + "%" : "")
+                            + describe(stats.since(lastStats)));
             } else {
                 if (PERF_ENABLED)
-                    Jvm.perf().on(getClass(), description + ": count=" + countPausedDelta + ", busy=100%");
+                    Jvm.perf().on(getClass(), description + ": count=" + countPausedDelta + ", busy=100%"
+                            + describe(stats.since(lastStats)));
             }
         }
         lastTimePaused = timePaused;
         lastCountPaused = countPaused;
+        lastStats = stats;
         nextLongTime = now + mills;
+        nextNS = System.nanoTime() + mills * 1_000_000L;
         lastTime = now;
         return true;
     }
 
+    @Override
+    public long notBeforeNS() {
+        return nextNS;
+    }
+
+    @NotNull
+    private static String describe(@NotNull PauserStats delta) {
+        if (delta.totalNS() == 0 && delta.spins() == 0)
+            return "";
+        return ", spin/yield/park: " + delta.spinNS() / 1_000_000 + "/" + delta.yieldNS() / 1_000_000 + "/" + delta.parkNS() / 1_000_000 + " ms"
+                + ", wakes unpause/timeout: " + delta.unpauseWakes() + "/" + delta.timeoutWakes()
+                + ", max pause: " + delta.maxPauseNS() / 1_000 + " us";
+    }
+
     @NotNull
     @Override
     public HandlerPriority priority() {
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Where a {@link Pauser} has spent its time, in nanoseconds, either since it was created or, using {@link #since(PauserStats)}, between two snapshots.
+ * <p>
+ * A pause is one call to {@link Pauser#pause()}. Consecutive pauses which spin or yield are timed together as one run,
+ * from the first of them until the pauser is reset or moves on to the next stage, and each park is timed on its own.
+ * A park ends either because {@link Pauser#unpause()} woke it or for any other reason, usually its timeout.
+ */
+public final class PauserStats {
+    static final PauserStats EMPTY = new PauserStats(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    private final long spinNS;
+    private final long yieldNS;
+    private final long parkNS;
+    private final long spins;
+    private final long yields;
+    private final long parks;
+    private final long unpauseWakes;
+    private final long timeoutWakes;
+    private final long maxPauseNS;
+
+    PauserStats(long spinNS, long yieldNS, long parkNS,
+                long spins, long yields, long parks,
+                long unpauseWakes, long timeoutWakes, long maxPauseNS) {
+        this.spinNS = spinNS;
+        this.yieldNS = yieldNS;
+        this.parkNS = parkNS;
+        this.spins = spins;
+        this.yields = yields;
+        this.parks = parks;
+        this.unpauseWakes = unpauseWakes;
+        this.timeoutWakes = timeoutWakes;
+        this.maxPauseNS = maxPauseNS;
+    }
+
+    public long spinNS() {
+        return spinNS;
+    }
+
+    public long yieldNS() {
+        return yieldNS;
+    }
+
+    public long parkNS() {
+        return parkNS;
+    }
+
+    /**
+     * @return the time spent in all stages
+     */
+    public long totalNS() {
+        return spinNS + yieldNS + parkNS;
+    }
+
+    /**
+     * @return the number of pauses which busy waited
+     */
+    public long spins() {
+        return spins;
+    }
+
+    /**
+     * @return the number of pauses which yielded
+     */
+    public long yields() {
+        return yields;
+    }
+
+    /**
+     * @return the number of pauses which parked or slept
+     */
+    public long parks() {
+        return parks;
+    }
+
+    /**
+     * @return the number of parks ended by {@link Pauser#unpause()}
+     */
+    public long unpauseWakes() {
+        return unpauseWakes;
+    }
+
+    /**
+     * @return the number of parks which ended for any other reason, usually their timeout
+     */
+    public long timeoutWakes() {
+        return timeoutWakes;
+    }
+
+    /**
+     * @return the longest single park, or run of spinning or yielding
+     */
+    public long maxPauseNS() {
+        return maxPauseNS;
+    }
+
+    /**
+     * @param earlier a snapshot of the same pauser taken before this one
+     * @return the activity between the two snapshots, the max is that of this snapshot
+     */
+    @NotNull
+    public PauserStats since(@NotNull PauserStats earlier) {
+        return new PauserStats(
+                spinNS - earlier.spinNS,
+                yieldNS - earlier.yieldNS,
+                parkNS - earlier.parkNS,
+                spins - earlier.spins,
+                yields - earlier.yields,
+                parks - earlier.parks,
+                unpauseWakes - earlier.unpauseWakes,
+                timeoutWakes - earlier.timeoutWakes,
+                maxPauseNS);
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "PauserStats{" +
+                "spinNS=" + spinNS +
+                ", yieldNS=" + yieldNS +
+                ", parkNS=" + parkNS +
+                ", spins=" + spins +
+                ", yields=" + yields +
+                ", parks=" + parks +
+                ", unpauseWakes=" + unpauseWakes +
+                ", timeoutWakes=" + timeoutWakes +
+                ", maxPauseNS=" + maxPauseNS +
+                '}';
+    }
+}
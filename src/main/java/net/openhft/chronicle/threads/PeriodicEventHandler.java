@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A TIMER handler with its own period rather than that of the event loop.
+ * <p>
+ * A {@link VanillaEventLoop} keeps its timer handlers in a timer wheel and only calls one when it is due,
+ * so a loop can hold thousands of timers and only pay for those which fire.
+ * The period, schedule and catch-up are read once when the handler is added.
+ */
+public interface PeriodicEventHandler extends EventHandler {
+    /**
+     * @return the time between calls to {@code action()}, or 0 to use the timer interval of the event loop
+     */
+    long periodNS();
+
+    /**
+     * @return whether the period is measured from when the last call was due or from when it finished
+     */
+    @NotNull
+    default Schedule schedule() {
+        return Schedule.FIXED_RATE;
+    }
+
+    /**
+     * For a {@link Schedule#FIXED_RATE} handler which has fallen behind, e.g. after a long GC pause,
+     * the number of missed calls to make back to back before skipping the rest.
+     *
+     * @return the most missed calls to make up, 0 to skip them all
+     */
+    default int maxCatchUp() {
+        return 0;
+    }
+
+    @NotNull
+    @Override
+    default HandlerPriority priority() {
+        return HandlerPriority.TIMER;
+    }
+
+    enum Schedule {
+        /**
+         * Due every period from when it was first due, so it doesn't drift
+         */
+        FIXED_RATE,
+        /**
+         * Due one period after the last call finished
+         */
+        FIXED_DELAY
+    }
+}
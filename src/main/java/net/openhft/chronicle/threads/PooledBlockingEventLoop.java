@@ -0,0 +1,337 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.EventLoop;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static net.openhft.chronicle.core.io.Closeable.closeQuietly;
+import static net.openhft.chronicle.threads.Threads.loopFinishedQuietly;
+import static net.openhft.chronicle.threads.Threads.unpark;
+
+/**
+ * Event Loop for blocking tasks which shares a fixed number of threads between its handlers.
+ * <p>
+ * The workers share a cursor over the handlers, so they take them in turn. A worker claims the next handler, calls {@code action()} once,
+ * and releases it, skipping any handler another worker holds. Nothing is allocated to hand a handler between the workers.
+ * Each handler has its own pauser, if {@code action()} returns false the handler is paused with {@link Pauser#asyncPause()}
+ * and skipped until the pause is over, or {@link #unpause()} is called. A worker which finds no handler ready uses a pauser of its own.
+ * <p>
+ * This suits many handlers which are mostly idle, however a handler which blocks in {@code action()} holds one of the workers while it does so.
+ * Use {@link BlockingEventLoop} for handlers which block for long periods.
+ */
+public class PooledBlockingEventLoop extends AbstractLifecycleEventLoop implements EventLoop {
+
+    @NotNull
+    private transient final EventLoop parent;
+    @NotNull
+    private transient final ExecutorService service;
+    private final int workers;
+    @NotNull
+    private final Supplier<Pauser> pauserSupplier;
+    // replaced when a handler is added or removed, guarded by this
+    private volatile Slot[] slots = {};
+    private final AtomicInteger cursor = new AtomicInteger();
+    // incremented by unpause() to end the pause of every handler
+    private final AtomicLong unpauseCount = new AtomicLong();
+
+    /**
+     * @param workers        the number of threads to share between the handlers
+     * @param pauserSupplier provides a pauser for each handler
+     */
+    public PooledBlockingEventLoop(@NotNull final EventLoop parent,
+                                   @NotNull final String name,
+                                   final int workers,
+                                   @NotNull final Supplier<Pauser> pauserSupplier) {
+        super(name);
+        if (workers < 1)
+            throw new IllegalArgumentException("workers must be at least 1, was " + workers);
+        this.parent = parent;
+        this.workers = workers;
+        this.pauserSupplier = pauserSupplier;
+        this.service = Executors.newFixedThreadPool(workers, new NamedThreadFactory(name, null, null, true));
+    }
+
+    public PooledBlockingEventLoop(@NotNull final String name, final int workers) {
+        super(name);
+        if (workers < 1)
+            throw new IllegalArgumentException("workers must be at least 1, was " + workers);
+        this.parent = this;
+        this.workers = workers;
+        this.pauserSupplier = Pauser::balanced;
+        this.service = Executors.newFixedThreadPool(workers, new NamedThreadFactory(name, null, null, true));
+    }
+
+    /**
+     * @return the number of threads shared by the handlers, whatever the number of handlers
+     */
+    public int workerThreads() {
+        return workers;
+    }
+
+    public int handlerCount() {
+        return slots.length;
+    }
+
+    /**
+     * @return the activity of each handler still running, in the order they were added
+     */
+    @NotNull
+    public Map<EventHandler, BlockingHandlerStats> handlerStats() {
+        final Map<EventHandler, BlockingHandlerStats> stats = new LinkedHashMap<>();
+        for (Slot slot : slots)
+            stats.put(slot.handler, slot.stats());
+        return stats;
+    }
+
+    /**
+     * This can be called multiple times and each handler will share the worker threads
+     *
+     * @param handler to execute
+     */
+    @Override
+    public synchronized void addHandler(@NotNull final EventHandler handler) {
+        if (DEBUG_ADDING_HANDLERS)
+            Jvm.startup().on(getClass(), "Adding " + handler.priority() + " " + handler + " to " + this.name);
+        if (isClosed())
+            throw new IllegalStateException("Event Group has been closed");
+        final Slot slot = new Slot(handler, pauserSupplier.get());
+        handler.eventLoop(parent);
+        slot.readyNS = System.nanoTime();
+        final Slot[] slots = Arrays.copyOf(this.slots, this.slots.length + 1);
+        slots[slots.length - 1] = slot;
+        this.slots = slots;
+        if (isStarted())
+            unpark(service);
+    }
+
+    @Override
+    protected synchronized void performStart() {
+        for (int i = 0; i < workers; i++) {
+            try {
+                service.submit(new Worker());
+
+            } catch (RejectedExecutionException e) {
+                if (!service.isShutdown())
+                    Jvm.warn().on(getClass(), e);
+            }
+        }
+    }
+
+    @Override
+    public void unpause() {
+        unpauseCount.incrementAndGet();
+        unpark(service);
+    }
+
+    @Override
+    protected void performStopFromNew() {
+        shutdownExecutorService();
+        finishHandlers();
+    }
+
+    @Override
+    protected void performStopFromStarted() {
+        shutdownExecutorService();
+        finishHandlers();
+    }
+
+    private void shutdownExecutorService() {
+        // interrupt any handler blocked in action()
+        service.shutdownNow();
+        unpause();
+        Threads.shutdown(service);
+    }
+
+    private void finishHandlers() {
+        for (Slot slot : slots)
+            loopFinishedQuietly(slot.handler);
+    }
+
+    @Override
+    public boolean isAlive() {
+        return !service.isShutdown();
+    }
+
+    @Override
+    protected void performClose() {
+        super.performClose();
+        for (Slot slot : slots)
+            closeQuietly(slot.handler);
+    }
+
+    @Override
+    public String toString() {
+        return "PooledBlockingEventLoop{" +
+                "name=" + name +
+                ", workers=" + workers +
+                ", handlers=" + slots.length +
+                '}';
+    }
+
+    private static void clearUsedByThread(@NotNull EventHandler handler) {
+        if (handler instanceof AbstractCloseable)
+            ((AbstractCloseable) handler).clearUsedByThread();
+    }
+
+    private synchronized void removeSlot(@NotNull Slot slot) {
+        final Slot[] slots = this.slots;
+        final Slot[] remaining = new Slot[slots.length - 1];
+        int j = 0;
+        for (Slot s : slots)
+            if (s != slot)
+                remaining[j++] = s;
+        this.slots = remaining;
+    }
+
+    /**
+     * A handler and its state, only the worker which claimed it may use it until it is released.
+     */
+    private static final class Slot {
+        // held while a worker runs the handler, and for good once it is removed
+        final AtomicBoolean held = new AtomicBoolean();
+        final EventHandler handler;
+        final Pauser pauser;
+        final HandlerLatencyHistogram queueDelay = new HandlerLatencyHistogram();
+        final AtomicLong actions = new AtomicLong();
+        final AtomicLong busyActions = new AtomicLong();
+        volatile long startedNS = 0;
+        Thread lastThread;
+        long pausedAt;
+        // when it was released ready to run, or 0 if it was pausing
+        long readyNS;
+
+        Slot(EventHandler handler, Pauser pauser) {
+            this.handler = handler;
+            this.pauser = pauser;
+        }
+
+        BlockingHandlerStats stats() {
+            final long startedNS = this.startedNS;
+            return new BlockingHandlerStats(handler,
+                    startedNS == 0 ? 0 : System.nanoTime() - startedNS,
+                    actions.get(),
+                    busyActions.get(),
+                    queueDelay.snapshot(),
+                    pauser.stats());
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final Pauser pauser = new LongPauser(0, 10, 10, 1_000, TimeUnit.MICROSECONDS);
+        private int idle = 0;
+
+        @Override
+        public void run() {
+            try {
+                while (isStarted()) {
+                    if (runOne()) {
+                        idle = 0;
+                        pauser.reset();
+                    } else if (++idle >= Math.max(1, slots.length)) {
+                        // every handler has been idle or pausing
+                        idle = 0;
+                        pauser.pause();
+                    }
+                }
+            } catch (Throwable t) {
+                if (!isClosed())
+                    Jvm.warn().on(getClass(), "Worker of " + name + " threw ", t);
+            }
+        }
+
+        /**
+         * @return true if a handler did some work
+         */
+        private boolean runOne() {
+            final Slot[] slots = PooledBlockingEventLoop.this.slots;
+            if (slots.length == 0)
+                return false;
+            final Slot slot = slots[(cursor.getAndIncrement() & Integer.MAX_VALUE) % slots.length];
+            // held by another worker, or removed
+            if (!slot.held.compareAndSet(false, true))
+                return false;
+            final long now = System.nanoTime();
+            if (slot.readyNS != 0) {
+                slot.queueDelay.record(now - slot.readyNS);
+            } else if (slot.pausedAt == unpauseCount.get() && slot.pauser.asyncPausing()) {
+                slot.held.set(false);
+                return false;
+            }
+            final EventHandler handler = slot.handler;
+            boolean busy = false;
+            try {
+                final Thread thread = Thread.currentThread();
+                if (slot.lastThread != thread) {
+                    clearUsedByThread(handler);
+                    slot.lastThread = thread;
+                }
+                if (slot.startedNS == 0) {
+                    slot.startedNS = now;
+                    handler.loopStarted();
+                }
+                busy = handler.action();
+
+            } catch (InvalidEventHandlerException e) {
+                removeSlot(slot);
+                return true;
+
+            } catch (Throwable t) {
+                if (!isClosed())
+                    Jvm.warn().on(handler.getClass(), handler + " threw ", t);
+                removeSlot(slot);
+                return true;
+            }
+            // single writer at a time, handed over by claiming the slot
+            slot.actions.lazySet(slot.actions.get() + 1);
+            if (busy) {
+                slot.busyActions.lazySet(slot.busyActions.get() + 1);
+                slot.pauser.reset();
+                slot.readyNS = System.nanoTime();
+            } else {
+                slot.pauser.asyncPause();
+                slot.pausedAt = unpauseCount.get();
+                slot.readyNS = slot.pauser.asyncPausing() ? 0 : System.nanoTime();
+            }
+            slot.held.set(false);
+            return busy;
+        }
+
+        private void removeSlot(Slot slot) {
+            loopFinishedQuietly(slot.handler);
+            closeQuietly(slot.handler);
+            PooledBlockingEventLoop.this.removeSlot(slot);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+
+/**
+ * A MEDIUM or MONITOR priority handler which knows when it will next have work to do.
+ * <p>
+ * After each call to {@code action()} a {@link MediumEventLoop} or {@link MonitorEventLoop} asks for {@link #notBeforeNS()} and skips this handler until then,
+ * so a handler waiting for a deadline costs nothing to poll. A {@link MonitorEventLoop} whose handlers all have deadlines parks until the earliest.
+ * This is only a lower bound, if every handler is idle the event loop may pause for longer.
+ */
+public interface SelfSchedulingEventHandler extends EventHandler {
+    /**
+     * Called by the event loop thread after each call to {@code action()}
+     *
+     * @return the {@link System#nanoTime()} before which {@code action()} doesn't need to be called, or 0 to be called as usual
+     */
+    long notBeforeNS();
+}
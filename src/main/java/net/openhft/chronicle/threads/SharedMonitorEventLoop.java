@@ -0,0 +1,216 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.AbstractCloseable;
+import net.openhft.chronicle.core.io.Closeable;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.EventLoop;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The MONITOR event loop of one event group, whose handlers run on a {@link MonitorEventLoop} shared by every such group in the JVM.
+ * <p>
+ * The shared thread is started when the first group starts and stopped when the last one stops.
+ * Handlers are only added to it once this is started, and are removed, finished and closed when this stops.
+ * Handlers added after this stops are finished straight away and closed when this is closed.
+ */
+final class SharedMonitorEventLoop extends AbstractLifecycleEventLoop implements EventLoop {
+    private static MonitorEventLoop shared;
+    private static int users = 0;
+
+    private transient final EventLoop parent;
+    private final List<GroupHandler> handlers = new ArrayList<>();
+    private MonitorEventLoop monitor;
+
+    SharedMonitorEventLoop(final EventLoop parent, final String name) {
+        super(name + "~shared~monitor");
+        this.parent = parent;
+    }
+
+    private static synchronized MonitorEventLoop acquire() {
+        if (shared == null || shared.isClosing()) {
+            shared = new MonitorEventLoop(null, "shared~monitor",
+                    Pauser.millis(Integer.getInteger("monitor.interval", 10)));
+            shared.start();
+        }
+        users++;
+        return shared;
+    }
+
+    private static synchronized void release(MonitorEventLoop monitor) {
+        if (monitor != shared)
+            return;
+        if (--users <= 0) {
+            users = 0;
+            shared = null;
+            monitor.close();
+        }
+    }
+
+    /**
+     * @return the number of threads used by all the shared monitors, 0 or 1
+     */
+    static synchronized int sharedThreads() {
+        return shared == null ? 0 : 1;
+    }
+
+    @Override
+    public synchronized void addHandler(@NotNull final EventHandler handler) {
+        throwExceptionIfClosed();
+
+        if (DEBUG_ADDING_HANDLERS)
+            Jvm.startup().on(getClass(), "Adding " + handler.priority() + " " + handler + " to " + this.name);
+        final GroupHandler groupHandler = new GroupHandler(handler);
+        handlers.add(groupHandler);
+        handler.eventLoop(parent);
+        if (isStopped())
+            // it will never be started, it is closed with the rest
+            Threads.loopFinishedQuietly(groupHandler);
+        else if (monitor != null)
+            monitor.addHandler(groupHandler);
+    }
+
+    /**
+     * Removes a handler added by {@link #addHandler(EventHandler)}, calling its {@code loopFinished()} and closing it on the shared event loop thread
+     * if this is started. This returns before it has been removed.
+     */
+    synchronized void removeHandler(@NotNull final EventHandler handler) {
+        for (Iterator<GroupHandler> iterator = handlers.iterator(); iterator.hasNext(); ) {
+            final GroupHandler groupHandler = iterator.next();
+            if (groupHandler.eventHandler != handler)
+                continue;
+            iterator.remove();
+            if (monitor != null)
+                monitor.removeHandler(groupHandler);
+            else
+                Closeable.closeQuietly(groupHandler);
+            return;
+        }
+    }
+
+    @Override
+    protected synchronized void performStart() {
+        monitor = acquire();
+        for (GroupHandler handler : handlers)
+            monitor.addHandler(handler);
+    }
+
+    @Override
+    public void unpause() {
+        final MonitorEventLoop monitor = this.monitor;
+        if (monitor != null)
+            monitor.unpause();
+    }
+
+    @Override
+    protected synchronized void performStopFromNew() {
+        handlers.forEach(Threads::loopFinishedQuietly);
+    }
+
+    @Override
+    protected synchronized void performStopFromStarted() {
+        // the shared event loop finishes and closes them
+        for (GroupHandler handler : handlers)
+            monitor.removeHandler(handler);
+        handlers.clear();
+        release(monitor);
+        monitor = null;
+    }
+
+    @Override
+    public boolean isAlive() {
+        final MonitorEventLoop monitor = this.monitor;
+        return isStarted() && monitor != null && monitor.isAlive();
+    }
+
+    @Override
+    protected synchronized void performClose() {
+        super.performClose();
+        // any which were never added to the shared event loop
+        Closeable.closeQuietly(handlers);
+        handlers.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "SharedMonitorEventLoop{" +
+                "name='" + name + '\'' +
+                ", handlers=" + handlers.size() +
+                ", monitor=" + (monitor == null ? null : monitor.name()) +
+                '}';
+    }
+
+    /**
+     * Keeps the handler's event loop as this group, and passes on its deadline
+     */
+    private static final class GroupHandler extends AbstractCloseable implements SelfSchedulingEventHandler {
+        private transient final EventHandler eventHandler;
+
+        GroupHandler(@NotNull EventHandler eventHandler) {
+            this.eventHandler = eventHandler;
+        }
+
+        @Override
+        public boolean action() throws InvalidEventHandlerException {
+            return eventHandler.action();
+        }
+
+        @Override
+        public long notBeforeNS() {
+            return eventHandler instanceof SelfSchedulingEventHandler ? ((SelfSchedulingEventHandler) eventHandler).notBeforeNS() : 0;
+        }
+
+        @Override
+        public void eventLoop(EventLoop eventLoop) {
+            // set to the group when added
+        }
+
+        @Override
+        public void loopStarted() {
+            eventHandler.loopStarted();
+        }
+
+        @Override
+        public void loopFinished() {
+            eventHandler.loopFinished();
+        }
+
+        @Override
+        public @NotNull HandlerPriority priority() {
+            return eventHandler.priority();
+        }
+
+        @Override
+        protected void performClose() {
+            Closeable.closeQuietly(eventHandler);
+        }
+
+        @Override
+        public String toString() {
+            return eventHandler.toString();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A MONITOR handler which samples the stacks of event loop threads, so short hiccups show up as well as long stalls.
+ * <p>
+ * Every interval the stacks of all the event loops added are captured in one call, and counted as collapsed stacks,
+ * i.e. {@code thread;outer frame;...;inner frame count}, the input of a flame graph.
+ * Every roll interval the counts so far are written to the file, replacing it, and the previous files are kept as {@code file.1}, {@code file.2} ...
+ * The files are written by a thread of the sampler's own, so the monitor thread doesn't wait for the disk.
+ * <p>
+ * At most {@code maxStacks} distinct stacks are counted per roll interval, any others are counted as {@code thread;[other]},
+ * and only the inner {@code maxDepth} frames of each stack are kept, so memory is bounded whatever the code being sampled.
+ * A stack is looked up by its frames, so its text is only built when it is first seen.
+ * The cost is set by the interval, each sample brings all threads to a safepoint.
+ */
+public class StackSampler implements SelfSchedulingEventHandler {
+    static final String OTHER = "[other]";
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final List<CoreEventLoop> eventLoops = new CopyOnWriteArrayList<>();
+    @NotNull
+    private final Path file;
+    private final long intervalNS;
+    private final int maxDepth;
+    private final int maxStacks;
+    private final long rollIntervalNS;
+    private final int maxFiles;
+    // only accessed by the monitor thread
+    private Map<StackKey, long[]> counts = new HashMap<>();
+    private final StackKey probe;
+    private ExecutorService writer;
+    private long[] threadIds = {};
+    private long nextSampleNS = 0;
+    private long nextRollNS = 0;
+    private long samples = 0;
+    // only accessed by the writer thread
+    private boolean warned = false;
+
+    /**
+     * @param file           to write the collapsed stacks to
+     * @param intervalNS     the time between samples
+     * @param maxDepth       the most frames kept from the top of each stack
+     * @param maxStacks      the most distinct stacks counted in each roll interval
+     * @param rollIntervalNS how often the counts are written
+     * @param maxFiles       the number of files kept, including the current one
+     */
+    public StackSampler(@NotNull Path file, long intervalNS, int maxDepth, int maxStacks, long rollIntervalNS, int maxFiles) {
+        if (intervalNS <= 0)
+            throw new IllegalArgumentException("intervalNS must be positive, was " + intervalNS);
+        this.file = file;
+        this.intervalNS = intervalNS;
+        this.maxDepth = Math.max(1, maxDepth);
+        this.maxStacks = Math.max(1, maxStacks);
+        this.rollIntervalNS = Math.max(intervalNS, rollIntervalNS);
+        this.maxFiles = Math.max(1, maxFiles);
+        this.probe = new StackKey(this.maxDepth);
+    }
+
+    /**
+     * Samples this event loop's thread, from now until it stops. This can be called from any thread.
+     */
+    public void addEventLoop(@NotNull CoreEventLoop eventLoop) {
+        if (!eventLoops.contains(eventLoop))
+            eventLoops.add(eventLoop);
+    }
+
+    /**
+     * Stops sampling this event loop's thread. This can be called from any thread.
+     */
+    public void removeEventLoop(@NotNull CoreEventLoop eventLoop) {
+        eventLoops.remove(eventLoop);
+    }
+
+    @NotNull
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * @return the number of samples taken since the counts were last written
+     */
+    public long samples() {
+        return samples;
+    }
+
+    @Override
+    public boolean action() {
+        final long nowNS = System.nanoTime();
+        if (nextRollNS == 0)
+            nextRollNS = nowNS + rollIntervalNS;
+        if (nowNS - nextSampleNS >= 0) {
+            sample();
+            nextSampleNS = nowNS + intervalNS;
+        }
+        if (nowNS - nextRollNS >= 0) {
+            roll();
+            nextRollNS = nowNS + rollIntervalNS;
+        }
+        return false;
+    }
+
+    @Override
+    public long notBeforeNS() {
+        return nextRollNS - nextSampleNS < 0 ? nextRollNS : nextSampleNS;
+    }
+
+    /**
+     * Takes one sample of every event loop thread
+     */
+    void sample() {
+        int count = 0;
+        for (CoreEventLoop eventLoop : eventLoops) {
+            if (eventLoop.isStopped()) {
+                eventLoops.remove(eventLoop);
+                continue;
+            }
+            final Thread thread = eventLoop.thread();
+            if (thread == null)
+                continue;
+            if (count == threadIds.length)
+                threadIds = Arrays.copyOf(threadIds, count * 2 + 4);
+            threadIds[count++] = thread.getId();
+        }
+        if (count == 0)
+            return;
+        final long[] ids = count == threadIds.length ? threadIds : Arrays.copyOf(threadIds, count);
+        // one safepoint for all the threads
+        final ThreadInfo[] infos = threadMXBean.getThreadInfo(ids, maxDepth);
+        for (ThreadInfo info : infos) {
+            if (info != null)
+                count(info.getThreadName(), info.getStackTrace());
+        }
+        samples++;
+    }
+
+    void count(String threadName, StackTraceElement[] stack) {
+        long[] counter = counts.get(probe.set(threadName, stack, maxDepth));
+        if (counter == null) {
+            if (counts.size() >= maxStacks)
+                counter = counts.get(probe.setOther(threadName));
+            if (counter == null)
+                counts.put(probe.copy(), counter = new long[1]);
+        }
+        counter[0]++;
+    }
+
+    /**
+     * @return a copy of the counts since they were last written
+     */
+    @NotNull
+    Map<String, Long> counts() {
+        final Map<String, Long> copy = new HashMap<>();
+        counts.forEach((k, v) -> copy.put(k.toString(), v[0]));
+        return copy;
+    }
+
+    /**
+     * Hands the counts so far to the writer thread, which writes them keeping the previous files, and starts counting again
+     *
+     * @return when the counts have been written, or null if there were none
+     */
+    @Nullable
+    Future<?> roll() {
+        if (counts.isEmpty())
+            return null;
+        final Map<StackKey, long[]> toWrite = counts;
+        counts = new HashMap<>();
+        samples = 0;
+        if (writer == null)
+            writer = Executors.newSingleThreadExecutor(new NamedThreadFactory(file.getFileName() + "-writer", true));
+        return writer.submit(() -> write(toWrite));
+    }
+
+    private void write(Map<StackKey, long[]> toWrite) {
+        try {
+            final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<StackKey, long[]> entry : toWrite.entrySet()) {
+                    out.write(entry.getKey().toString());
+                    out.write(' ');
+                    out.write(Long.toString(entry.getValue()[0]));
+                    out.newLine();
+                }
+            }
+            for (int i = maxFiles - 1; i > 0; i--) {
+                final Path from = i == 1 ? file : sibling(i - 1);
+                if (Files.exists(from))
+                    Files.move(from, sibling(i), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            if (!warned) {
+                warned = true;
+                Jvm.warn().on(getClass(), "Unable to write stack samples to " + file, e);
+            }
+        }
+    }
+
+    private Path sibling(int n) {
+        return file.resolveSibling(file.getFileName() + "." + n);
+    }
+
+    @Override
+    public void loopFinished() {
+        roll();
+        // waits for the last counts to be written
+        if (writer != null)
+            Threads.shutdown(writer);
+    }
+
+    @NotNull
+    @Override
+    public HandlerPriority priority() {
+        return HandlerPriority.MONITOR;
+    }
+
+    @Override
+    public String toString() {
+        return "StackSampler<" + file + ">";
+    }
+
+    /**
+     * The thread name and frames of a collapsed stack, compared by class and method name, as the collapsed stack is
+     */
+    static final class StackKey {
+        private final String[] classNames;
+        private final String[] methodNames;
+        private String threadName;
+        private int depth;
+        // the stacks counted together once there are too many distinct ones
+        private boolean other;
+        private int hash;
+
+        StackKey(int capacity) {
+            classNames = new String[capacity];
+            methodNames = new String[capacity];
+        }
+
+        StackKey set(String threadName, StackTraceElement[] stack, int maxDepth) {
+            this.threadName = threadName;
+            this.other = false;
+            this.depth = Math.min(stack.length, maxDepth);
+            int h = threadName.hashCode();
+            // a collapsed stack starts with the outermost frame
+            for (int i = 0; i < depth; i++) {
+                final StackTraceElement element = stack[depth - 1 - i];
+                classNames[i] = element.getClassName();
+                methodNames[i] = element.getMethodName();
+                h = 31 * (31 * h + classNames[i].hashCode()) + methodNames[i].hashCode();
+            }
+            this.hash = h;
+            return this;
+        }
+
+        StackKey setOther(String threadName) {
+            this.threadName = threadName;
+            this.other = true;
+            this.depth = 0;
+            this.hash = ~threadName.hashCode();
+            return this;
+        }
+
+        StackKey copy() {
+            final StackKey copy = new StackKey(depth);
+            System.arraycopy(classNames, 0, copy.classNames, 0, depth);
+            System.arraycopy(methodNames, 0, copy.methodNames, 0, depth);
+            copy.threadName = threadName;
+            copy.depth = depth;
+            copy.other = other;
+            copy.hash = hash;
+            return copy;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof StackKey))
+                return false;
+            final StackKey that = (StackKey) o;
+            if (hash != that.hash || depth != that.depth || other != that.other || !threadName.equals(that.threadName))
+                return false;
+            for (int i = 0; i < depth; i++)
+                if (!classNames[i].equals(that.classNames[i]) || !methodNames[i].equals(that.methodNames[i]))
+                    return false;
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder(threadName);
+            if (other)
+                sb.append(';').append(OTHER);
+            for (int i = 0; i < depth; i++)
+                sb.append(';').append(classNames[i]).append('.').append(methodNames[i]);
+            return sb.toString();
+        }
+    }
+}
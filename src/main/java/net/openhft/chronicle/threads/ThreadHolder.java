@@ -23,4 +23,13 @@ public interface ThreadHolder {
     void monitorThreadDelayed(long actionCallDelayNS);
 
     long timingTolerance();
+
+    /**
+     * @param startedNS as returned by {@link #startedNS()}
+     * @param nowNS     the time of this check
+     * @return the {@link System#nanoTime()} of the next check which could log, or 0 to be checked every time the monitor loop polls
+     */
+    default long nextCheckNS(long startedNS, long nowNS) {
+        return 0;
+    }
 }
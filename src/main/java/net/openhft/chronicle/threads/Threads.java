@@ -41,6 +41,7 @@ public enum Threads {
     ; // none
 
     private static final int MAX_DEPTH_TO_FOLLOW_DELEGATIONS = 20;
+    private static final String THREAD_PER_TASK_EXECUTOR = "java.util.concurrent.ThreadPerTaskExecutor";
     static final Field GROUP = Jvm.getField(Thread.class, "group");
     static final long SHUTDOWN_WAIT_MILLIS = Jvm.getLong("SHUTDOWN_WAIT_MS", 500L);
     static final ThreadLocal<List<Object>> listTL = ThreadLocal.withInitial(ArrayList::new);
@@ -185,6 +186,10 @@ public enum Threads {
         try {
             if (!(service instanceof ThreadPoolExecutor))
                 service = resolveDelegatedExecutorServices(service);
+            if (THREAD_PER_TASK_EXECUTOR.equals(service.getClass().getName())) {
+                forEachThreadPerTask(service, consumer);
+                return;
+            }
             if (!(service instanceof ThreadPoolExecutor))
                 return;
             final Set<Object> workers = Jvm.getValue(service, "workers");
@@ -224,6 +229,21 @@ public enum Threads {
         }
     }
 
+    /**
+     * The executor from {@code Executors.newThreadPerTaskExecutor}, used for virtual threads, keeps its threads in a set
+     */
+    private static void forEachThreadPerTask(ExecutorService service, Consumer<Thread> consumer) {
+        final Set<Thread> threads = Jvm.getValue(service, "threads");
+        if (threads == null) {
+            Jvm.warn().on(Threads.class, "Couldn't find threads for " + service.getClass());
+            return;
+        }
+        for (Thread t : threads.toArray(new Thread[0])) {
+            if (t.getState() != State.TERMINATED)
+                consumer.accept(t);
+        }
+    }
+
     /**
      * Recursively resolve DelegatedExecutorServices
      *
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+
+/**
+ * A MEDIUM priority handler which only needs polling on some iterations of the event loop, a lower tier than MEDIUM
+ * which is still called when the loop is busy, unlike DAEMON.
+ * <p>
+ * e.g. a handler returning 8 from {@link #pollEvery()} is called on one iteration in 8.
+ * Handlers with the same interval are spread across iterations rather than all called on the same one.
+ */
+public interface TieredEventHandler extends EventHandler {
+    /**
+     * This is read whenever the handlers of the event loop change, so it should not change.
+     *
+     * @return how many iterations of the event loop per call to {@code action()}, 1 = every iteration
+     */
+    int pollEvery();
+}
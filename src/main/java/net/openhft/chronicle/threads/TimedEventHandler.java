@@ -17,12 +17,16 @@
  */
 package net.openhft.chronicle.threads;
 
-import net.openhft.chronicle.core.threads.EventHandler;
 import net.openhft.chronicle.core.threads.HandlerPriority;
 import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
 import org.jetbrains.annotations.NotNull;
 
-public abstract class TimedEventHandler implements EventHandler {
+/**
+ * A handler which is called again after the delay returned by {@link #timedAction()}.
+ * <p>
+ * As a {@link SelfSchedulingEventHandler}, if this is given MEDIUM priority the event loop doesn't call it until it is due.
+ */
+public abstract class TimedEventHandler implements SelfSchedulingEventHandler {
     private long nextRunNS = 0;
 
     @Override
@@ -37,6 +41,11 @@ public abstract class TimedEventHandler implements EventHandler {
         return false;
     }
 
+    @Override
+    public long notBeforeNS() {
+        return nextRunNS;
+    }
+
     /**
      * Perform an action
      *
@@ -24,6 +24,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 public class TimeoutPauser implements Pauser, TimingPauser {
+    private final PauserCounters counters = new PauserCounters();
     private final int minBusy;
     private int count = 0;
     private long timePaused = 0;
@@ -43,6 +44,7 @@ public class TimeoutPauser implements Pauser, TimingPauser {
     @Override
     public void reset() {
         checkYieldTime();
+        counters.reset();
         count = 0;
         timeOutStart = Long.MAX_VALUE;
     }
@@ -51,6 +53,7 @@ public class TimeoutPauser implements Pauser, TimingPauser {
     public void pause() {
         ++count;
         if (count < minBusy) {
+            counters.spin();
             Jvm.nanoPause();
             return;
         }
@@ -65,8 +68,10 @@ public class TimeoutPauser implements Pauser, TimingPauser {
             timeOutStart = System.nanoTime();
 
         ++count;
-        if (count < minBusy)
+        if (count < minBusy) {
+            counters.spin();
             return;
+        }
         yield0();
 
         if (timeOutStart + timeUnit.toNanos(timeout) - System.nanoTime() < 0)
@@ -86,6 +91,7 @@ public class TimeoutPauser implements Pauser, TimingPauser {
     private void yield0() {
         if (yieldStart == 0)
             yieldStart = System.nanoTime();
+        counters.yield();
         Thread.yield();
     }
 
@@ -103,4 +109,10 @@ public class TimeoutPauser implements Pauser, TimingPauser {
     public long countPaused() {
         return countPaused;
     }
+
+    @NotNull
+    @Override
+    public PauserStats stats() {
+        return counters.snapshot();
+    }
 }
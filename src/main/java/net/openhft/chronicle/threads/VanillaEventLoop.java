@@ -24,11 +24,16 @@ import net.openhft.chronicle.core.threads.EventHandler;
 import net.openhft.chronicle.core.threads.EventLoop;
 import net.openhft.chronicle.core.threads.HandlerPriority;
 import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.threads.internal.EventLoopUtil;
+import net.openhft.chronicle.threads.internal.TimerWheel;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -41,8 +46,16 @@ public class VanillaEventLoop extends MediumEventLoop {
                             HandlerPriority.DAEMON));
     private final List<EventHandler> timerHandlers = new CopyOnWriteArrayList<>();
     private final List<EventHandler> daemonHandlers = new CopyOnWriteArrayList<>();
+    // when each DAEMON handler last ran, written by the event loop thread only
+    private final Map<EventHandler, AtomicLong> daemonLastRunNS = new ConcurrentHashMap<>();
+    // where the next run of the DAEMON handlers starts, only used by the event loop thread
+    private int nextDaemonIndex = 0;
     private final long timerIntervalMS;
     private final Set<HandlerPriority> priorities;
+    // only accessed by the event loop thread
+    private final TimerWheel timerWheel;
+    // the timers of TIMER handlers added by other threads, which the event loop thread adds to the wheel
+    private final Queue<TimerWheel.Timer> stagedTimers = new ConcurrentLinkedQueue<>();
 
     /**
      * @param parent          the parent event loop
@@ -62,6 +75,7 @@ public class VanillaEventLoop extends MediumEventLoop {
         super(parent, name, pauser, daemon, binding);
         this.timerIntervalMS = timerIntervalMS;
         this.priorities = EnumSet.copyOf(priorities);
+        this.timerWheel = new TimerWheel(Math.max(1_000, Math.min(EventLoopUtil.TIMER_TICK_US * 1_000L, timerIntervalNS())), nanoTime());
     }
 
     public static void closeAll(@NotNull final List<EventHandler> handlers) {
@@ -81,11 +95,11 @@ public class VanillaEventLoop extends MediumEventLoop {
                 "name='" + name + '\'' +
                 ", parent=" + parent +
                 ", service=" + service +
-                ", highHandler=" + highHandler +
+                ", highHandlers=" + Arrays.toString(highHandlersArray) +
                 ", mediumHandlers=" + mediumHandlers +
                 ", timerHandlers=" + timerHandlers +
                 ", daemonHandlers=" + daemonHandlers +
-                ", newHandler=" + newHandler +
+                ", newHandlers=" + newHandlers +
                 ", pauser=" + pauser +
                 '}';
     }
@@ -104,18 +118,12 @@ public class VanillaEventLoop extends MediumEventLoop {
             addNewHandler(handler);
             return;
         }
-        do {
-            if (isStopped()) {
-                return;
-            }
-            pauser.unpause();
-
-            checkInterruptedAddingNewHandler();
-        } while (!newHandler.compareAndSet(null, handler));
+        offerNewHandler(handler);
     }
 
     @Override
     protected void loopStartedAllHandlers() {
+        scheduleStagedTimers();
         super.loopStartedAllHandlers();
         if (!timerHandlers.isEmpty())
             timerHandlers.forEach(EventHandler::loopStarted);
@@ -137,36 +145,159 @@ public class VanillaEventLoop extends MediumEventLoop {
         return timerIntervalMS;
     }
 
+    /**
+     * @return the timer interval in nanoseconds, used as the period of timer handlers which don't have their own
+     */
+    private long timerIntervalNS() {
+        return timerIntervalMS <= 0 ? 1 : timerIntervalMS >= Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE / 2 : timerIntervalMS * 1_000_000;
+    }
+
     @Override
     protected void runTimerHandlers() {
-        for (int i = 0; i < timerHandlers.size(); i++) {
-            EventHandler handler = null;
-            try {
-                handler = timerHandlers.get(i);
-                handler.action();
-            } catch (InvalidEventHandlerException e) {
-                removeHandler(handler, timerHandlers);
-            } catch (Throwable e) {
-                if (exceptionThrownByHandler.handle(this, handler, e))
-                    removeHandler(handler, timerHandlers);
+        final TimerWheel.Timer due = timerWheel.expire(nanoTime());
+        if (due == null)
+            return;
+        final int sampleInterval = handlerLatencySampleInterval();
+        for (TimerWheel.Timer timer = due, next; timer != null; timer = next) {
+            // read before the timer is scheduled again
+            next = timer.nextDue();
+            runTimer(timer, sampleInterval);
+        }
+    }
+
+    private void runTimer(@NotNull final TimerWheel.Timer timer, final int sampleInterval) {
+        final EventHandler handler = timer.handler();
+        final long deadlineNS = timer.deadlineNS();
+        long nextDeadlineNS = deadlineNS + timer.periodNS();
+        int catchUp = timer.maxCatchUp();
+        try {
+            while (true) {
+                if (sampleInterval > 0)
+                    callSampled(handler, handlerLatencyFor(handler), sampleInterval);
+                else
+                    handler.action();
+                if (timer.selfScheduling() || timer.fixedDelay())
+                    break;
+                // fixed rate, make up missed calls up to the limit then skip to the next deadline in the future
+                if (nextDeadlineNS > nanoTime() || catchUp-- <= 0)
+                    break;
+                nextDeadlineNS += timer.periodNS();
+            }
+        } catch (InvalidEventHandlerException e) {
+            removeTimer(handler);
+            return;
+        } catch (Throwable e) {
+            if (exceptionThrownByHandler.handle(this, handler, e)) {
+                removeTimer(handler);
+                return;
             }
         }
+        final long nowNS = nanoTime();
+        if (timer.selfScheduling()) {
+            nextDeadlineNS = ((SelfSchedulingEventHandler) handler).notBeforeNS();
+        } else if (timer.fixedDelay()) {
+            nextDeadlineNS = nowNS + timer.periodNS();
+        } else if (nextDeadlineNS <= nowNS) {
+            // keep the phase of the original schedule
+            nextDeadlineNS += ((nowNS - nextDeadlineNS) / timer.periodNS() + 1) * timer.periodNS();
+        }
+        timerWheel.schedule(timer, nextDeadlineNS);
+    }
+
+    @Override
+    protected void acceptStagedHandlers() {
+        scheduleStagedTimers();
+    }
+
+    private void scheduleStagedTimers() {
+        if (stagedTimers.isEmpty())
+            return;
+        for (TimerWheel.Timer timer; (timer = stagedTimers.poll()) != null; )
+            timerWheel.schedule(timer, nanoTime());
+        checkTimersNextIteration();
+    }
+
+    /**
+     * @return the clock timer handlers are scheduled against, {@link System#nanoTime()} unless overridden
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    private void removeTimer(@NotNull final EventHandler handler) {
+        removeHandler(handler, timerHandlers);
+        removeHandlerLatency(handler);
+    }
+
+    @Override
+    protected long nextTimerNS(final long nowNS) {
+        return timerWheel.size() == 0 ? Long.MAX_VALUE : timerWheel.nextTickNS();
     }
 
     @Override
     protected void runDaemonHandlers() {
-        for (int i = 0; i < daemonHandlers.size(); i++) {
+        runDaemonHandlers(Long.MAX_VALUE);
+    }
+
+    @Override
+    protected void runDaemonHandlers(final long budgetNS) {
+        final int count = daemonHandlers.size();
+        if (count == 0)
+            return;
+        final int sampleInterval = handlerLatencySampleInterval();
+        final long startNS = budgetNS == Long.MAX_VALUE ? 0 : System.nanoTime();
+        for (int n = 0; n < count; n++) {
+            if (nextDaemonIndex >= daemonHandlers.size())
+                nextDaemonIndex = 0;
             EventHandler handler = null;
             try {
-                handler = daemonHandlers.get(i);
-                handler.action();
+                handler = daemonHandlers.get(nextDaemonIndex++);
+                if (sampleInterval > 0)
+                    callSampled(handler, handlerLatencyFor(handler), sampleInterval);
+                else
+                    handler.action();
+                final AtomicLong lastRunNS = daemonLastRunNS.get(handler);
+                if (lastRunNS != null)
+                    lastRunNS.lazySet(System.nanoTime());
+            } catch (IndexOutOfBoundsException e) {
+                // removed by another thread, start again next time
+                nextDaemonIndex = 0;
+                return;
             } catch (InvalidEventHandlerException e) {
-                removeHandler(handler, daemonHandlers);
+                removeDaemon(handler);
             } catch (Throwable e) {
                 if (exceptionThrownByHandler.handle(this, handler, e))
-                    removeHandler(handler, daemonHandlers);
+                    removeDaemon(handler);
             }
+            if (budgetNS != Long.MAX_VALUE && System.nanoTime() - startNS >= budgetNS)
+                break;
+        }
+    }
+
+    private void removeDaemon(@NotNull final EventHandler handler) {
+        removeHandler(handler, daemonHandlers);
+        removeHandlerLatency(handler);
+        daemonLastRunNS.remove(handler);
+        // the next handler has moved into this one's place
+        nextDaemonIndex--;
+    }
+
+    /**
+     * How long each DAEMON handler has waited since it last ran, or since it was added.
+     * Under sustained load DAEMON handlers only run every {@link #daemonMaxIntervalNS()}, if that is set.
+     *
+     * @return a snapshot which can be taken from any thread
+     */
+    @NotNull
+    public Map<EventHandler, Long> daemonStarvationNS() {
+        final long nowNS = System.nanoTime();
+        final Map<EventHandler, Long> starvation = new LinkedHashMap<>();
+        for (EventHandler handler : daemonHandlers) {
+            final AtomicLong lastRunNS = daemonLastRunNS.get(handler);
+            if (lastRunNS != null)
+                starvation.put(handler, Math.max(0, nowNS - lastRunNS.get()));
         }
+        return starvation;
     }
 
     @Override
@@ -177,7 +308,7 @@ public class VanillaEventLoop extends MediumEventLoop {
                 if (updateHighHandler(handler)) {
                     break;
                 } else {
-                    Jvm.warn().on(getClass(), "Only one high handler supported was " + highHandler + ", treating " + handler + " as MEDIUM");
+                    warnTooManyHighHandlers(handler);
                     // fall through to MEDIUM
                 }
 
@@ -194,12 +325,22 @@ public class VanillaEventLoop extends MediumEventLoop {
                 if (!timerHandlers.contains(handler)) {
                     clearUsedByThread(handler);
                     timerHandlers.add(handler);
+                    final TimerWheel.Timer timer = newTimer(handler);
+                    if (thread == Thread.currentThread()) {
+                        timerWheel.schedule(timer, nanoTime());
+                        checkTimersNextIteration();
+                    } else {
+                        // before the loop starts, or from another thread while it is starting
+                        stagedTimers.add(timer);
+                        pauser.unpause();
+                    }
                 }
                 break;
 
             case DAEMON:
                 if (!daemonHandlers.contains(handler)) {
                     clearUsedByThread(handler);
+                    daemonLastRunNS.put(handler, new AtomicLong(System.nanoTime()));
                     daemonHandlers.add(handler);
                 }
                 break;
@@ -212,6 +353,21 @@ public class VanillaEventLoop extends MediumEventLoop {
             handler.loopStarted();
     }
 
+    @NotNull
+    private TimerWheel.Timer newTimer(@NotNull final EventHandler handler) {
+        if (handler instanceof PeriodicEventHandler) {
+            final PeriodicEventHandler periodic = (PeriodicEventHandler) handler;
+            final long periodNS = periodic.periodNS();
+            return new TimerWheel.Timer(handler,
+                    periodNS > 0 ? periodNS : timerIntervalNS(),
+                    periodic.schedule() == PeriodicEventHandler.Schedule.FIXED_DELAY,
+                    periodic.maxCatchUp(),
+                    false);
+        }
+        // e.g. a TimedEventHandler says when it is next due, any other handler is called every timer interval
+        return new TimerWheel.Timer(handler, timerIntervalNS(), false, 0, handler instanceof SelfSchedulingEventHandler);
+    }
+
     @Override
     public int handlerCount() {
         return nonDaemonHandlerCount() + daemonHandlers.size() + timerHandlers.size();
@@ -223,7 +379,10 @@ public class VanillaEventLoop extends MediumEventLoop {
             super.performClose();
         } finally {
             daemonHandlers.clear();
+            daemonLastRunNS.clear();
             timerHandlers.clear();
+            stagedTimers.clear();
+            timerWheel.clear();
         }
     }
 
@@ -239,7 +398,7 @@ public class VanillaEventLoop extends MediumEventLoop {
         final int handlerCount = handlerCount();
         if (handlerCount <= 0)
             return;
-        final List<EventHandler> collect = Stream.of(Collections.singletonList(highHandler), mediumHandlers, daemonHandlers, timerHandlers)
+        final List<EventHandler> collect = Stream.of(Arrays.asList(highHandlersArray), mediumHandlers, daemonHandlers, timerHandlers)
                 .flatMap(List::stream)
                 .filter(e -> e != EventHandlers.NOOP)
                 .filter(Closeable.class::isInstance)
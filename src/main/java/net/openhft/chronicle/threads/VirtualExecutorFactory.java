@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016-2020 chronicle.software
+ *
+ * https://chronicle.software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.threads.internal.VirtualThreads;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * An {@link ExecutorFactory} for I/O heavy callers, which uses virtual threads named by a {@link NamedThreadFactory}.
+ * Select it with {@code -Dthreads.executor.factory=net.openhft.chronicle.threads.VirtualExecutorFactory}.
+ * <p>
+ * A service of more than one thread starts a virtual thread per task, so {@code threads} is not a limit on how many run at once.
+ * A single threaded service still runs its tasks one at a time, in order, on one virtual thread, as does a scheduled service.
+ * Virtual threads are always daemon threads. Before Java 21 this uses {@link VanillaExecutorFactory} with a warning.
+ */
+public class VirtualExecutorFactory implements ExecutorFactory {
+    private final boolean supported;
+
+    public VirtualExecutorFactory() {
+        supported = VirtualThreads.isSupported();
+        if (!supported)
+            Jvm.warn().on(getClass(), "Virtual threads need Java 21+, using platform threads");
+    }
+
+    @Override
+    public ExecutorService acquireExecutorService(String name, int threads, boolean daemon) {
+        if (!supported)
+            return VanillaExecutorFactory.INSTANCE.acquireExecutorService(name, threads, daemon);
+        final NamedThreadFactory threadFactory = new NamedThreadFactory(name, null, null, false, true);
+        return threads == 1
+                ? Executors.newSingleThreadExecutor(threadFactory)
+                : VirtualThreads.newThreadPerTaskExecutor(threadFactory);
+    }
+
+    @Override
+    public ScheduledExecutorService acquireScheduledExecutorService(String name, boolean daemon) {
+        if (!supported)
+            return VanillaExecutorFactory.INSTANCE.acquireScheduledExecutorService(name, daemon);
+        return Executors.newSingleThreadScheduledExecutor(
+                new NamedThreadFactory(name, null, null, false, true));
+    }
+}
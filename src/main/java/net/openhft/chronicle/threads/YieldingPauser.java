@@ -18,8 +18,10 @@
 package net.openhft.chronicle.threads;
 
 import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
 
 public class YieldingPauser implements Pauser {
+    private final PauserCounters counters = new PauserCounters();
     private final int minBusy;
     private int count = 0;
     private long timePaused = 0;
@@ -39,6 +41,7 @@ public class YieldingPauser implements Pauser {
     @Override
     public void reset() {
         checkYieldTime();
+        counters.reset();
         count = 0;
     }
 
@@ -46,6 +49,7 @@ public class YieldingPauser implements Pauser {
     public void pause() {
         ++count;
         if (count < minBusy) {
+            counters.spin();
             Jvm.safepoint();
             return;
         }
@@ -64,6 +68,7 @@ public class YieldingPauser implements Pauser {
     private void yield0() {
         if (yieldStart == 0)
             yieldStart = System.nanoTime();
+        counters.yield();
         Thread.yield();
     }
 
@@ -81,4 +86,10 @@ public class YieldingPauser implements Pauser {
     public long countPaused() {
         return countPaused;
     }
+
+    @NotNull
+    @Override
+    public PauserStats stats() {
+        return counters.snapshot();
+    }
 }
@@ -0,0 +1,25 @@
+package net.openhft.chronicle.threads.internal;
+
+/**
+ * A chain of event handler calls built by {@link MonomorphicDispatcher}.
+ * <p>
+ * This is public as the nodes are defined in their own class loader, and so can't see package-private members.
+ */
+public abstract class DispatchChain {
+    /**
+     * The end of every chain
+     */
+    static final DispatchChain END = new DispatchChain() {
+        @Override
+        public boolean run() {
+            return false;
+        }
+    };
+
+    /**
+     * Calls this handler and the rest of the chain
+     *
+     * @return true if any handler was busy
+     */
+    public abstract boolean run();
+}
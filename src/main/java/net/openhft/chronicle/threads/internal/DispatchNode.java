@@ -0,0 +1,35 @@
+package net.openhft.chronicle.threads.internal;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+
+import java.util.function.BiConsumer;
+
+/**
+ * The template for each link in a {@link DispatchChain}.
+ * <p>
+ * {@link MonomorphicDispatcher} defines a renamed copy of this class for each handler class and the node which follows it,
+ * so each copy of {@code handler.action()} and {@code next.run()} only ever sees one receiver type and can be inlined.
+ * It must not refer to any other class which isn't public, nor to its own type, nor have nested classes or lambdas.
+ */
+public final class DispatchNode extends DispatchChain {
+    private final EventHandler handler;
+    private final DispatchChain next;
+    private final BiConsumer<EventHandler, Throwable> onException;
+
+    public DispatchNode(EventHandler handler, DispatchChain next, BiConsumer<EventHandler, Throwable> onException) {
+        this.handler = handler;
+        this.next = next;
+        this.onException = onException;
+    }
+
+    @Override
+    public boolean run() {
+        boolean busy = false;
+        try {
+            busy = handler.action();
+        } catch (Exception e) {
+            onException.accept(handler, e);
+        }
+        return busy | next.run();
+    }
+}
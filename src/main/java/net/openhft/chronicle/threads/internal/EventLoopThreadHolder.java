@@ -17,7 +17,8 @@ public class EventLoopThreadHolder implements ThreadHolder {
 
     @Override
     public boolean isAlive() {
-        return eventLoop.isAlive();
+        // a loop started after the monitor, whose thread hasn't started running yet
+        return eventLoop.isAlive() || (eventLoop.thread() == null && !eventLoop.isStopped());
     }
 
     @Override
@@ -46,15 +47,37 @@ public class EventLoopThreadHolder implements ThreadHolder {
     public void dumpThread(long startedNS, long nowNS) {
         long blockingTimeNS = nowNS - startedNS;
 
-        eventLoop.dumpRunningState(eventLoop.name() + " thread has blocked for "
-                        + blockingTimeNS / 100_000 / 10.0 + " ms.",
-                // check we are still in the loop.
-                () -> eventLoop.loopStartNS() == startedNS);
+        final Thread thread = eventLoop.thread();
+        if (thread != null && Jvm.isPerfEnabled(eventLoop.getClass())) {
+            final StallAttribution.Attribution cause = StallAttribution.INSTANCE.attribute(startedNS, nowNS,
+                    eventLoop.boundCpuId(), eventLoop.nativeThreadId());
+            final String message = eventLoop.name() + " thread has blocked for "
+                    + blockingTimeNS / 100_000 / 10.0 + " ms" + StallAttribution.INSTANCE.describe(cause) + ".";
+            if (cause.cause().measured()) {
+                // the stack would only show where the thread was stopped
+                Jvm.perf().on(eventLoop.getClass(), message);
+            } else {
+                // captured with any other stalled threads at the end of the monitor's pass
+                StackCapture.INSTANCE.request(thread, (stackTrace, captureNS) ->
+                        eventLoop.dumpRunningState(message,
+                                // check we are still in the loop.
+                                () -> eventLoop.loopStartNS() == startedNS,
+                                stackTrace, captureNS));
+            }
+        }
 
         printBlockTimeNS += intervalToAddNS;
         intervalToAddNS = (long) Math.min(1.41d * intervalToAddNS, 20d * monitorIntervalNS);
     }
 
+    @Override
+    public long nextCheckNS(long startedNS, long nowNS) {
+        // an idle loop could start a blocking iteration at any time
+        if (startedNS == 0 || startedNS == Long.MAX_VALUE)
+            return nowNS + printBlockTimeNS;
+        return startedNS + printBlockTimeNS;
+    }
+
     @Override
     public long timingTolerance() {
         return monitorIntervalNS + timingError();
@@ -71,6 +94,13 @@ public class EventLoopThreadHolder implements ThreadHolder {
 
     @Override
     public void monitorThreadDelayed(long actionCallDelayNS) {
-        // report it??
+        final long nowNS = System.nanoTime();
+        final long delayedFromNS = nowNS - actionCallDelayNS;
+        // reported once, not by every loop the monitor checks
+        if (!StallAttribution.INSTANCE.monitorDelayed(delayedFromNS, nowNS) || !Jvm.isPerfEnabled(getClass()))
+            return;
+        final StallAttribution.Attribution cause = StallAttribution.INSTANCE.attribute(delayedFromNS, nowNS, -1, -1);
+        Jvm.perf().on(getClass(), "Monitor thread " + Thread.currentThread().getName() + " was delayed by "
+                + actionCallDelayNS / 100_000 / 10.0 + " ms" + StallAttribution.INSTANCE.describe(cause) + ".");
     }
 }
@@ -24,5 +24,36 @@ public enum EventLoopUtil {
     private static final int DEFAULT_ACCEPT_HANDLER_MOD_COUNT = 128;
     public static final int ACCEPT_HANDLER_MOD_COUNT = Jvm.getInteger("eventloop.accept.mod", DEFAULT_ACCEPT_HANDLER_MOD_COUNT);
     public static final boolean IS_ACCEPT_HANDLER_MOD_COUNT = ACCEPT_HANDLER_MOD_COUNT > 0;
+    private static final int DEFAULT_ACCEPT_HANDLER_QUEUE_SIZE = 256;
+    public static final int ACCEPT_HANDLER_QUEUE_SIZE = Jvm.getInteger("eventloop.accept.queue.size", DEFAULT_ACCEPT_HANDLER_QUEUE_SIZE);
+    private static final int DEFAULT_TASK_QUEUE_SIZE = 1024;
+    public static final int TASK_QUEUE_SIZE = Jvm.getInteger("eventloop.task.queue.size", DEFAULT_TASK_QUEUE_SIZE);
+    // 0 = off, 1 = time every call, N = time every Nth call of each handler
+    public static final int HANDLER_LATENCY_SAMPLE_INTERVAL = Jvm.getInteger("eventloop.handler.latency.sample", 0);
+    // 0 = off, otherwise the longest an idle MEDIUM handler is skipped for
+    public static final int HANDLER_BACKOFF_MAX_US = Jvm.getInteger("eventloop.handler.backoff.max.us", 0);
+    public static final boolean GENERATED_DISPATCH = Jvm.getBoolean("eventloop.generated.dispatch");
+    // beyond this many MEDIUM handlers the chain is too deep to inline, so the array is looped over instead
+    public static final int GENERATED_DISPATCH_MAX_HANDLERS = Jvm.getInteger("eventloop.generated.dispatch.max.handlers", 12);
+    public static final int MAX_HIGH_HANDLERS = Math.max(1, Jvm.getInteger("eventloop.high.handlers.max", 1));
+    // how many MEDIUM handlers are called between calls to the HIGH handlers
+    public static final int HIGH_HANDLER_INTERLEAVE = Math.max(1, Jvm.getInteger("eventloop.high.handler.interleave", 1));
+    // 0 = off, otherwise the longest DAEMON handlers wait while the event loop is busy
+    public static final int DAEMON_MAX_INTERVAL_MS = Jvm.getInteger("eventloop.daemon.max.interval.ms", 0);
+    // how long DAEMON handlers can run for when run while the event loop is busy
+    public static final int DAEMON_BUDGET_US = Math.max(1, Jvm.getInteger("eventloop.daemon.budget.us", 20));
+    // the resolution of the timer wheel, at most the timer interval of the event loop
+    public static final int TIMER_TICK_US = Math.max(1, Jvm.getInteger("eventloop.timer.tick.us", 1000));
+    // run BLOCKING handlers on virtual threads, when on Java 21+
+    public static final boolean BLOCKING_VIRTUAL_THREADS = Jvm.getBoolean("eventloop.blocking.virtual.threads");
+    // run the MONITOR handlers of every event group on one thread
+    public static final boolean SHARED_MONITOR = Jvm.getBoolean("eventGroup.shared.monitor");
+    // 0 = off, otherwise how often the stacks of the event loop threads are sampled
+    public static final int STACK_SAMPLE_INTERVAL_MS = Jvm.getInteger("eventGroup.stack.sample.interval.ms", 0);
+    public static final int STACK_SAMPLE_DEPTH = Jvm.getInteger("eventGroup.stack.sample.depth", 64);
+    public static final int STACK_SAMPLE_MAX_STACKS = Jvm.getInteger("eventGroup.stack.sample.max.stacks", 4096);
+    public static final int STACK_SAMPLE_ROLL_S = Jvm.getInteger("eventGroup.stack.sample.roll.s", 60);
+    public static final int STACK_SAMPLE_FILES = Jvm.getInteger("eventGroup.stack.sample.files", 5);
+    public static final String STACK_SAMPLE_DIR = System.getProperty("eventGroup.stack.sample.dir", ".");
 }
 
@@ -0,0 +1,228 @@
+package net.openhft.chronicle.threads.internal;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Builds a {@link DispatchChain} which calls an array of handlers in the same order as {@code MediumEventLoop.runAllMediumHandler()},
+ * i.e. from the last to the first.
+ * <p>
+ * Past a few handlers, the single {@code handlers[i].action()} call site in a loop is megamorphic and can't be inlined.
+ * Instead, each link of the chain is an instance of a renamed copy of {@link DispatchNode}, so every call site has
+ * its own profile which sees exactly one handler class and one next node class.
+ * A copy is shared by links with the same handler class and next node class as that keeps the call sites monomorphic.
+ * The copies are defined in one class loader per dispatcher, which is replaced if there are too many.
+ * <p>
+ * When the handlers change, the links for the handlers before the first change are reused.
+ * <p>
+ * Only used by the event loop thread, or before it starts.
+ */
+public final class MonomorphicDispatcher {
+    private static final String NODE_CLASS_NAME = DispatchNode.class.getName();
+    // copies are named by replacing this suffix with the same number of hex digits, so the class file's layout doesn't change
+    private static final String NODE_SUFFIX = "Node";
+    private static final int MAX_NODE_CLASSES = 1 << (4 * NODE_SUFFIX.length());
+    @Nullable
+    private static final byte[] NODE_CLASS_BYTES = readNodeClass();
+    private static final int NODE_NAME_OFFSET = NODE_CLASS_BYTES == null ? -1 : classNameOffset(NODE_CLASS_BYTES);
+
+    private final Map<NodeKey, Constructor<? extends DispatchChain>> nodeConstructors = new HashMap<>();
+    private final BiConsumer<EventHandler, Throwable> onException;
+    private NodeClassLoader loader;
+    private EventHandler[] lastHandlers = {};
+    private DispatchChain[] lastNodes = {};
+
+    /**
+     * @param onException called with a handler which threw from {@code action()}
+     */
+    public MonomorphicDispatcher(@NotNull BiConsumer<EventHandler, Throwable> onException) {
+        this.onException = onException;
+    }
+
+    public static boolean isSupported() {
+        return NODE_NAME_OFFSET >= 0;
+    }
+
+    @Nullable
+    private static byte[] readNodeClass() {
+        try (InputStream in = DispatchNode.class.getResourceAsStream(DispatchNode.class.getSimpleName() + ".class")) {
+            if (in == null)
+                return null;
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            for (int len; (len = in.read(buffer)) > 0; )
+                out.write(buffer, 0, len);
+            return out.toByteArray();
+        } catch (IOException e) {
+            Jvm.debug().on(MonomorphicDispatcher.class, "Unable to read " + NODE_CLASS_NAME + ", generated dispatch is not available", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the offset of the suffix of the class' own name in its constant pool, or -1 if it wasn't found
+     */
+    static int classNameOffset(byte[] bytes) {
+        final byte[] name = NODE_CLASS_NAME.replace('.', '/').getBytes(StandardCharsets.ISO_8859_1);
+        final ByteBuffer bb = ByteBuffer.wrap(bytes);
+        try {
+            // magic, minor and major version
+            bb.position(8);
+            final int count = bb.getShort() & 0xFFFF;
+            for (int i = 1; i < count; i++) {
+                final int tag = bb.get();
+                switch (tag) {
+                    case 1: { // Utf8
+                        final int length = bb.getShort() & 0xFFFF;
+                        final int start = bb.position();
+                        if (length == name.length && regionMatches(bytes, start, name))
+                            return start + length - NODE_SUFFIX.length();
+                        bb.position(start + length);
+                        break;
+                    }
+                    case 3: // Integer
+                    case 4: // Float
+                    case 9: // Fieldref
+                    case 10: // Methodref
+                    case 11: // InterfaceMethodref
+                    case 12: // NameAndType
+                    case 17: // Dynamic
+                    case 18: // InvokeDynamic
+                        bb.position(bb.position() + 4);
+                        break;
+                    case 5: // Long
+                    case 6: // Double
+                        bb.position(bb.position() + 8);
+                        i++;
+                        break;
+                    case 7: // Class
+                    case 8: // String
+                    case 16: // MethodType
+                    case 19: // Module
+                    case 20: // Package
+                        bb.position(bb.position() + 2);
+                        break;
+                    case 15: // MethodHandle
+                        bb.position(bb.position() + 3);
+                        break;
+                    default:
+                        return -1;
+                }
+            }
+        } catch (RuntimeException e) {
+            Jvm.debug().on(MonomorphicDispatcher.class, "Unable to parse " + NODE_CLASS_NAME + ", generated dispatch is not available", e);
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(byte[] bytes, int start, byte[] name) {
+        for (int i = 0; i < name.length; i++)
+            if (bytes[start + i] != name[i])
+                return false;
+        return true;
+    }
+
+    /**
+     * @param handlers to call, from last to first
+     * @return the chain, or null if it couldn't be built
+     */
+    @Nullable
+    public DispatchChain build(@NotNull EventHandler[] handlers) {
+        if (!isSupported())
+            return null;
+        if (loader == null || nodeConstructors.size() >= MAX_NODE_CLASSES) {
+            // the old copies are unloaded once no chain uses them
+            nodeConstructors.clear();
+            loader = new NodeClassLoader(DispatchNode.class.getClassLoader());
+            lastHandlers = new EventHandler[0];
+            lastNodes = new DispatchChain[0];
+        }
+        // the links up to the first change don't depend on the handlers after it
+        int reused = 0;
+        while (reused < handlers.length && reused < lastHandlers.length && handlers[reused] == lastHandlers[reused])
+            reused++;
+        try {
+            final DispatchChain[] nodes = Arrays.copyOf(lastNodes, handlers.length);
+            DispatchChain chain = reused == 0 ? DispatchChain.END : nodes[reused - 1];
+            for (int i = reused; i < handlers.length; i++) {
+                final NodeKey key = new NodeKey(handlers[i].getClass(), chain.getClass());
+                Constructor<? extends DispatchChain> constructor = nodeConstructors.get(key);
+                if (constructor == null) {
+                    constructor = defineNodeClass(nodeConstructors.size());
+                    nodeConstructors.put(key, constructor);
+                }
+                chain = nodes[i] = constructor.newInstance(handlers[i], chain, onException);
+            }
+            lastHandlers = handlers.clone();
+            lastNodes = nodes;
+            return chain;
+        } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+            Jvm.warn().on(getClass(), "Unable to generate the dispatch for " + handlers.length + " handlers, using the default", e);
+            lastHandlers = new EventHandler[0];
+            lastNodes = new DispatchChain[0];
+            return null;
+        }
+    }
+
+    @NotNull
+    private Constructor<? extends DispatchChain> defineNodeClass(int id) throws NoSuchMethodException {
+        final byte[] bytes = Objects.requireNonNull(NODE_CLASS_BYTES).clone();
+        final String suffix = String.format("%0" + NODE_SUFFIX.length() + "x", id);
+        for (int i = 0; i < suffix.length(); i++)
+            bytes[NODE_NAME_OFFSET + i] = (byte) suffix.charAt(i);
+        final String name = NODE_CLASS_NAME.substring(0, NODE_CLASS_NAME.length() - NODE_SUFFIX.length()) + suffix;
+        final Class<? extends DispatchChain> nodeClass = loader.defineNode(name, bytes).asSubclass(DispatchChain.class);
+        return nodeClass.getConstructor(EventHandler.class, DispatchChain.class, BiConsumer.class);
+    }
+
+    /**
+     * Defines the copies of {@link DispatchNode}, delegating every other class to its parent.
+     */
+    static final class NodeClassLoader extends ClassLoader {
+        NodeClassLoader(ClassLoader parent) {
+            // the parent needs to see both this library and EventHandler, which the library's class loader always can
+            super(parent);
+        }
+
+        Class<?> defineNode(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    static final class NodeKey {
+        private final Class<?> handlerClass;
+        private final Class<?> nextClass;
+
+        NodeKey(Class<?> handlerClass, Class<?> nextClass) {
+            this.handlerClass = handlerClass;
+            this.nextClass = nextClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof NodeKey))
+                return false;
+            final NodeKey nodeKey = (NodeKey) o;
+            return handlerClass == nodeKey.handlerClass && nextClass == nodeKey.nextClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(handlerClass) * 31 + System.identityHashCode(nextClass);
+        }
+    }
+}
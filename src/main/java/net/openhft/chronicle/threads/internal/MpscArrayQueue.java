@@ -0,0 +1,108 @@
+package net.openhft.chronicle.threads.internal;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free, multi-producer single-consumer queue backed by a ring buffer.
+ * <p>
+ * Each slot carries a sequence number which tells producers when it is free and the consumer
+ * when it has been published, so producers only contend on the tail counter and never on each other's slots.
+ * Nothing is allocated after construction.
+ * <p>
+ * {@link #offer(Object)} may be called from any thread, {@link #poll()} only from one thread at a time.
+ */
+public final class MpscArrayQueue<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param requestedCapacity the minimum capacity, rounded up to a power of 2
+     */
+    public MpscArrayQueue(int requestedCapacity) {
+        if (requestedCapacity < 1)
+            throw new IllegalArgumentException("capacity must be positive, was " + requestedCapacity);
+        final int actualCapacity = requestedCapacity <= 2 ? 2 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        mask = actualCapacity - 1;
+        buffer = new AtomicReferenceArray<>(actualCapacity);
+        sequences = new AtomicLongArray(actualCapacity);
+        for (int i = 0; i < actualCapacity; i++)
+            sequences.set(i, i);
+    }
+
+    /**
+     * Adds an element if there is room
+     *
+     * @param e to add
+     * @return true if added, false if the queue is full
+     */
+    public boolean offer(@NotNull E e) {
+        for (; ; ) {
+            final long pos = tail.get();
+            final int index = (int) (pos & mask);
+            final long difference = sequences.get(index) - pos;
+            if (difference == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer.lazySet(index, e);
+                    // publishes the element to the consumer
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            // otherwise another producer claimed this slot, try the next one
+        }
+    }
+
+    /**
+     * Removes the oldest published element. Must only be called by one thread at a time.
+     *
+     * @return the element or null if there is none
+     */
+    @Nullable
+    public E poll() {
+        final long pos = head.get();
+        final int index = (int) (pos & mask);
+        if (sequences.get(index) != pos + 1)
+            return null;
+        final E e = buffer.get(index);
+        buffer.lazySet(index, null);
+        // frees the slot for producers one lap later
+        sequences.lazySet(index, pos + 1 + mask);
+        head.lazySet(pos + 1);
+        return e;
+    }
+
+    public boolean isEmpty() {
+        final long pos = head.get();
+        return sequences.get((int) (pos & mask)) != pos + 1;
+    }
+
+    /**
+     * @return the number of elements claimed by producers, which may include some not yet published
+     */
+    public int size() {
+        final long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "MpscArrayQueue{" +
+                "size=" + size() +
+                ", capacity=" + capacity() +
+                '}';
+    }
+}
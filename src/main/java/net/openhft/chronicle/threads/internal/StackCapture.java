@@ -0,0 +1,171 @@
+package net.openhft.chronicle.threads.internal;
+
+import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Captures the stacks of stalled threads for the monitors, so stall diagnostics don't add to the stall.
+ * <p>
+ * Each capture brings every thread to a safepoint. On a monitor thread, requests are held until the end of its pass over the handlers,
+ * then the stacks of all the threads requested, by any monitor, are captured with one call to {@link ThreadMXBean#getThreadInfo(long[], int)}.
+ * Captures are rate limited across the JVM, a request made too soon after the last capture is given no stack.
+ * One thread flushes at a time, and also flushes any requests made while it calls back.
+ * <p>
+ * Elsewhere a request is captured straight away, subject to the same limit.
+ */
+public final class StackCapture {
+    public static final StackCapture INSTANCE = new StackCapture(
+            Jvm.getInteger("threads.stack.capture.min.interval.ms", 100) * 1_000_000L,
+            Jvm.getInteger("threads.stack.capture.depth", 256));
+
+    private static final ThreadLocal<Boolean> BATCHING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final long minIntervalNS;
+    private final int maxDepth;
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    // guarded by this
+    private Thread[] threads = new Thread[4];
+    private Callback[] callbacks = new Callback[4];
+    // swapped with the arrays above, so they can be called back outside the lock without a copy
+    private Thread[] flushedThreads = new Thread[4];
+    private Callback[] flushedCallbacks = new Callback[4];
+    // by the number of threads, as getThreadInfo takes the whole array
+    private long[][] idsByCount = new long[5][];
+    private long lastCaptureNS = 0;
+    private long captures = 0;
+    private long skipped = 0;
+    private volatile int pending = 0;
+
+    StackCapture(long minIntervalNS, int maxDepth) {
+        this.minIntervalNS = minIntervalNS;
+        this.maxDepth = Math.max(1, maxDepth);
+    }
+
+    /**
+     * Holds the requests from the current thread until {@link #flush()} is called, or captures them straight away if false
+     */
+    public static void batching(boolean batching) {
+        BATCHING.set(batching);
+    }
+
+    /**
+     * Asks for the stack of a thread
+     *
+     * @param thread   to capture
+     * @param callback given the stack, or null if it was rate limited or the thread has ended
+     */
+    public void request(@NotNull Thread thread, @NotNull Callback callback) {
+        synchronized (this) {
+            if (pending == threads.length) {
+                threads = Arrays.copyOf(threads, pending * 2);
+                callbacks = Arrays.copyOf(callbacks, pending * 2);
+            }
+            threads[pending] = thread;
+            callbacks[pending] = callback;
+            pending++;
+        }
+        if (!BATCHING.get())
+            flush();
+    }
+
+    /**
+     * Captures the stacks of all the threads requested so far, at most once per minimum interval
+     */
+    public void flush() {
+        // if another thread is flushing, it picks up these requests when it has finished
+        while (pending > 0 && flushing.compareAndSet(false, true)) {
+            try {
+                flushPending();
+            } finally {
+                flushing.set(false);
+            }
+        }
+    }
+
+    private void flushPending() {
+        final int count;
+        final ThreadInfo[] infos;
+        final long captureNS;
+        synchronized (this) {
+            count = pending;
+            if (count == 0)
+                return;
+            final long startNS = System.nanoTime();
+            if (lastCaptureNS == 0 || startNS - lastCaptureNS >= minIntervalNS) {
+                final long[] ids = idsFor(count);
+                for (int i = 0; i < count; i++)
+                    ids[i] = threads[i].getId();
+                infos = threadMXBean.getThreadInfo(ids, maxDepth);
+                lastCaptureNS = System.nanoTime();
+                captures++;
+            } else {
+                infos = null;
+                skipped += count;
+            }
+            captureNS = System.nanoTime() - startNS;
+            final Thread[] requestedThreads = threads;
+            final Callback[] requestedCallbacks = callbacks;
+            threads = flushedThreads;
+            callbacks = flushedCallbacks;
+            flushedThreads = requestedThreads;
+            flushedCallbacks = requestedCallbacks;
+            pending = 0;
+        }
+        // outside the lock so logging doesn't hold up other monitors
+        for (int i = 0; i < count; i++) {
+            final ThreadInfo info = infos == null ? null : infos[i];
+            final Callback callback = flushedCallbacks[i];
+            flushedThreads[i] = null;
+            flushedCallbacks[i] = null;
+            try {
+                callback.captured(info == null ? null : info.getStackTrace(), captureNS);
+            } catch (Throwable t) {
+                Jvm.warn().on(getClass(), t);
+            }
+        }
+    }
+
+    private long[] idsFor(int count) {
+        if (count >= idsByCount.length)
+            idsByCount = Arrays.copyOf(idsByCount, Math.max(count + 1, idsByCount.length * 2));
+        long[] ids = idsByCount[count];
+        if (ids == null)
+            ids = idsByCount[count] = new long[count];
+        return ids;
+    }
+
+    /**
+     * @return the number of calls to {@link ThreadMXBean#getThreadInfo(long[], int)}
+     */
+    public synchronized long captures() {
+        return captures;
+    }
+
+    /**
+     * @return the number of requests given no stack as they were too soon after the last capture
+     */
+    public synchronized long skipped() {
+        return skipped;
+    }
+
+    public long minIntervalNS() {
+        return minIntervalNS;
+    }
+
+    @FunctionalInterface
+    public interface Callback {
+        /**
+         * @param stack     of the thread, or null if it wasn't captured
+         * @param captureNS how long the capture took
+         */
+        void captured(@Nullable StackTraceElement[] stack, long captureNS);
+    }
+}
@@ -0,0 +1,471 @@
+package net.openhft.chronicle.threads.internal;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Works out the most likely cause of a stall reported by a thread monitor, so a pause outside the event loop isn't reported as a blocked handler.
+ * This is off unless {@code threads.stall.attribution} is set.
+ * <p>
+ * It keeps a short history of
+ * <ul>
+ *     <li>GC pauses, from the notifications of the {@link GarbageCollectorMXBean}s</li>
+ *     <li>pauses of the monitor threads themselves, which stop every thread, e.g. a safepoint or the host not running the JVM</li>
+ *     <li>the throttled time of the cgroup from its {@code cpu.stat}, sampled as the monitors run</li>
+ * </ul>
+ * and checks whether a thread bound to a CPU is still on it. A cause is only given if it accounts for at least half the stall.
+ * <p>
+ * A GC notification is sent after the pause, from another thread, so a stall seen just after a GC can be attributed before it arrives.
+ * The collection counts and times of the beans are checked too, and GC time they show which hasn't been notified yet is taken to be part of the stall.
+ * <p>
+ * Safepoint times aren't available through a supported API, so a pause of the monitor thread which a GC doesn't explain
+ * is only known to have stopped the JVM or the host, and the stack of the stalled thread is still captured.
+ */
+public final class StallAttribution {
+    static final int HISTORY = 64;
+    private static final int GC = 0;
+    private static final int MONITOR = 1;
+
+    public static final StallAttribution INSTANCE = new StallAttribution(
+            cpuStatFile(Jvm.getProperty("threads.stall.cpu.stat")),
+            Jvm.getInteger("threads.stall.sample.interval.ms", 10) * 1_000_000L,
+            Jvm.getBoolean("threads.stall.attribution"));
+
+    static {
+        if (INSTANCE.enabled)
+            GcListener.listen(INSTANCE);
+    }
+
+    private final boolean enabled;
+    private final long sampleIntervalNS;
+    // guarded by this
+    private final long[] pauseStartNS = new long[HISTORY];
+    private final long[] pauseEndNS = new long[HISTORY];
+    private final int[] pauseKind = new int[HISTORY];
+    private final String[] pauseName = new String[HISTORY];
+    private int pauses = 0;
+    private List<GarbageCollectorMXBean> gcBeans = Collections.emptyList();
+    // the totals of the gcBeans which have been notified, or happened before listening
+    private long gcCountNotified = 0;
+    private long gcMSNotified = 0;
+    private final long[] sampleNS = new long[HISTORY];
+    private final long[] sampleThrottledNS = new long[HISTORY];
+    private final long[] sampleThrottled = new long[HISTORY];
+    private int samples = 0;
+    private long lastSampleNS = 0;
+    private final byte[] buffer = new byte[4096];
+    private RandomAccessFile cpuStat;
+    private long throttledNS;
+    private long throttled;
+
+    StallAttribution(@Nullable File cpuStatFile, long sampleIntervalNS, boolean enabled) {
+        this.enabled = enabled;
+        this.sampleIntervalNS = sampleIntervalNS;
+        if (!enabled)
+            return;
+        if (cpuStatFile != null) {
+            try {
+                cpuStat = new RandomAccessFile(cpuStatFile, "r");
+            } catch (IOException e) {
+                Jvm.debug().on(StallAttribution.class, "Unable to read " + cpuStatFile + ", CPU throttling won't be detected " + e);
+            }
+        }
+    }
+
+    /**
+     * @param property the file to use, "none" to not check for throttling, or null to find the file for this process' cgroup
+     */
+    @Nullable
+    static File cpuStatFile(@Nullable String property) {
+        if ("none".equals(property))
+            return null;
+        if (property != null && !property.isEmpty())
+            return new File(property);
+        try {
+            final List<String> lines = Files.readAllLines(Paths.get("/proc/self/cgroup"), StandardCharsets.ISO_8859_1);
+            for (String line : lines) {
+                // hierarchy-ID:controller-list:cgroup-path
+                final String[] parts = line.split(":", 3);
+                if (parts.length < 3)
+                    continue;
+                final String path = parts[2].equals("/") ? "" : parts[2];
+                if (parts[1].isEmpty()) {
+                    // cgroup v2
+                    final File file = new File("/sys/fs/cgroup" + path + "/cpu.stat");
+                    if (file.canRead())
+                        return file;
+                } else if (("," + parts[1] + ",").contains(",cpu,")) {
+                    for (String dir : new String[]{"/sys/fs/cgroup/" + parts[1], "/sys/fs/cgroup/cpu"}) {
+                        final File file = new File(dir + path + "/cpu.stat");
+                        if (file.canRead())
+                            return file;
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // not Linux
+        }
+        // inside a container the cgroup is usually mounted at the root
+        for (String name : new String[]{"/sys/fs/cgroup/cpu.stat", "/sys/fs/cgroup/cpu/cpu.stat", "/sys/fs/cgroup/cpu,cpuacct/cpu.stat"}) {
+            final File file = new File(name);
+            if (file.canRead())
+                return file;
+        }
+        return null;
+    }
+
+    /**
+     * Samples the throttling of the cgroup, at most once per sample interval, so there is a reading from before any stall
+     */
+    public void sample(long nowNS) {
+        if (cpuStat == null || nowNS - lastSampleNS < sampleIntervalNS)
+            return;
+        synchronized (this) {
+            if (nowNS - lastSampleNS >= sampleIntervalNS)
+                addSample(nowNS);
+        }
+    }
+
+    private void addSample(long nowNS) {
+        if (!readCpuStat())
+            return;
+        final int i = samples++ % HISTORY;
+        sampleNS[i] = nowNS;
+        sampleThrottledNS[i] = throttledNS;
+        sampleThrottled[i] = throttled;
+        lastSampleNS = nowNS;
+    }
+
+    private boolean readCpuStat() {
+        if (cpuStat == null)
+            return false;
+        try {
+            // cgroup files are generated afresh when read from the start, so it is kept open to avoid allocating
+            cpuStat.seek(0);
+            int length = 0;
+            for (int n; length < buffer.length && (n = cpuStat.read(buffer, length, buffer.length - length)) > 0; )
+                length += n;
+            long nrThrottled = 0, throttledTimeNS = 0;
+            for (int start = 0; start < length; ) {
+                int end = start;
+                while (end < length && buffer[end] != '\n')
+                    end++;
+                if (startsWith(start, end, "nr_throttled "))
+                    nrThrottled = parseLong(start + "nr_throttled ".length(), end);
+                else if (startsWith(start, end, "throttled_usec "))
+                    // cgroup v2
+                    throttledTimeNS = parseLong(start + "throttled_usec ".length(), end) * 1000;
+                else if (startsWith(start, end, "throttled_time "))
+                    // cgroup v1
+                    throttledTimeNS = parseLong(start + "throttled_time ".length(), end);
+                start = end + 1;
+            }
+            throttled = nrThrottled;
+            throttledNS = throttledTimeNS;
+            return true;
+        } catch (IOException e) {
+            Jvm.debug().on(StallAttribution.class, "Unable to read cpu.stat, CPU throttling won't be detected " + e);
+            cpuStat = null;
+            return false;
+        }
+    }
+
+    private boolean startsWith(int start, int end, String prefix) {
+        if (end - start < prefix.length())
+            return false;
+        for (int i = 0; i < prefix.length(); i++)
+            if (buffer[start + i] != prefix.charAt(i))
+                return false;
+        return true;
+    }
+
+    private long parseLong(int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            final byte b = buffer[i];
+            if (b >= '0' && b <= '9')
+                value = value * 10 + b - '0';
+        }
+        return value;
+    }
+
+    /**
+     * @return true if stalls are attributed, otherwise every stall is a {@link Cause#HANDLER}
+     */
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the text to add to a report of a stall, empty if stalls aren't attributed
+     */
+    @NotNull
+    public String describe(@NotNull Attribution attribution) {
+        return enabled ? ". Most likely cause: " + attribution : "";
+    }
+
+    /**
+     * The beans whose notifications are listened to, whose totals show GCs not notified yet
+     */
+    synchronized void gcBeans(@NotNull List<GarbageCollectorMXBean> beans) {
+        gcBeans = beans;
+        gcCountNotified = 0;
+        gcMSNotified = 0;
+        for (GarbageCollectorMXBean bean : beans) {
+            gcCountNotified += Math.max(0, bean.getCollectionCount());
+            gcMSNotified += Math.max(0, bean.getCollectionTime());
+        }
+    }
+
+    synchronized void gcPause(@NotNull String name, long startNS, long endNS) {
+        addPause(GC, name, startNS, endNS);
+        gcCountNotified++;
+        gcMSNotified += (endNS - startNS) / 1_000_000;
+    }
+
+    /**
+     * @return the time of GCs which have finished but whose notifications haven't arrived
+     */
+    private long unnotifiedGcNS() {
+        if (gcBeans.isEmpty())
+            return 0;
+        long count = 0, timeMS = 0;
+        for (GarbageCollectorMXBean bean : gcBeans) {
+            count += Math.max(0, bean.getCollectionCount());
+            timeMS += Math.max(0, bean.getCollectionTime());
+        }
+        return count > gcCountNotified ? Math.max(0, timeMS - gcMSNotified) * 1_000_000 : 0;
+    }
+
+    /**
+     * Records that a monitor thread wasn't run between two times, which stops every thread it monitors
+     *
+     * @return true if this wasn't already recorded by another monitor, or another thread monitor of the same monitor
+     */
+    public synchronized boolean monitorDelayed(long fromNS, long toNS) {
+        if (!enabled)
+            return true;
+        for (int j = 0; j < Math.min(pauses, HISTORY); j++) {
+            if (pauseKind[j] == MONITOR && pauseStartNS[j] < toNS && fromNS < pauseEndNS[j]) {
+                pauseStartNS[j] = Math.min(pauseStartNS[j], fromNS);
+                pauseEndNS[j] = Math.max(pauseEndNS[j], toNS);
+                return false;
+            }
+        }
+        addPause(MONITOR, "monitor", fromNS, toNS);
+        return true;
+    }
+
+    private void addPause(int kind, String name, long startNS, long endNS) {
+        final int i = pauses++ % HISTORY;
+        pauseKind[i] = kind;
+        pauseName[i] = name;
+        pauseStartNS[i] = startNS;
+        pauseEndNS[i] = endNS;
+    }
+
+    /**
+     * @param startNS        when the stall started
+     * @param nowNS          the current {@link System#nanoTime()}
+     * @param boundCpuId     the CPU the thread is bound to, or -1 if it isn't
+     * @param nativeThreadId of the thread, or -1 if not known
+     * @return the most likely cause of the stall
+     */
+    @NotNull
+    public synchronized Attribution attribute(long startNS, long nowNS, int boundCpuId, int nativeThreadId) {
+        final long stallNS = nowNS - startNS;
+        if (!enabled || stallNS <= 0)
+            return Attribution.HANDLER;
+
+        final long gcNS = overlapNS(GC, startNS, nowNS);
+        // assumed to be during the stall, as the notification is sent once the GC finishes
+        final long unnotifiedNS = Math.min(unnotifiedGcNS(), stallNS - gcNS);
+        if ((gcNS + unnotifiedNS) * 2 >= stallNS) {
+            final String detail = (gcNS > 0 ? gcNames(startNS, nowNS) : "a GC") + " paused for " + ms(gcNS + unnotifiedNS) + " ms";
+            return new Attribution(Cause.GC, unnotifiedNS > 0 ? detail + ", " + ms(unnotifiedNS) + " ms of it not notified yet" : detail);
+        }
+
+        if (cpuStat != null && readCpuStat()) {
+            final int before = sampleBefore(startNS);
+            if (before >= 0) {
+                final long throttledDeltaNS = throttledNS - sampleThrottledNS[before];
+                if (throttledDeltaNS * 2 >= stallNS)
+                    return new Attribution(Cause.CPU_THROTTLED, "the cgroup was throttled " + (throttled - sampleThrottled[before])
+                            + " times for " + ms(throttledDeltaNS) + " ms");
+            }
+        }
+
+        final long monitorNS = overlapNS(MONITOR, startNS, nowNS);
+        if (monitorNS * 2 >= stallNS)
+            return new Attribution(Cause.JVM_OR_HOST_PAUSE, "the monitor thread was paused too, for " + ms(monitorNS) + " ms");
+
+        if (boundCpuId >= 0 && nativeThreadId > 0) {
+            final int cpuId = cpuIdOf(nativeThreadId);
+            if (cpuId >= 0 && cpuId != boundCpuId)
+                return new Attribution(Cause.CPU_MIGRATED, "moved from its bound cpu " + boundCpuId + " to cpu " + cpuId);
+        }
+        return Attribution.HANDLER;
+    }
+
+    /**
+     * @return the latest reading from before a time, or the oldest kept if there is none, or -1 if there are none
+     */
+    private int sampleBefore(long timeNS) {
+        int latestBefore = -1;
+        int oldest = -1;
+        for (int j = 0; j < Math.min(samples, HISTORY); j++) {
+            if (sampleNS[j] - timeNS <= 0 && (latestBefore < 0 || sampleNS[j] - sampleNS[latestBefore] > 0))
+                latestBefore = j;
+            if (oldest < 0 || sampleNS[j] - sampleNS[oldest] < 0)
+                oldest = j;
+        }
+        return latestBefore >= 0 ? latestBefore : oldest;
+    }
+
+    private long overlapNS(int kind, long startNS, long endNS) {
+        long overlapNS = 0;
+        for (int j = 0; j < Math.min(pauses, HISTORY); j++) {
+            if (pauseKind[j] != kind)
+                continue;
+            final long from = Math.max(startNS, pauseStartNS[j]);
+            final long to = Math.min(endNS, pauseEndNS[j]);
+            if (to > from)
+                overlapNS += to - from;
+        }
+        return Math.min(overlapNS, endNS - startNS);
+    }
+
+    private String gcNames(long startNS, long endNS) {
+        final StringBuilder names = new StringBuilder();
+        for (int j = 0; j < Math.min(pauses, HISTORY); j++) {
+            if (pauseKind[j] == GC && pauseStartNS[j] < endNS && startNS < pauseEndNS[j] && names.indexOf(pauseName[j]) < 0) {
+                if (names.length() > 0)
+                    names.append(", ");
+                names.append(pauseName[j]);
+            }
+        }
+        return names.toString();
+    }
+
+    /**
+     * {@link net.openhft.affinity.Affinity#getCpu()} only gives the CPU of the calling thread, so read the CPU another thread last ran on
+     *
+     * @return the CPU, or -1 if it couldn't be read
+     */
+    static int cpuIdOf(int nativeThreadId) {
+        try {
+            final String stat = new String(Files.readAllBytes(Paths.get("/proc/self/task/" + nativeThreadId + "/stat")), StandardCharsets.ISO_8859_1);
+            // the name in brackets can contain spaces, the fields after it start at the third, the state
+            final String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            // processor is the 39th field
+            return fields.length > 36 ? Integer.parseInt(fields[36]) : -1;
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static double ms(long ns) {
+        return ns / 100_000 / 10.0;
+    }
+
+    public enum Cause {
+        HANDLER(false),
+        GC(true),
+        CPU_THROTTLED(true),
+        // e.g. a safepoint, or the host not running the JVM, which isn't measured so may not be the whole story
+        JVM_OR_HOST_PAUSE(false),
+        CPU_MIGRATED(false);
+
+        private final boolean measured;
+
+        Cause(boolean measured) {
+            this.measured = measured;
+        }
+
+        /**
+         * @return true if the time the thread was stopped by the cause was measured, so a stack trace would only show where it was stopped
+         */
+        public boolean measured() {
+            return measured;
+        }
+    }
+
+    public static final class Attribution {
+        static final Attribution HANDLER = new Attribution(Cause.HANDLER, "no pause outside the thread was seen");
+
+        private final Cause cause;
+        private final String detail;
+
+        Attribution(@NotNull Cause cause, @NotNull String detail) {
+            this.cause = cause;
+            this.detail = detail;
+        }
+
+        @NotNull
+        public Cause cause() {
+            return cause;
+        }
+
+        @NotNull
+        public String detail() {
+            return detail;
+        }
+
+        @Override
+        public String toString() {
+            return cause + " (" + detail + ")";
+        }
+    }
+
+    /**
+     * Kept apart so the rest still works on a JVM without {@code com.sun.management}
+     */
+    static final class GcListener {
+        static void listen(@NotNull StallAttribution attribution) {
+            try {
+                // GcInfo times are in milliseconds since the JVM started
+                final long jvmStartNS = System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000;
+                final List<GarbageCollectorMXBean> beans = new ArrayList<>();
+                for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                    // these report concurrent cycles rather than pauses
+                    if (!(bean instanceof NotificationEmitter) || bean.getName().contains("Cycles") || bean.getName().contains("Concurrent"))
+                        continue;
+                    ((NotificationEmitter) bean).addNotificationListener(
+                            (Notification notification, Object handback) -> onNotification(attribution, jvmStartNS, notification), null, null);
+                    beans.add(bean);
+                }
+                attribution.gcBeans(beans);
+            } catch (Throwable t) {
+                Jvm.debug().on(StallAttribution.class, "Unable to listen for GCs, stalls won't be attributed to them " + t);
+            }
+        }
+
+        private static void onNotification(@NotNull StallAttribution attribution, long jvmStartNS, @NotNull Notification notification) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+                return;
+            final GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            final GcInfo gcInfo = info.getGcInfo();
+            attribution.gcPause(info.getGcName(),
+                    jvmStartNS + gcInfo.getStartTime() * 1_000_000,
+                    jvmStartNS + gcInfo.getEndTime() * 1_000_000);
+        }
+    }
+}
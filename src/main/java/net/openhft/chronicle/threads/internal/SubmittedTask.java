@@ -0,0 +1,46 @@
+package net.openhft.chronicle.threads.internal;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A task passed to {@code CoreEventLoop.submit(Callable)}, which completes its future when it is run,
+ * or exceptionally if the event loop drops it without running it.
+ */
+public final class SubmittedTask<T> implements Runnable {
+    private final Callable<T> task;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    public SubmittedTask(@NotNull Callable<T> task) {
+        this.task = task;
+    }
+
+    @NotNull
+    public CompletableFuture<T> future() {
+        return future;
+    }
+
+    @Override
+    public void run() {
+        try {
+            future.complete(task.call());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+
+    /**
+     * Called instead of {@link #run()} when the event loop stops before running it
+     */
+    public void reject(@NotNull RejectedExecutionException e) {
+        future.completeExceptionally(e);
+    }
+
+    @Override
+    public String toString() {
+        return "SubmittedTask{" + task + '}';
+    }
+}
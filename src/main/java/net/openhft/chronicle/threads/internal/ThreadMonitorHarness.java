@@ -1,12 +1,14 @@
 package net.openhft.chronicle.threads.internal;
 
 import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import net.openhft.chronicle.threads.SelfSchedulingEventHandler;
 import net.openhft.chronicle.threads.ThreadHolder;
 import net.openhft.chronicle.threads.ThreadMonitor;
 
-public class ThreadMonitorHarness implements ThreadMonitor {
+public class ThreadMonitorHarness implements ThreadMonitor, SelfSchedulingEventHandler {
     private final ThreadHolder thread;
     private long lastActionCall = Long.MAX_VALUE;
+    private long nextCheckNS = 0;
 
     public ThreadMonitorHarness(ThreadHolder thread) {
         this.thread = thread;
@@ -20,26 +22,36 @@ public class ThreadMonitorHarness implements ThreadMonitor {
         }
         long startedNS = thread.startedNS();
         long nowNS = System.nanoTime();
+        // keep a reading of the CPU throttling from before any stall
+        StallAttribution.INSTANCE.sample(nowNS);
 
         // Record lastActionCall time on every call to prevent false-positive "monitorThreadDelayed" reports
-        long actionCallDelay = nowNS - this.lastActionCall;
+        // if this asked not to be called until later, it is only delayed if it is called late
+        long actionCallDelay = nowNS - (nextCheckNS == 0 ? this.lastActionCall : Math.max(this.lastActionCall, nextCheckNS));
         this.lastActionCall = nowNS;
 
         if (startedNS == 0 || startedNS == Long.MAX_VALUE) {
             thread.resetTimers();
+            nextCheckNS = thread.nextCheckNS(startedNS, nowNS);
             return false;
         }
         if (actionCallDelay > thread.timingTolerance()) {
             if (thread.isAlive())
                 thread.monitorThreadDelayed(actionCallDelay);
+            nextCheckNS = 0;
             return true;
         }
-        if (!thread.shouldLog(nowNS))
-            return false;
-        thread.dumpThread(startedNS, nowNS);
+        if (thread.shouldLog(nowNS))
+            thread.dumpThread(startedNS, nowNS);
+        nextCheckNS = thread.nextCheckNS(startedNS, nowNS);
         return false; // true assumes we are about to need to check again.
     }
 
+    @Override
+    public long notBeforeNS() {
+        return nextCheckNS;
+    }
+
     @Override
     public String toString() {
         return "ThreadMonitorHarness<" + thread.getName() + ">";
@@ -17,7 +17,8 @@ public class ThreadsThreadHolder implements ThreadHolder {
     private final Supplier<Thread> threadSupplier;
     private final BooleanSupplier logEnabled;
     private final Consumer<String> logConsumer;
-    private long lastTime = 0;
+    // the start of the last stall reported, set by whichever monitor thread captured the stack
+    private volatile long lastTime = 0;
 
     public ThreadsThreadHolder(String description, long timeLimit, LongSupplier timeSupplier, Supplier<Thread> threadSupplier, BooleanSupplier logEnabled, Consumer<String> logConsumer) {
         this.description = description;
@@ -50,7 +51,11 @@ public class ThreadsThreadHolder implements ThreadHolder {
 
     @Override
     public void monitorThreadDelayed(long actionCallDelayNS) {
-        logConsumer.accept("Monitor thread for " + getName() + " cpuId: " + Affinity.getCpu() + " was delayed by " + actionCallDelayNS / 100000 / 10.0 + " ms");
+        final long nowNS = System.nanoTime();
+        final long delayedFromNS = nowNS - actionCallDelayNS;
+        StallAttribution.INSTANCE.monitorDelayed(delayedFromNS, nowNS);
+        final StallAttribution.Attribution cause = StallAttribution.INSTANCE.attribute(delayedFromNS, nowNS, -1, -1);
+        logConsumer.accept("Monitor thread for " + getName() + " cpuId: " + Affinity.getCpu() + " was delayed by " + actionCallDelayNS / 100000 / 10.0 + " ms" + StallAttribution.INSTANCE.describe(cause));
     }
 
     @Override
@@ -65,16 +70,38 @@ public class ThreadsThreadHolder implements ThreadHolder {
         Thread thread = threadSupplier.get();
 
         String type = (startedNS == lastTime) ? "re-reporting" : "new report";
+        final StallAttribution.Attribution cause = StallAttribution.INSTANCE.attribute(startedNS, nowNS, -1, -1);
         StringBuilder out = new StringBuilder()
                 .append("THIS IS NOT AN ERROR, but a profile of the thread, ").append(description)
                 .append(" thread ").append(thread.getName())
                 .append(" interrupted ").append(thread.isInterrupted())
                 .append(" blocked for ").append(latency / 100_000.0 / 10.0)
-                .append(" ms. ").append(type);
-        Jvm.trimStackTrace(out, thread.getStackTrace());
-        logConsumer.accept(out.toString());
+                .append(" ms. ").append(type)
+                .append(StallAttribution.INSTANCE.describe(cause));
+        if (cause.cause().measured()) {
+            // the stack would only show where the thread was stopped
+            lastTime = startedNS;
+            logConsumer.accept(out.toString());
+            return;
+        }
+        // captured with any other stalled threads at the end of the monitor's pass
+        StackCapture.INSTANCE.request(thread, (stackTrace, captureNS) -> {
+            // too soon after another capture, this is reported again on the next check
+            if (stackTrace == null)
+                return;
+            lastTime = startedNS;
+            Jvm.trimStackTrace(out, stackTrace);
+            logConsumer.accept(out.toString());
+        });
+    }
 
-        lastTime = startedNS;
+    @Override
+    public long nextCheckNS(long startedNS, long nowNS) {
+        if (startedNS == 0 || startedNS == Long.MAX_VALUE)
+            return nowNS + timeLimit;
+        final long dueNS = startedNS + timeLimit;
+        // once it has blocked, keep re-reporting as often as the monitor loop polls
+        return dueNS - nowNS > 0 ? dueNS : 0;
     }
 
     @Override
@@ -0,0 +1,302 @@
+package net.openhft.chronicle.threads.internal;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A hierarchical timer wheel, so scheduling, cancelling and expiring a timer are O(1) whatever the number of timers.
+ * <p>
+ * Time is divided into ticks. Each level has 64 slots, a slot in level 0 is one tick, in level 1 64 ticks, in level 2 4096 ticks and so on.
+ * A timer is kept in the lowest level which can hold its deadline and moved down a level as the wheel turns.
+ * Timers further away than the top level can hold are parked in its furthest slot and re-placed when it is reached.
+ * <p>
+ * Timers never fire before their deadline, and at most one tick after it if {@link #expire(long)} is called often enough.
+ * This is not thread safe, it is only used by one event loop thread.
+ */
+public final class TimerWheel {
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int LEVELS = 6;
+    private static final long MAX_DELTA_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+    // about two years, long enough for any timer while leaving room to add it to a System.nanoTime()
+    static final long MAX_PERIOD_NS = 1L << 56;
+
+    private final long tickNS;
+    private final long startNS;
+    private final Timer[][] wheels = new Timer[LEVELS][SLOTS];
+    private final int[] levelSizes = new int[LEVELS];
+    private long currentTick = 0;
+    private int size = 0;
+
+    /**
+     * @param tickNS  the resolution of the wheel
+     * @param startNS the {@link System#nanoTime()} of tick 0
+     */
+    public TimerWheel(long tickNS, long startNS) {
+        if (tickNS <= 0)
+            throw new IllegalArgumentException("tickNS must be positive, was " + tickNS);
+        this.tickNS = tickNS;
+        this.startNS = startNS;
+    }
+
+    public long tickNS() {
+        return tickNS;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the time at which {@link #expire(long)} could next return a timer
+     */
+    public long nextTickNS() {
+        return startNS + (currentTick + 1) * tickNS;
+    }
+
+    /**
+     * Adds a timer, or moves it if it was already scheduled.
+     *
+     * @param timer      to schedule
+     * @param deadlineNS the earliest {@link System#nanoTime()} at which it should fire
+     */
+    public void schedule(@NotNull Timer timer, long deadlineNS) {
+        if (timer.scheduled)
+            cancel(timer);
+        timer.deadlineNS = deadlineNS;
+        // round up so it never fires early
+        final long sinceStart = deadlineNS - startNS;
+        timer.deadlineTick = sinceStart <= 0 ? 0 : (sinceStart + tickNS - 1) / tickNS;
+        place(timer, currentTick + 1);
+        timer.scheduled = true;
+        size++;
+    }
+
+    private void place(@NotNull Timer timer, long earliestTick) {
+        long tick = Math.max(timer.deadlineTick, earliestTick);
+        long delta = tick - currentTick;
+        if (delta > MAX_DELTA_TICKS) {
+            // park it in the furthest slot, it is placed again when that is reached
+            delta = MAX_DELTA_TICKS;
+            tick = currentTick + delta;
+        }
+        int level = 0;
+        while (delta >= SLOTS) {
+            delta >>>= SLOT_BITS;
+            level++;
+        }
+        final int slot = (int) (tick >>> (SLOT_BITS * level)) & (SLOTS - 1);
+        final Timer[] wheel = wheels[level];
+        timer.level = level;
+        timer.slot = slot;
+        levelSizes[level]++;
+        timer.prev = null;
+        timer.next = wheel[slot];
+        if (timer.next != null)
+            timer.next.prev = timer;
+        wheel[slot] = timer;
+    }
+
+    /**
+     * Removes a timer if it is scheduled
+     */
+    public void cancel(@NotNull Timer timer) {
+        if (!timer.scheduled)
+            return;
+        unlink(timer);
+        timer.scheduled = false;
+        size--;
+    }
+
+    private void unlink(@NotNull Timer timer) {
+        levelSizes[timer.level]--;
+        if (timer.prev == null)
+            wheels[timer.level][timer.slot] = timer.next;
+        else
+            timer.prev.next = timer.next;
+        if (timer.next != null)
+            timer.next.prev = timer.prev;
+        timer.prev = timer.next = null;
+    }
+
+    /**
+     * Turns the wheel up to the current time, removing the timers which are due.
+     *
+     * @param nowNS the current {@link System#nanoTime()}
+     * @return the timers which are due, linked by {@link Timer#nextDue()}, in order of deadline tick. These are no longer scheduled.
+     */
+    @Nullable
+    public Timer expire(long nowNS) {
+        final long nowTick = (nowNS - startNS) / tickNS;
+        if (size == 0) {
+            currentTick = Math.max(currentTick, nowTick);
+            return null;
+        }
+        Timer dueHead = null;
+        Timer dueTail = null;
+        while (currentTick < nowTick) {
+            skipEmptyTicks(nowTick);
+            final long tick = ++currentTick;
+            // move timers down from the higher levels whose slot has just been reached
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (SLOT_BITS * level)) - 1)) != 0)
+                    continue;
+                final int slot = (int) (tick >>> (SLOT_BITS * level)) & (SLOTS - 1);
+                Timer timer = wheels[level][slot];
+                wheels[level][slot] = null;
+                while (timer != null) {
+                    final Timer next = timer.next;
+                    levelSizes[level]--;
+                    // a timer due on this tick goes in the level 0 slot processed below
+                    place(timer, tick);
+                    timer = next;
+                }
+            }
+            final int slot = (int) tick & (SLOTS - 1);
+            Timer timer = wheels[0][slot];
+            while (timer != null) {
+                final Timer next = timer.next;
+                if (timer.deadlineTick <= tick) {
+                    unlink(timer);
+                    timer.scheduled = false;
+                    size--;
+                    if (dueTail == null)
+                        dueHead = timer;
+                    else
+                        dueTail.nextDue = timer;
+                    dueTail = timer;
+                    timer.nextDue = null;
+                }
+                timer = next;
+            }
+            if (size == 0) {
+                currentTick = nowTick;
+                break;
+            }
+        }
+        return dueHead;
+    }
+
+    /**
+     * If the lower levels are empty, nothing can happen before the next slot of the lowest level in use is reached,
+     * so a wheel which hasn't been turned for a while, or only holds distant timers, doesn't turn one tick at a time.
+     */
+    private void skipEmptyTicks(long nowTick) {
+        int level = 0;
+        while (level < LEVELS && levelSizes[level] == 0)
+            level++;
+        if (level == 0 || level == LEVELS)
+            return;
+        final long mask = (1L << (SLOT_BITS * level)) - 1;
+        // the tick before the next slot boundary of this level
+        final long skipTo = (currentTick | mask);
+        currentTick = Math.min(nowTick - 1, Math.max(currentTick, skipTo));
+    }
+
+    /**
+     * Drops every timer
+     */
+    public void clear() {
+        for (Timer[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i++) {
+                for (Timer timer = wheel[i]; timer != null; ) {
+                    final Timer next = timer.next;
+                    timer.prev = timer.next = null;
+                    timer.scheduled = false;
+                    timer = next;
+                }
+                wheel[i] = null;
+            }
+        }
+        Arrays.fill(levelSizes, 0);
+        size = 0;
+    }
+
+    /**
+     * A timer for one event handler, with how it should be rescheduled
+     */
+    public static final class Timer {
+        private final EventHandler handler;
+        private final long periodNS;
+        private final boolean fixedDelay;
+        private final int maxCatchUp;
+        private final boolean selfScheduling;
+
+        long deadlineNS;
+        long deadlineTick;
+        boolean scheduled;
+        int level;
+        int slot;
+        Timer prev;
+        Timer next;
+        Timer nextDue;
+
+        /**
+         * @param handler        to call
+         * @param periodNS       the time between calls, at most about two years
+         * @param fixedDelay     true if the period is from the end of the last call, false if it is from its deadline
+         * @param maxCatchUp     for a fixed rate, how many missed calls to make back to back before skipping the rest
+         * @param selfScheduling true if the handler provides its next deadline
+         */
+        public Timer(@NotNull EventHandler handler, long periodNS, boolean fixedDelay, int maxCatchUp, boolean selfScheduling) {
+            this.handler = handler;
+            this.periodNS = Math.max(1, Math.min(MAX_PERIOD_NS, periodNS));
+            this.fixedDelay = fixedDelay;
+            this.maxCatchUp = Math.max(0, maxCatchUp);
+            this.selfScheduling = selfScheduling;
+        }
+
+        @NotNull
+        public EventHandler handler() {
+            return handler;
+        }
+
+        public long periodNS() {
+            return periodNS;
+        }
+
+        public boolean fixedDelay() {
+            return fixedDelay;
+        }
+
+        public int maxCatchUp() {
+            return maxCatchUp;
+        }
+
+        public boolean selfScheduling() {
+            return selfScheduling;
+        }
+
+        /**
+         * @return the deadline it was last scheduled for
+         */
+        public long deadlineNS() {
+            return deadlineNS;
+        }
+
+        public boolean isScheduled() {
+            return scheduled;
+        }
+
+        /**
+         * @return the next timer returned by the same call to {@link #expire(long)}
+         */
+        @Nullable
+        public Timer nextDue() {
+            return nextDue;
+        }
+
+        @Override
+        public String toString() {
+            return "Timer{" +
+                    "handler=" + handler +
+                    ", periodNS=" + periodNS +
+                    ", fixedDelay=" + fixedDelay +
+                    ", deadlineNS=" + deadlineNS +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package net.openhft.chronicle.threads.internal;
+
+import net.openhft.chronicle.core.Jvm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads, which need Java 21+, while this library is built for Java 8.
+ * The methods are looked up once and tried by creating a virtual thread, which isn't started.
+ * If any of this fails, e.g. before Java 21 or on Java 19 and 20 without {@code --enable-preview}, {@link #isSupported()} is false.
+ */
+public final class VirtualThreads {
+    @Nullable
+    private static final MethodHandle OF_VIRTUAL;
+    @Nullable
+    private static final MethodHandle NAME;
+    @Nullable
+    private static final MethodHandle UNSTARTED;
+    @Nullable
+    private static final MethodHandle IS_VIRTUAL;
+    @Nullable
+    private static final MethodHandle NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        MethodHandle ofVirtual = null;
+        MethodHandle name = null;
+        MethodHandle unstarted = null;
+        MethodHandle isVirtual = null;
+        MethodHandle newThreadPerTaskExecutor = null;
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            final Class<?> ofVirtualBuilder = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualBuilder));
+            name = lookup.findVirtual(ofVirtualBuilder, "name", MethodType.methodType(ofVirtualBuilder, String.class));
+            unstarted = lookup.findVirtual(builder, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+            isVirtual = lookup.findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+            newThreadPerTaskExecutor = lookup.findStatic(java.util.concurrent.Executors.class, "newThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+            // a preview API is found but throws when used
+            final Thread probe = (Thread) unstarted.invoke(name.invoke(ofVirtual.invoke(), "virtual-thread-probe"), (Runnable) () -> {
+            });
+            if (!(boolean) isVirtual.invoke(probe))
+                throw new UnsupportedOperationException("not a virtual thread");
+        } catch (Throwable t) {
+            ofVirtual = null;
+            name = null;
+            unstarted = null;
+            isVirtual = null;
+            newThreadPerTaskExecutor = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        UNSTARTED = unstarted;
+        IS_VIRTUAL = isVirtual;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if this JVM has virtual threads
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param name   of the thread
+     * @param runnable to run
+     * @return a new virtual thread which hasn't been started
+     * @throws UnsupportedOperationException before Java 21
+     */
+    @NotNull
+    public static Thread newThread(@NotNull String name, @NotNull Runnable runnable) {
+        if (OF_VIRTUAL == null)
+            throw unsupported();
+        try {
+            final Object builder = NAME.invoke(OF_VIRTUAL.invoke(), name);
+            return (Thread) UNSTARTED.invoke(builder, runnable);
+        } catch (Throwable t) {
+            throw Jvm.rethrow(t);
+        }
+    }
+
+    /**
+     * @param thread to check
+     * @return true if it is a virtual thread
+     */
+    public static boolean isVirtual(@NotNull Thread thread) {
+        if (IS_VIRTUAL == null)
+            return false;
+        try {
+            return (boolean) IS_VIRTUAL.invoke(thread);
+        } catch (Throwable t) {
+            throw Jvm.rethrow(t);
+        }
+    }
+
+    /**
+     * @param threadFactory to create a thread for each task
+     * @return an executor which starts a new thread for each task, as {@code Executors.newThreadPerTaskExecutor(threadFactory)}
+     * @throws UnsupportedOperationException before Java 21
+     */
+    @NotNull
+    public static ExecutorService newThreadPerTaskExecutor(@NotNull ThreadFactory threadFactory) {
+        if (NEW_THREAD_PER_TASK_EXECUTOR == null)
+            throw unsupported();
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(threadFactory);
+        } catch (Throwable t) {
+            throw Jvm.rethrow(t);
+        }
+    }
+
+    @NotNull
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Virtual threads need Java 21+, this is Java " + System.getProperty("java.version"));
+    }
+}
@@ -0,0 +1,106 @@
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.Jvm;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptivePauserTest extends ThreadsTestCommon {
+
+    private static AdaptivePauser newPauser() {
+        // spin up to 20 us then yield up to 200 us
+        return new AdaptivePauser(20, 200, 50, 1_000, TimeUnit.MICROSECONDS, 0.9, 100);
+    }
+
+    private static void recordGaps(AdaptivePauser pauser, int count, long gapNS) {
+        for (int i = 0; i < count; i++)
+            pauser.recordGap(gapNS);
+    }
+
+    @Test
+    public void shortGapsAreCaughtBySpinning() {
+        final AdaptivePauser pauser = newPauser();
+        assertEquals(0, pauser.decisions());
+        recordGaps(pauser, 100, 3_000);
+        assertEquals(1, pauser.decisions());
+        assertEquals(4_096, pauser.spinWindowNS());
+        assertEquals(0, pauser.yieldWindowNS());
+        assertEquals(1.0, pauser.expectedCatchRatio(), 1e-9);
+    }
+
+    @Test
+    public void longerGapsAreCaughtByYielding() {
+        final AdaptivePauser pauser = newPauser();
+        recordGaps(pauser, 100, 100_000);
+        assertEquals(20_000, pauser.spinWindowNS());
+        assertEquals(131_072 - 20_000, pauser.yieldWindowNS());
+    }
+
+    @Test
+    public void windowCoversTheCatchRatioNotTheTail() {
+        final AdaptivePauser pauser = newPauser();
+        recordGaps(pauser, 95, 1_500);
+        recordGaps(pauser, 5, 100_000);
+        assertEquals(2_048, pauser.spinWindowNS());
+        assertEquals(0, pauser.yieldWindowNS());
+        assertEquals(0.95, pauser.expectedCatchRatio(), 1e-9);
+    }
+
+    @Test
+    public void parksStraightAwayWhenGapsAreTooLongToCatch() {
+        final AdaptivePauser pauser = newPauser();
+        recordGaps(pauser, 95, 10_000_000);
+        recordGaps(pauser, 5, 1_000);
+        assertEquals(0, pauser.spinWindowNS());
+        assertEquals(0, pauser.yieldWindowNS());
+        assertEquals(0.0, pauser.expectedCatchRatio(), 1e-9);
+    }
+
+    @Test
+    public void followsAChangeInLoad() {
+        final AdaptivePauser pauser = newPauser();
+        recordGaps(pauser, 100, 10_000_000);
+        assertEquals(0, pauser.spinWindowNS());
+        // older gaps count half as much at each decision
+        for (int i = 0; i < 5; i++)
+            recordGaps(pauser, 100, 3_000);
+        assertEquals(4_096, pauser.spinWindowNS());
+    }
+
+    @Test
+    public void learnsFromPauseAndReset() {
+        final AdaptivePauser pauser = newPauser();
+        for (int i = 0; i < 100; i++) {
+            pauser.pause();
+            pauser.reset();
+        }
+        assertEquals(1, pauser.decisions());
+        assertTrue(pauser.spinWindowNS() > 0, pauser::toString);
+        // busy resets don't count as gaps
+        for (int i = 0; i < 1_000; i++)
+            pauser.reset();
+        assertEquals(1, pauser.decisions());
+    }
+
+    @Test
+    public void unpauseWakesItWhenParked() throws InterruptedException {
+        final AdaptivePauser pauser = new AdaptivePauser(0, 0, 10, 10, TimeUnit.SECONDS, 0.9);
+        final Thread thread = new Thread(pauser::pause);
+        thread.start();
+        for (int i = 0; i < 1000 && !pauser.isParked(); i++)
+            Jvm.pause(1);
+        assertTrue(pauser.isParked());
+        pauser.unpause();
+        thread.join(5_000);
+        assertFalse(thread.isAlive());
+        assertEquals(1, pauser.countPaused());
+    }
+
+    @Test
+    public void pauserModeProvidesIt() {
+        assertTrue(PauserMode.adaptive.get() instanceof AdaptivePauser);
+        assertTrue(PauserMode.adaptive.get() instanceof TimingPauser);
+    }
+}
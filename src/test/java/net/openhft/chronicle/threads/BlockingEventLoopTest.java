@@ -1,17 +1,25 @@
 package net.openhft.chronicle.threads;
 
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
 import net.openhft.chronicle.core.threads.InterruptedRuntimeException;
+import net.openhft.chronicle.threads.internal.VirtualThreads;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class BlockingEventLoopTest extends ThreadsTestCommon {
 
@@ -46,6 +54,90 @@ public class BlockingEventLoopTest extends ThreadsTestCommon {
         }
     }
 
+    @Test
+    public void virtualThreadsFallBackToPlatformThreadsBeforeJava21() {
+        assumeTrue(!VirtualThreads.isSupported());
+        ignoreException("Virtual threads need Java 21+");
+        try (final BlockingEventLoop el = new BlockingEventLoop(new BlockingEventLoop("parent"), "test-blocking-loop", Pauser.balanced(), true)) {
+            assertFalse(el.isVirtualThreads());
+        }
+    }
+
+    @Test
+    public void handlersRunOnVirtualThreadsAndAreInterruptedOnStop() throws TimeoutException {
+        assumeTrue(VirtualThreads.isSupported());
+        try (final BlockingEventLoop el = new BlockingEventLoop("test-blocking-loop")) {
+            el.virtualThreads(true);
+            assertTrue(el.isVirtualThreads());
+            el.start();
+            assertThrows(IllegalStateException.class, () -> el.virtualThreads(false));
+
+            final AtomicReference<Thread> thread = new AtomicReference<>();
+            final AtomicBoolean wasStoppedSuccessfully = new AtomicBoolean(false);
+            el.addHandler(() -> {
+                thread.set(Thread.currentThread());
+                while (!Thread.currentThread().isInterrupted()) {
+                    Jvm.pause(10);
+                }
+                wasStoppedSuccessfully.set(true);
+                return false;
+            });
+
+            TimingPauser pauser = Pauser.balanced();
+            while (thread.get() == null) {
+                pauser.pause(1, TimeUnit.SECONDS);
+            }
+            assertTrue(VirtualThreads.isVirtual(thread.get()));
+            assertTrue(thread.get().getName().endsWith("test-blocking-loop"), thread.get().getName());
+            el.stop();
+
+            pauser.reset();
+            while (!wasStoppedSuccessfully.get()) {
+                pauser.pause(1, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test
+    public void eachHandlerHasItsOwnPauserAndIsWokenByUnpause() throws TimeoutException {
+        final int handlers = 3;
+        final List<Pauser> pausers = new CopyOnWriteArrayList<>();
+        final AtomicInteger[] calls = new AtomicInteger[handlers];
+        try (final BlockingEventLoop el = new BlockingEventLoop(new BlockingEventLoop("parent"), "test-blocking-loop", () -> {
+            final Pauser pauser = new LongPauser(0, 0, 5, 5, TimeUnit.SECONDS);
+            pausers.add(pauser);
+            return pauser;
+        })) {
+            for (int i = 0; i < handlers; i++) {
+                final AtomicInteger count = calls[i] = new AtomicInteger();
+                el.addHandler(() -> {
+                    count.incrementAndGet();
+                    return false;
+                });
+            }
+            el.start();
+
+            final TimingPauser pauser = Pauser.balanced();
+            while (Stream.of(calls).anyMatch(c -> c.get() < 1) || pausers.size() < handlers || pausers.stream().anyMatch(p -> !p.isParked()))
+                pauser.pause(1, TimeUnit.SECONDS);
+            assertEquals(handlers, pausers.stream().distinct().count());
+
+            // every handler is parked for 5 seconds
+            el.unpause();
+            pauser.reset();
+            while (Stream.of(calls).anyMatch(c -> c.get() < 2))
+                pauser.pause(1, TimeUnit.SECONDS);
+
+            final Map<EventHandler, BlockingHandlerStats> stats = el.handlerStats();
+            assertEquals(handlers, stats.size());
+            for (BlockingHandlerStats handlerStats : stats.values()) {
+                assertTrue(handlerStats.actions() >= 2, handlerStats::toString);
+                assertEquals(0, handlerStats.busyActions());
+                assertEquals(1, handlerStats.pauserStats().unpauseWakes(), handlerStats::toString);
+            }
+        }
+    }
+
     private void waitQuietly(CyclicBarrier barrier) {
         try {
             barrier.await();
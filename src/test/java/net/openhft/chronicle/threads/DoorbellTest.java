@@ -0,0 +1,108 @@
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.Jvm;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DoorbellTest extends ThreadsTestCommon {
+
+    @Test
+    public void ringingOnlyWakesAParkedThreadOnce() throws InterruptedException {
+        final Doorbell doorbell = new Doorbell();
+        assertFalse(doorbell.isParked());
+        assertFalse(doorbell.ring());
+        // kept for the next park
+        assertTrue(doorbell.park(TimeUnit.SECONDS.toNanos(10)));
+
+        final AtomicBoolean rung = new AtomicBoolean();
+        final Thread thread = new Thread(() -> rung.set(doorbell.park(TimeUnit.SECONDS.toNanos(10))));
+        thread.start();
+        for (int i = 0; i < 1000 && !doorbell.isParked(); i++)
+            Jvm.pause(1);
+        assertTrue(doorbell.isParked());
+
+        final long start = System.nanoTime();
+        assertTrue(doorbell.ring());
+        // coalesced with the first
+        assertFalse(doorbell.ring());
+        assertFalse(doorbell.isParked());
+        thread.join(5_000);
+        assertFalse(thread.isAlive());
+        assertTrue(rung.get());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertFalse(doorbell.isParked());
+    }
+
+    @Test
+    public void parkTimesOutWithoutARing() {
+        final Doorbell doorbell = new Doorbell();
+        assertFalse(doorbell.park(TimeUnit.MILLISECONDS.toNanos(1)));
+        assertFalse(doorbell.isParked());
+        // not parked so not rung
+        assertFalse(doorbell.ring());
+    }
+
+    @Test
+    public void aRingWhileAwakeIsKeptForTheNextPark() {
+        final Doorbell doorbell = new Doorbell();
+        assertFalse(doorbell.ring());
+        // coalesced with the first
+        assertFalse(doorbell.ring());
+
+        final long start = System.nanoTime();
+        assertTrue(doorbell.park(TimeUnit.SECONDS.toNanos(10)));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertFalse(doorbell.parked());
+        // only once
+        assertFalse(doorbell.park(TimeUnit.MILLISECONDS.toNanos(1)));
+        assertTrue(doorbell.parked());
+    }
+
+    @Test
+    public void noRingIsLostBetweenCheckingForWorkAndParking() throws InterruptedException {
+        final int rounds = 2_000;
+        final Doorbell pingBell = new Doorbell();
+        final Doorbell pongBell = new Doorbell();
+        final AtomicInteger ping = new AtomicInteger();
+        final AtomicInteger pong = new AtomicInteger();
+        final Thread ponger = new Thread(() -> {
+            for (int i = 1; i <= rounds; i++) {
+                while (ping.get() < i)
+                    pongBell.park(TimeUnit.SECONDS.toNanos(10));
+                pong.set(i);
+                pingBell.ring();
+            }
+        });
+        ponger.start();
+
+        final long start = System.nanoTime();
+        for (int i = 1; i <= rounds; i++) {
+            ping.set(i);
+            pongBell.ring();
+            while (pong.get() < i)
+                pingBell.park(TimeUnit.SECONDS.toNanos(10));
+        }
+        // a lost ring would have parked for the full 10 seconds
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+        ponger.join(5_000);
+        assertFalse(ponger.isAlive());
+    }
+
+    @Test
+    public void unpauseWakesAMilliPauser() throws InterruptedException {
+        final MilliPauser pauser = Pauser.millis(10_000);
+        final Thread thread = new Thread(pauser::pause);
+        thread.start();
+        for (int i = 0; i < 1000 && !pauser.isParked(); i++)
+            Jvm.pause(1);
+        assertTrue(pauser.isParked());
+        pauser.unpause();
+        thread.join(5_000);
+        assertFalse(thread.isAlive());
+    }
+}
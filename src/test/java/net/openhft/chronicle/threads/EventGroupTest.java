@@ -429,6 +429,148 @@ public class EventGroupTest extends ThreadsTestCommon {
         }
     }
 
+    @Timeout(10_000)
+    @Test
+    void concurrentHandlersAreMovedOffABusyLoop() {
+        final List<BusyConcurrentHandler> busyHandlers = new ArrayList<>();
+        try (final EventGroup eventGroup = EventGroup.builder()
+                .withPriorities(HandlerPriority.MEDIUM, HandlerPriority.CONCURRENT)
+                .withConcurrentThreadsNum(2)
+                // everything on the first loop
+                .withConcurrentPlacement((handler, loops) -> 0)
+                .withConcurrentRebalanceIntervalMS(50)
+                .withConcurrentRebalanceThresholds(0.6, 0.4)
+                .build()) {
+            eventGroup.start();
+            for (int i = 0; i < 4; i++) {
+                final BusyConcurrentHandler handler = new BusyConcurrentHandler();
+                busyHandlers.add(handler);
+                eventGroup.addHandler(handler);
+            }
+            for (int i = 0; i < 100 && busyHandlers.stream().allMatch(h -> h.threads.size() < 2); i++)
+                Jvm.pause(50);
+            eventGroup.stop();
+        }
+        final long moved = busyHandlers.stream().filter(h -> h.threads.size() == 2).count();
+        assertEquals(1, moved, busyHandlers.toString());
+        for (BusyConcurrentHandler handler : busyHandlers) {
+            assertFalse(handler.overlapped, handler.toString());
+            // a move doesn't start it again
+            assertEquals(1, handler.started.get(), handler.toString());
+        }
+    }
+
+    @Timeout(20_000)
+    @Test
+    void concurrentThreadsAreStartedWhenSaturatedAndRetiredWhenIdle() {
+        final List<BusyConcurrentHandler> busyHandlers = new ArrayList<>();
+        try (final EventGroup eventGroup = EventGroup.builder()
+                .withPriorities(HandlerPriority.MEDIUM, HandlerPriority.CONCURRENT)
+                .withConcurrentThreadsNum(1, 2)
+                .withConcurrentRebalanceIntervalMS(20)
+                .withConcurrentRebalanceThresholds(0.6, 0.3)
+                .build()) {
+            eventGroup.start();
+            assertEquals(1, eventGroup.concurrentThreadsInUse());
+            for (int i = 0; i < 4; i++) {
+                final BusyConcurrentHandler handler = new BusyConcurrentHandler();
+                busyHandlers.add(handler);
+                eventGroup.addHandler(handler);
+            }
+            for (int i = 0; i < 200 && busyHandlers.stream().allMatch(h -> h.threads.size() < 2); i++)
+                Jvm.pause(20);
+            assertEquals(2, eventGroup.concurrentThreadsInUse());
+
+            busyHandlers.forEach(h -> h.busy = false);
+            for (int i = 0; i < 200 && eventGroup.concurrentThreadsInUse() > 1; i++)
+                Jvm.pause(20);
+            assertEquals(1, eventGroup.concurrentThreadsInUse());
+            // the handlers of the retired loop end up back on the first
+            for (int i = 0; i < 100 && busyHandlers.stream().anyMatch(h -> !h.lastThread.endsWith("conc-event-loop-0")); i++)
+                Jvm.pause(20);
+            eventGroup.stop();
+        }
+        for (BusyConcurrentHandler handler : busyHandlers) {
+            assertFalse(handler.overlapped, handler.toString());
+            assertTrue(handler.lastThread.endsWith("conc-event-loop-0"), handler.toString());
+        }
+    }
+
+    @Timeout(30_000)
+    @Test
+    void retiredConcurrentThreadsAreNoLongerMonitored() {
+        final List<BusyConcurrentHandler> busyHandlers = new ArrayList<>();
+        try (final EventGroup eventGroup = EventGroup.builder()
+                .withPriorities(HandlerPriority.MEDIUM, HandlerPriority.CONCURRENT)
+                .withConcurrentThreadsNum(1, 2)
+                .withConcurrentRebalanceIntervalMS(20)
+                .withConcurrentRebalanceThresholds(0.6, 0.3)
+                .build()) {
+            eventGroup.start();
+            for (int i = 0; i < 4; i++) {
+                final BusyConcurrentHandler handler = new BusyConcurrentHandler();
+                busyHandlers.add(handler);
+                eventGroup.addHandler(handler);
+            }
+            // scale up, down and up again
+            for (int cycle = 0; cycle < 2; cycle++) {
+                busyHandlers.forEach(h -> h.busy = true);
+                for (int i = 0; i < 200 && eventGroup.concurrentThreadsInUse() < 2; i++)
+                    Jvm.pause(20);
+                assertEquals(2, eventGroup.concurrentThreadsInUse());
+
+                busyHandlers.forEach(h -> h.busy = false);
+                for (int i = 0; i < 200 && eventGroup.concurrentThreadsInUse() > 1; i++)
+                    Jvm.pause(20);
+                assertEquals(1, eventGroup.concurrentThreadsInUse());
+                // the retired loop is closed once its handlers have moved
+                for (int i = 0; i < 200 && busyHandlers.stream().anyMatch(h -> !h.lastThread.endsWith("conc-event-loop-0")); i++)
+                    Jvm.pause(20);
+            }
+            // long enough for the monitor to check a closed loop
+            Jvm.pause(200);
+            eventGroup.stop();
+        }
+        assertNoExceptionThrown("Monitoring a task which has finished");
+    }
+
+    static final class BusyConcurrentHandler implements EventHandler {
+        final Set<String> threads = new ConcurrentSkipListSet<>();
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger inAction = new AtomicInteger();
+        volatile boolean overlapped;
+        volatile boolean busy = true;
+        volatile String lastThread = "";
+
+        @Override
+        public boolean action() {
+            if (inAction.incrementAndGet() > 1)
+                overlapped = true;
+            lastThread = Thread.currentThread().getName();
+            threads.add(lastThread);
+            if (busy)
+                Jvm.busyWaitMicros(20);
+            inAction.decrementAndGet();
+            return busy;
+        }
+
+        @Override
+        public void loopStarted() {
+            started.incrementAndGet();
+        }
+
+        @NotNull
+        @Override
+        public HandlerPriority priority() {
+            return HandlerPriority.CONCURRENT;
+        }
+
+        @Override
+        public String toString() {
+            return "BusyConcurrentHandler{threads=" + threads + ", lastThread=" + lastThread + ", started=" + started + '}';
+        }
+    }
+
     static class CloseableResource extends AbstractCloseable {
 
         public CloseableResource() {
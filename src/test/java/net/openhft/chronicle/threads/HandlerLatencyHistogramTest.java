@@ -0,0 +1,52 @@
+package net.openhft.chronicle.threads;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HandlerLatencyHistogramTest {
+
+    @Test
+    void bucketsCoverEveryValueWithinOneEighth() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 100, 1_000, 123_456, 1L << 40, Long.MAX_VALUE}) {
+            final int index = HandlerLatencyHistogram.indexFor(value);
+            assertTrue(index < HandlerLatencyHistogram.LENGTH, "index " + index);
+            final long low = HandlerLatencyHistogram.lowestValueAt(index);
+            final long high = HandlerLatencyHistogram.highestValueAt(index);
+            assertTrue(low <= value && value <= high, value + " not in " + low + ".." + high);
+            assertTrue(high - low <= Math.max(0, low / 8), value + " bucket too wide " + low + ".." + high);
+        }
+        // buckets are contiguous
+        for (int i = 1; i < HandlerLatencyHistogram.LENGTH; i++)
+            assertEquals(HandlerLatencyHistogram.highestValueAt(i - 1) + 1, HandlerLatencyHistogram.lowestValueAt(i));
+    }
+
+    @Test
+    void percentiles() {
+        final HandlerLatencyHistogram histogram = new HandlerLatencyHistogram();
+        for (int i = 1; i <= 1000; i++)
+            histogram.record(i * 1_000L);
+        final HandlerLatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(1_000_000, snapshot.maxNS());
+        assertEquals(500_500, snapshot.meanNS());
+        assertEquals(500_000, snapshot.valueAtPercentile(50), 500_000 / 8.0);
+        assertEquals(990_000, snapshot.valueAtPercentile(99), 990_000 / 8.0);
+        assertEquals(1_000_000, snapshot.valueAtPercentile(100));
+
+        histogram.record(5);
+        final HandlerLatencyHistogram.Snapshot delta = histogram.snapshot().since(snapshot);
+        assertEquals(1, delta.count());
+        assertEquals(5, delta.valueAtPercentile(50));
+    }
+
+    @Test
+    void sampleEveryNth() {
+        final HandlerLatencyHistogram histogram = new HandlerLatencyHistogram();
+        int sampled = 0;
+        for (int i = 0; i < 100; i++)
+            if (histogram.sample(10))
+                sampled++;
+        assertEquals(10, sampled);
+    }
+}
@@ -0,0 +1,66 @@
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HandlerPlacementTest {
+    private static final EventHandler HANDLER = () -> false;
+
+    private static List<HandlerPlacement.LoopLoad> loads() {
+        return Arrays.asList(
+                new HandlerPlacement.LoopLoad(0, 3, 0.9),
+                new HandlerPlacement.LoopLoad(1, 1, 0.5),
+                new HandlerPlacement.LoopLoad(2, 5, 0.1),
+                new HandlerPlacement.LoopLoad(3, 1, 0.2));
+    }
+
+    @Test
+    void roundRobinIgnoresLoad() {
+        final HandlerPlacement placement = HandlerPlacement.roundRobin();
+        for (int i = 0; i < 8; i++)
+            assertEquals(i % 4, placement.place(HANDLER, loads()));
+    }
+
+    @Test
+    void leastHandlersBreaksTiesOnBusyRatio() {
+        assertEquals(3, HandlerPlacement.leastHandlers().place(HANDLER, loads()));
+    }
+
+    @Test
+    void leastBusyPicksTheLowestBusyRatio() {
+        assertEquals(2, HandlerPlacement.leastBusy().place(HANDLER, loads()));
+    }
+
+    @Test
+    void handlersWithTheSameAffinityKeyShareALoop() {
+        final HandlerPlacement placement = HandlerPlacement.byAffinityKey(
+                h -> h instanceof KeyedHandler ? ((KeyedHandler) h).key : null,
+                HandlerPlacement.roundRobin());
+        final int a = placement.place(new KeyedHandler("a"), loads());
+        final int b = placement.place(new KeyedHandler("b"), loads());
+        assertEquals(0, a);
+        assertEquals(1, b);
+        // without a key it is round robin
+        assertEquals(2, placement.place(HANDLER, loads()));
+        assertEquals(a, placement.place(new KeyedHandler("a"), loads()));
+        assertEquals(b, placement.place(new KeyedHandler("b"), loads()));
+    }
+
+    static final class KeyedHandler implements EventHandler {
+        final String key;
+
+        KeyedHandler(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean action() {
+            return false;
+        }
+    }
+}
@@ -1,13 +1,25 @@
 package net.openhft.chronicle.threads;
 
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.io.AbstractCloseable;
 import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.EventLoop;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.threads.internal.EventLoopUtil;
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import java.util.stream.IntStream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class MediumEventLoopTest {
 
@@ -31,6 +43,407 @@ public class MediumEventLoopTest {
         }
     }
 
+    @Test
+    public void tasksRunOnTheEventLoopThreadAndWakeItUp() throws Exception {
+        // parks for a second unless unpaused
+        final Pauser pauser = new LongPauser(0, 0, 1, 1, TimeUnit.SECONDS);
+        try (MediumEventLoop eventLoop = new MediumEventLoop(null, "tasks", pauser, true, "none")) {
+            eventLoop.start();
+            Jvm.pause(50);
+
+            final long start = System.nanoTime();
+            final CompletableFuture<String> future = eventLoop.submit(() -> Thread.currentThread().getName());
+            assertEquals(eventLoop.thread().getName(), future.get(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start < 500_000_000L);
+
+            final AtomicInteger count = new AtomicInteger();
+            final Runnable increment = count::incrementAndGet;
+            IntStream.range(0, 4).parallel()
+                    .forEach(i -> {
+                        for (int j = 0; j < 10_000; j++)
+                            eventLoop.executor().execute(increment);
+                    });
+            eventLoop.submit(() -> null).get(5, TimeUnit.SECONDS);
+            assertEquals(40_000, count.get());
+
+            eventLoop.stop();
+            assertThrows(RejectedExecutionException.class, () -> eventLoop.execute(increment));
+        }
+    }
+
+    @Test
+    public void tasksDroppedWhenTheLoopStopsFailTheirFutures() throws Exception {
+        try (MediumEventLoop eventLoop = new MediumEventLoop(null, "dropped", Pauser.balanced(), true, "none")) {
+            // queued but not run as the loop isn't started
+            final CompletableFuture<String> future = eventLoop.submit(() -> "ran");
+            assertFalse(future.isDone());
+
+            eventLoop.stop();
+            final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof RejectedExecutionException, e.toString());
+        }
+    }
+
+    @Test
+    public void handlerLatenciesAreRecordedWhenSampling() {
+        try (MediumEventLoop eventLoop = new MediumEventLoop(null, "latency", Pauser.balanced(), true, "none")) {
+            eventLoop.handlerLatencySampleInterval(2);
+            final EventHandler high = new NoOpHandler() {
+                @Override
+                public @NotNull HandlerPriority priority() {
+                    return HandlerPriority.HIGH;
+                }
+            };
+            final EventHandler medium = new NoOpHandler();
+            eventLoop.addHandler(high);
+            eventLoop.addHandler(medium);
+            eventLoop.start();
+
+            for (int i = 0; i < 100; i++) {
+                final HandlerLatencyHistogram histogram = eventLoop.handlerLatencies().get(medium);
+                if (histogram != null && histogram.snapshot().count() >= 100)
+                    break;
+                Jvm.pause(10);
+            }
+            assertTrue(eventLoop.handlerLatencies().get(medium).snapshot().count() >= 100);
+            assertTrue(eventLoop.handlerLatencies().get(high).snapshot().count() > 0);
+        }
+    }
+
+    @Test
+    public void phaseSnapshotCountsIterationsAndPauses() {
+        try (MediumEventLoop eventLoop = new MediumEventLoop(null, "phases", Pauser.millis(1), true, "none")) {
+            assertEquals(0, eventLoop.phaseSnapshot().iterations());
+            eventLoop.addHandler(new NoOpHandler());
+            eventLoop.start();
+            Jvm.pause(100);
+
+            final LoopPhaseSnapshot first = eventLoop.phaseSnapshot();
+            assertTrue(first.iterations() > 0);
+            assertEquals(0, first.busyIterations());
+            assertTrue(first.pauses() > 0);
+            assertTrue(first.pauseNS() > 0);
+            assertTrue(first.pauseNS() <= first.elapsedNS());
+
+            Jvm.pause(50);
+            final LoopPhaseSnapshot delta = eventLoop.phaseSnapshot().since(first);
+            assertTrue(delta.iterations() > 0);
+            assertTrue(delta.iterationsPerSecond() > 0);
+            assertTrue(delta.dutyCycle() < 0.5, delta::toString);
+        }
+    }
+
+    @Test
+    public void taskTimeIsNotCountedAsHandlerTime() throws Exception {
+        try (MediumEventLoop eventLoop = new MediumEventLoop(null, "task-phases", Pauser.millis(1), true, "none")) {
+            eventLoop.addHandler(new NoOpHandler());
+            eventLoop.start();
+            final LoopPhaseSnapshot first = eventLoop.phaseSnapshot();
+            eventLoop.submit(() -> {
+                Jvm.busyWaitMicros(20_000);
+                return null;
+            }).get(5, TimeUnit.SECONDS);
+
+            // added once the task returns, after its future completes
+            waitFor(() -> eventLoop.phaseSnapshot().since(first).tasksNS() >= TimeUnit.MILLISECONDS.toNanos(20));
+            final LoopPhaseSnapshot delta = eventLoop.phaseSnapshot().since(first);
+            assertTrue(delta.mediumNS() < TimeUnit.MILLISECONDS.toNanos(20), delta::toString);
+        }
+    }
+
+    @Test
+    public void highHandlerIsTimedWithoutOtherOptions() {
+        try (MediumEventLoop eventLoop = new MediumEventLoop(null, "high-phases", Pauser.millis(1), true, "none")) {
+            eventLoop.addHandler(new EventHandler() {
+                @Override
+                public boolean action() {
+                    Jvm.busyWaitMicros(10);
+                    return false;
+                }
+
+                @Override
+                public @NotNull HandlerPriority priority() {
+                    return HandlerPriority.HIGH;
+                }
+            });
+            eventLoop.addHandler(new NoOpHandler());
+            eventLoop.start();
+            Jvm.pause(200);
+
+            final LoopPhaseSnapshot snapshot = eventLoop.phaseSnapshot();
+            assertTrue(snapshot.iterations() > 64, snapshot::toString);
+            assertTrue(snapshot.highNS() > 0, snapshot::toString);
+        }
+    }
+
+    @Test
+    public void generatedDispatchIsOnlyUsedUpToTheMaximumHandlers() {
+        try (MediumEventLoop eventLoop = new MediumEventLoop(null, "generated", Pauser.millis(1), true, "none")) {
+            eventLoop.generatedDispatch(true);
+            final AtomicInteger calls = new AtomicInteger();
+            for (int i = 0; i < EventLoopUtil.GENERATED_DISPATCH_MAX_HANDLERS; i++)
+                eventLoop.addHandler(counting(calls));
+            assertNotNull(Jvm.getValue(eventLoop, "mediumHandlersChain"));
+            assertFalse(eventLoop.runAllMediumHandlerGenerated());
+            assertEquals(EventLoopUtil.GENERATED_DISPATCH_MAX_HANDLERS, calls.get());
+
+            eventLoop.addHandler(counting(calls));
+            assertNull(Jvm.getValue(eventLoop, "mediumHandlersChain"));
+            calls.set(0);
+            assertFalse(eventLoop.runAllMediumHandlerGenerated());
+            assertEquals(EventLoopUtil.GENERATED_DISPATCH_MAX_HANDLERS + 1, calls.get());
+        }
+    }
+
+    private static EventHandler counting(AtomicInteger calls) {
+        return () -> {
+            calls.incrementAndGet();
+            return false;
+        };
+    }
+
+    @Test
+    public void idleHandlersBackOffAndResetWhenBusy() {
+        final MediumEventLoop.HandlerSchedule schedule = new MediumEventLoop.HandlerSchedule(new EventHandler[]{new NoOpHandler()});
+        schedule.scheduleNext(0, false, 0, 10_000);
+        assertEquals(1_000, schedule.notBeforeNS[0]);
+        schedule.scheduleNext(0, false, 0, 10_000);
+        assertEquals(2_000, schedule.notBeforeNS[0]);
+        for (int i = 0; i < 10; i++)
+            schedule.scheduleNext(0, false, 0, 10_000);
+        assertEquals(10_000, schedule.notBeforeNS[0]);
+        schedule.scheduleNext(0, true, 0, 10_000);
+        assertEquals(0, schedule.notBeforeNS[0]);
+        schedule.scheduleNext(0, false, 0, 10_000);
+        assertEquals(1_000, schedule.notBeforeNS[0]);
+    }
+
+    @Test
+    public void selfSchedulingHandlersAreNotCalledBeforeTheyAreDue() {
+        try (MediumEventLoop eventLoop = new MediumEventLoop(null, "self-scheduling", Pauser.busy(), true, "none")) {
+            final EveryTwentyMillis handler = new EveryTwentyMillis();
+            eventLoop.addHandler(handler);
+            eventLoop.start();
+            Jvm.pause(100);
+            // every 20 ms rather than every iteration
+            assertTrue(handler.count >= 2 && handler.count <= 10, "count=" + handler.count);
+        }
+    }
+
+    private static final class EveryTwentyMillis implements SelfSchedulingEventHandler {
+        volatile int count;
+        private long notBeforeNS;
+
+        @Override
+        public boolean action() {
+            count++;
+            notBeforeNS = System.nanoTime() + 20_000_000;
+            return false;
+        }
+
+        @Override
+        public long notBeforeNS() {
+            return notBeforeNS;
+        }
+    }
+
+    @Test
+    public void multipleHighHandlersWithInterleave() {
+        try (MediumEventLoop eventLoop = new MediumEventLoop(null, "high", Pauser.busy(), true, "none")) {
+            eventLoop.maxHighHandlers(2);
+            eventLoop.highHandlerInterleave(4);
+            final CountingHandler high0 = new CountingHandler(HandlerPriority.HIGH, 1);
+            final CountingHandler high1 = new CountingHandler(HandlerPriority.HIGH, 1);
+            final CountingHandler high2 = new CountingHandler(HandlerPriority.HIGH, 1);
+            final CountingHandler[] mediums = new CountingHandler[8];
+            eventLoop.addHandler(high0);
+            eventLoop.addHandler(high1);
+            eventLoop.addHandler(high2); // treated as MEDIUM
+            for (int i = 0; i < mediums.length; i++)
+                eventLoop.addHandler(mediums[i] = new CountingHandler(HandlerPriority.MEDIUM, 1));
+            assertEquals(2, eventLoop.highHandlersArray.length);
+            assertEquals(9, eventLoop.mediumHandlersArray.length);
+
+            eventLoop.start();
+            Jvm.pause(100);
+            eventLoop.stop();
+
+            // start and end of each iteration, plus before every 4th of the 9 MEDIUM handlers
+            final double ratio = (double) high0.count / mediums[0].count;
+            assertEquals(4.0, ratio, 0.1);
+            assertEquals(high0.count, high1.count, 1);
+            assertEquals(mediums[0].count, high2.count, 1);
+        }
+    }
+
+    @Test
+    public void tieredHandlersArePolledEveryNthIteration() {
+        try (MediumEventLoop eventLoop = new MediumEventLoop(null, "tiered", Pauser.busy(), true, "none")) {
+            final CountingHandler everyIteration = new CountingHandler(HandlerPriority.MEDIUM, 1);
+            final CountingHandler everyEighth = new CountingHandler(HandlerPriority.MEDIUM, 8);
+            eventLoop.addHandler(everyIteration);
+            eventLoop.addHandler(everyEighth);
+            eventLoop.start();
+            Jvm.pause(100);
+            eventLoop.stop();
+
+            assertEquals(8.0, (double) everyIteration.count / everyEighth.count, 0.1);
+        }
+    }
+
+    @Test
+    public void aMovedHandlerIsRebasedWithoutBeingFinishedOrStartedAgain() {
+        try (MediumEventLoop source = new MediumEventLoop(null, "source", Pauser.balanced(), true, "none");
+             MediumEventLoop target = new MediumEventLoop(null, "target", Pauser.balanced(), true, "none")) {
+            final LifecycleHandler handler = new LifecycleHandler();
+            source.addHandler(handler);
+            source.start();
+            target.start();
+            waitFor(() -> handler.actions > 0);
+            assertSame(source.thread(), handler.lastThread);
+            final int started = handler.started;
+
+            assertTrue(source.moveHandler(handler, target));
+            waitFor(() -> handler.lastThread == target.thread() && !source.isMovingHandler());
+            assertEquals(0, source.mediumHandlers.size());
+            assertSame(target, handler.eventLoop);
+            assertEquals(started, handler.started);
+            assertEquals(0, handler.finished);
+
+            target.stop();
+            assertEquals(1, handler.finished);
+        }
+    }
+
+    @Test
+    public void aMovedHandlerIsOwnedByTheTargetThread() {
+        try (MediumEventLoop source = new MediumEventLoop(null, "source", Pauser.balanced(), true, "none");
+             MediumEventLoop target = new MediumEventLoop(null, "target", Pauser.balanced(), true, "none")) {
+            final OwnedHandler handler = new OwnedHandler();
+            source.addHandler(handler);
+            source.start();
+            target.start();
+            waitFor(() -> handler.actions > 0);
+            assertSame(source.thread(), handler.lastThread);
+
+            assertTrue(source.moveHandler(handler, target));
+            waitFor(() -> handler.lastThread == target.thread() && !source.isMovingHandler());
+            final long actions = handler.actions;
+            waitFor(() -> handler.actions > actions);
+            assertNull(handler.failure);
+            assertEquals(1, target.mediumHandlers.size());
+        }
+    }
+
+    @Test
+    public void aHandlerTheTargetWontTakeStaysWhereItIs() {
+        try (MediumEventLoop source = new MediumEventLoop(null, "source", Pauser.balanced(), true, "none");
+             MediumEventLoop target = new MediumEventLoop(null, "target", Pauser.balanced(), true, "none")) {
+            final LifecycleHandler handler = new LifecycleHandler();
+            source.addHandler(handler);
+            source.start();
+            target.start();
+            target.stop();
+            waitFor(() -> handler.actions > 0);
+            final int started = handler.started;
+
+            assertTrue(source.moveHandler(handler, target));
+            waitFor(() -> !source.isMovingHandler());
+            final long actions = handler.actions;
+            waitFor(() -> handler.actions > actions);
+            assertSame(source.thread(), handler.lastThread);
+            assertSame(source, handler.eventLoop);
+            assertEquals(1, source.mediumHandlers.size());
+            assertEquals(started, handler.started);
+            assertEquals(0, handler.finished);
+        }
+    }
+
+    private static void waitFor(final BooleanSupplier condition) {
+        final long end = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < end, "timed out");
+            Jvm.pause(1);
+        }
+    }
+
+    private static final class LifecycleHandler implements EventHandler {
+        volatile EventLoop eventLoop;
+        volatile Thread lastThread;
+        volatile long actions;
+        volatile int started;
+        volatile int finished;
+
+        @Override
+        public void eventLoop(final EventLoop eventLoop) {
+            this.eventLoop = eventLoop;
+        }
+
+        @Override
+        public void loopStarted() {
+            started++;
+        }
+
+        @Override
+        public void loopFinished() {
+            finished++;
+        }
+
+        @Override
+        public boolean action() {
+            lastThread = Thread.currentThread();
+            actions++;
+            return false;
+        }
+    }
+
+    private static final class OwnedHandler extends AbstractCloseable implements EventHandler {
+        volatile Thread lastThread;
+        volatile long actions;
+        volatile IllegalStateException failure;
+
+        @Override
+        public boolean action() {
+            try {
+                // fails if the handler is still owned by another thread
+                throwExceptionIfClosed();
+            } catch (IllegalStateException e) {
+                failure = e;
+                throw e;
+            }
+            lastThread = Thread.currentThread();
+            actions++;
+            return false;
+        }
+    }
+
+    private static final class CountingHandler implements TieredEventHandler {
+        private final HandlerPriority priority;
+        private final int pollEvery;
+        volatile long count;
+
+        CountingHandler(HandlerPriority priority, int pollEvery) {
+            this.priority = priority;
+            this.pollEvery = pollEvery;
+        }
+
+        @Override
+        public boolean action() {
+            count++;
+            return true;
+        }
+
+        @Override
+        public int pollEvery() {
+            return pollEvery;
+        }
+
+        @Override
+        public @NotNull HandlerPriority priority() {
+            return priority;
+        }
+    }
+
     private static class NoOpHandler implements EventHandler {
 
         @Override
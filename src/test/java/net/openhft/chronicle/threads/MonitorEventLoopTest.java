@@ -0,0 +1,93 @@
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MonitorEventLoopTest extends ThreadsTestCommon {
+
+    private static int originalMonitorDelay = -1;
+
+    @BeforeAll
+    static void beforeAll() {
+        originalMonitorDelay = MonitorEventLoop.MONITOR_INITIAL_DELAY_MS;
+        MonitorEventLoop.MONITOR_INITIAL_DELAY_MS = 0;
+    }
+
+    @AfterAll
+    static void afterAll() {
+        MonitorEventLoop.MONITOR_INITIAL_DELAY_MS = originalMonitorDelay;
+    }
+
+    @Test
+    void selfSchedulingHandlersAreOnlyCalledWhenDue() {
+        final ScheduledHandler handler = new ScheduledHandler(50);
+        try (final MonitorEventLoop el = new MonitorEventLoop(null, "test", Pauser.millis(1))) {
+            el.addHandler(handler);
+            el.start();
+            Jvm.pause(500);
+        }
+        // polling every ms would call it hundreds of times
+        final int calls = handler.calls.get();
+        assertTrue(calls >= 3 && calls <= 12, "calls=" + calls);
+    }
+
+    @Test
+    void addingAHandlerWakesTheLoop() throws TimeoutException {
+        final ScheduledHandler first = new ScheduledHandler(10_000);
+        final ScheduledHandler second = new ScheduledHandler(10_000);
+        try (final MonitorEventLoop el = new MonitorEventLoop(null, "test", Pauser.millis(1))) {
+            el.addHandler(first);
+            el.start();
+            final TimingPauser pauser = Pauser.balanced();
+            while (first.calls.get() < 1)
+                pauser.pause(1, TimeUnit.SECONDS);
+            // let it park until the first handler is next due
+            Jvm.pause(20);
+
+            final long startNS = System.nanoTime();
+            el.addHandler(second);
+            pauser.reset();
+            while (second.calls.get() < 1)
+                pauser.pause(1, TimeUnit.SECONDS);
+            final long delayNS = System.nanoTime() - startNS;
+            assertTrue(delayNS < MonitorEventLoop.MAX_PARK_NS / 2, "delayNS=" + delayNS);
+        }
+    }
+
+    static final class ScheduledHandler implements SelfSchedulingEventHandler {
+        final AtomicInteger calls = new AtomicInteger();
+        private final long periodNS;
+        private long nextNS;
+
+        ScheduledHandler(long periodMS) {
+            this.periodNS = periodMS * 1_000_000L;
+        }
+
+        @Override
+        public boolean action() {
+            calls.incrementAndGet();
+            nextNS = System.nanoTime() + periodNS;
+            return false;
+        }
+
+        @Override
+        public long notBeforeNS() {
+            return nextNS;
+        }
+
+        @Override
+        public @NotNull HandlerPriority priority() {
+            return HandlerPriority.MONITOR;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.Jvm;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PauserStatsTest extends ThreadsTestCommon {
+
+    @Test
+    public void longPauserCountsEachStage() {
+        final LongPauser pauser = new LongPauser(2, 2, 1, 1, TimeUnit.MILLISECONDS);
+        // one spin, three yields then a park
+        for (int i = 0; i < 5; i++)
+            pauser.pause();
+        pauser.reset();
+
+        final PauserStats stats = pauser.stats();
+        assertEquals(1, stats.spins());
+        assertEquals(3, stats.yields());
+        assertEquals(1, stats.parks());
+        assertEquals(0, stats.unpauseWakes());
+        assertEquals(1, stats.timeoutWakes());
+        assertTrue(stats.parkNS() >= TimeUnit.MICROSECONDS.toNanos(500), stats::toString);
+        assertTrue(stats.maxPauseNS() >= stats.parkNS(), stats::toString);
+        assertEquals(stats.spinNS() + stats.yieldNS() + stats.parkNS(), stats.totalNS());
+
+        pauser.pause();
+        pauser.reset();
+        final PauserStats delta = pauser.stats().since(stats);
+        assertEquals(1, delta.spins());
+        assertEquals(0, delta.yields());
+        assertEquals(0, delta.parks());
+    }
+
+    @Test
+    public void wakesByUnpauseAreCountedSeparately() throws InterruptedException {
+        final LongPauser pauser = new LongPauser(0, 0, 10, 10, TimeUnit.SECONDS);
+        final Thread thread = new Thread(pauser::pause);
+        thread.start();
+        for (int i = 0; i < 1000 && !pauser.isParked(); i++)
+            Jvm.pause(1);
+        pauser.unpause();
+        thread.join(5_000);
+        assertFalse(thread.isAlive());
+
+        final PauserStats stats = pauser.stats();
+        assertEquals(1, stats.parks());
+        assertEquals(1, stats.unpauseWakes());
+        assertEquals(0, stats.timeoutWakes());
+    }
+
+    @Test
+    public void anUnpauseWhileAwakeIsNotCountedAsAPark() {
+        final LongPauser longPauser = new LongPauser(0, 0, 10, 10, TimeUnit.SECONDS);
+        final MilliPauser milliPauser = new MilliPauser(10_000);
+        for (Pauser pauser : new Pauser[]{longPauser, milliPauser}) {
+            // returns at once as the ring is kept
+            pauser.unpause();
+            pauser.pause();
+            pauser.reset();
+            final PauserStats stats = pauser.stats();
+            assertEquals(0, stats.parks(), () -> pauser + " " + stats);
+            assertEquals(0, stats.unpauseWakes(), () -> pauser + " " + stats);
+        }
+    }
+
+    @Test
+    public void aRunInProgressIsIncluded() {
+        final BusyTimedPauser pauser = new BusyTimedPauser();
+        pauser.pause();
+        Jvm.pause(2);
+        final PauserStats stats = pauser.stats();
+        assertTrue(stats.spinNS() >= TimeUnit.MILLISECONDS.toNanos(1), stats::toString);
+        // counted when the run ends
+        assertEquals(0, stats.spins());
+        pauser.pause();
+        pauser.reset();
+        assertEquals(2, pauser.stats().spins());
+    }
+
+    @Test
+    public void everyPauserReportsInNanoseconds() {
+        final Pauser[] pausers = {
+                new MilliPauser(1), new YieldingPauser(1), new TimeoutPauser(1), new BusyTimedPauser(),
+                new LongPauser(1, 1, 1, 1, TimeUnit.MILLISECONDS), Pauser.adaptive()};
+        for (Pauser pauser : pausers) {
+            for (int i = 0; i < 3; i++)
+                pauser.pause();
+            pauser.reset();
+            final PauserStats stats = pauser.stats();
+            assertTrue(stats.totalNS() > 0, () -> pauser + " " + stats);
+            assertEquals(3, stats.spins() + stats.yields() + stats.parks(), () -> pauser + " " + stats);
+        }
+        // MilliPauser used to report nanoseconds
+        final MilliPauser milli = new MilliPauser(5);
+        milli.pause();
+        assertTrue(milli.timePaused() < 1_000);
+    }
+
+    @Test
+    public void busyPauserRecordsNothing() {
+        // shared by every busy loop, so counting would add a contended update to each spin
+        BusyPauser.INSTANCE.pause();
+        assertSame(PauserStats.EMPTY, BusyPauser.INSTANCE.stats());
+    }
+}
@@ -0,0 +1,173 @@
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PooledBlockingEventLoopTest extends ThreadsTestCommon {
+
+    @Test
+    public void manyHandlersShareTheWorkerThreads() throws TimeoutException {
+        final int handlers = 50;
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        final AtomicInteger[] calls = new AtomicInteger[handlers];
+        try (final PooledBlockingEventLoop el = new PooledBlockingEventLoop("test-pooled-loop", 2)) {
+            for (int i = 0; i < handlers; i++) {
+                final AtomicInteger count = calls[i] = new AtomicInteger();
+                el.addHandler(() -> {
+                    threads.add(Thread.currentThread());
+                    count.incrementAndGet();
+                    return true;
+                });
+            }
+            el.start();
+            assertEquals(2, el.workerThreads());
+            assertEquals(handlers, el.handlerCount());
+
+            final TimingPauser pauser = Pauser.balanced();
+            for (AtomicInteger count : calls) {
+                while (count.get() < 10)
+                    pauser.pause(5, TimeUnit.SECONDS);
+                pauser.reset();
+            }
+            assertTrue(threads.size() <= 2, threads::toString);
+
+            final BlockingHandlerStats stats = el.handlerStats().values().iterator().next();
+            assertTrue(stats.actions() >= 10);
+            assertEquals(stats.actions(), stats.busyActions(), 1.0);
+            assertTrue(stats.queueDelay().count() >= 10);
+            assertTrue(stats.actionsPerSecond() > 0);
+        }
+    }
+
+    @Test
+    public void aHandlerIsOnlyRunByOneWorkerAtATime() throws TimeoutException {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final AtomicInteger calls = new AtomicInteger();
+        try (final PooledBlockingEventLoop el = new PooledBlockingEventLoop("test-pooled-loop", 4)) {
+            el.addHandler(() -> {
+                if (running.incrementAndGet() > 1)
+                    overlaps.incrementAndGet();
+                Thread.yield();
+                running.decrementAndGet();
+                calls.incrementAndGet();
+                return true;
+            });
+            el.start();
+
+            final TimingPauser pauser = Pauser.balanced();
+            while (calls.get() < 10_000)
+                pauser.pause(5, TimeUnit.SECONDS);
+            assertEquals(0, overlaps.get());
+        }
+    }
+
+    @Test
+    public void idleHandlersAreSkippedUntilUnpaused() throws TimeoutException {
+        final AtomicInteger calls = new AtomicInteger();
+        try (final PooledBlockingEventLoop el = new PooledBlockingEventLoop(new PooledBlockingEventLoop("parent", 1), "test-pooled-loop", 1,
+                () -> new LongPauser(0, 0, 5, 5, TimeUnit.SECONDS))) {
+            el.addHandler(() -> {
+                calls.incrementAndGet();
+                return false;
+            });
+            el.start();
+
+            final TimingPauser pauser = Pauser.balanced();
+            while (calls.get() < 1)
+                pauser.pause(1, TimeUnit.SECONDS);
+            Jvm.pause(50);
+            // the handler is pausing for 5 seconds
+            assertEquals(1, calls.get());
+
+            el.unpause();
+            pauser.reset();
+            while (calls.get() < 2)
+                pauser.pause(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void handlersAreRemovedWhenInvalid() throws TimeoutException {
+        final AtomicBoolean finished = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        try (final PooledBlockingEventLoop el = new PooledBlockingEventLoop("test-pooled-loop", 1)) {
+            el.addHandler(new InvalidHandler(finished, closed));
+            el.start();
+
+            final TimingPauser pauser = Pauser.balanced();
+            while (el.handlerCount() > 0)
+                pauser.pause(1, TimeUnit.SECONDS);
+            assertTrue(finished.get());
+            assertTrue(closed.get());
+        }
+    }
+
+    @Test
+    public void eventGroupSharesWorkersBetweenBlockingHandlers() throws TimeoutException {
+        final AtomicInteger calls = new AtomicInteger();
+        try (final EventGroup eg = EventGroup.builder()
+                .withName("pooled")
+                .withBlockingWorkers(2)
+                .withPriorities(HandlerPriority.BLOCKING)
+                .build()) {
+            eg.start();
+            for (int i = 0; i < 10; i++) {
+                eg.addHandler(new EventHandler() {
+                    @Override
+                    public boolean action() {
+                        calls.incrementAndGet();
+                        return false;
+                    }
+
+                    @Override
+                    public @NotNull HandlerPriority priority() {
+                        return HandlerPriority.BLOCKING;
+                    }
+                });
+            }
+            final TimingPauser pauser = Pauser.balanced();
+            while (calls.get() < 10)
+                pauser.pause(5, TimeUnit.SECONDS);
+        }
+    }
+
+    static final class InvalidHandler implements EventHandler, Closeable {
+        private final AtomicBoolean finished;
+        private final AtomicBoolean closed;
+
+        InvalidHandler(AtomicBoolean finished, AtomicBoolean closed) {
+            this.finished = finished;
+            this.closed = closed;
+        }
+
+        @Override
+        public boolean action() throws InvalidEventHandlerException {
+            throw InvalidEventHandlerException.reusable();
+        }
+
+        @Override
+        public void loopFinished() {
+            finished.set(true);
+        }
+
+        @Override
+        public void close() {
+            closed.set(true);
+        }
+    }
+}
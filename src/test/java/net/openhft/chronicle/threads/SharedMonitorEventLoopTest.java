@@ -0,0 +1,113 @@
+package net.openhft.chronicle.threads;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.HandlerPriority;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedMonitorEventLoopTest extends ThreadsTestCommon {
+
+    private static int originalMonitorDelay = -1;
+
+    @BeforeAll
+    static void beforeAll() {
+        originalMonitorDelay = MonitorEventLoop.MONITOR_INITIAL_DELAY_MS;
+        MonitorEventLoop.MONITOR_INITIAL_DELAY_MS = 0;
+    }
+
+    @AfterAll
+    static void afterAll() {
+        MonitorEventLoop.MONITOR_INITIAL_DELAY_MS = originalMonitorDelay;
+    }
+
+    @Test
+    void groupsShareOneMonitorThreadAndRemoveTheirHandlersOnClose() throws TimeoutException {
+        final CountingMonitor handler1 = new CountingMonitor();
+        final CountingMonitor handler2 = new CountingMonitor();
+        final TimingPauser pauser = Pauser.balanced();
+        try (final EventGroup group2 = EventGroup.builder().withName("shared2").withSharedMonitor(true).build()) {
+            try (final EventGroup group1 = EventGroup.builder().withName("shared1").withSharedMonitor(true).build()) {
+                group1.addHandler(handler1);
+                group2.addHandler(handler2);
+                assertEquals(0, handler1.calls.get());
+                group1.start();
+                group2.start();
+
+                while (handler1.calls.get() < 1 || handler2.calls.get() < 1)
+                    pauser.pause(5, TimeUnit.SECONDS);
+                assertEquals(1, SharedMonitorEventLoop.sharedThreads());
+                assertTrue(Thread.getAllStackTraces().keySet().stream()
+                        .noneMatch(t -> t.getName().contains("shared1~monitor") || t.getName().contains("shared2~monitor")));
+            }
+            pauser.reset();
+            while (!handler1.closed.get())
+                pauser.pause(5, TimeUnit.SECONDS);
+            assertTrue(handler1.finished.get());
+
+            // the other group is still monitored
+            final int calls = handler2.calls.get();
+            pauser.reset();
+            while (handler2.calls.get() <= calls)
+                pauser.pause(5, TimeUnit.SECONDS);
+            assertFalse(handler2.closed.get());
+        }
+        assertTrue(handler2.closed.get());
+        assertEquals(0, SharedMonitorEventLoop.sharedThreads());
+    }
+
+    @Test
+    void handlersAddedAfterStoppingAreFinishedWithoutRunning() {
+        final CountingMonitor handler = new CountingMonitor();
+        try (final SharedMonitorEventLoop monitor = new SharedMonitorEventLoop(null, "stopped")) {
+            monitor.start();
+            assertTrue(monitor.isAlive());
+            monitor.stop();
+            assertFalse(monitor.isAlive());
+            assertEquals(0, SharedMonitorEventLoop.sharedThreads());
+
+            monitor.addHandler(handler);
+            assertTrue(handler.finished.get());
+            assertEquals(0, SharedMonitorEventLoop.sharedThreads());
+            assertFalse(handler.closed.get());
+        }
+        assertTrue(handler.closed.get());
+        assertEquals(0, handler.calls.get());
+    }
+
+    static final class CountingMonitor implements EventHandler, Closeable {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicBoolean finished = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        @Override
+        public boolean action() {
+            calls.incrementAndGet();
+            return false;
+        }
+
+        @Override
+        public void loopFinished() {
+            finished.set(true);
+        }
+
+        @Override
+        public void close() {
+            closed.set(true);
+        }
+
+        @Override
+        public @NotNull HandlerPriority priority() {
+            return HandlerPriority.MONITOR;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package net.openhft.chronicle.threads;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StackSamplerTest extends ThreadsTestCommon {
+
+    private static final AtomicBoolean SPINNING = new AtomicBoolean();
+
+    static boolean spinInTheHandler() {
+        SPINNING.set(true);
+        long end = System.nanoTime() + 1_000_000;
+        while (System.nanoTime() < end)
+            Thread.yield();
+        return true;
+    }
+
+    @Test
+    void samplesEventLoopThreadsAsCollapsedStacks() throws Exception {
+        final Path dir = Files.createTempDirectory("stack-sampler");
+        final Path file = dir.resolve("sampled-stacks.collapsed");
+        try (MediumEventLoop eventLoop = new MediumEventLoop(null, "sampled", Pauser.balanced(), true, "none")) {
+            eventLoop.addHandler(StackSamplerTest::spinInTheHandler);
+            eventLoop.start();
+            final TimingPauser pauser = Pauser.balanced();
+            while (!SPINNING.get())
+                pauser.pause(1, TimeUnit.SECONDS);
+
+            final StackSampler sampler = new StackSampler(file, 1_000_000, 64, 100, 60_000_000_000L, 2);
+            sampler.addEventLoop(eventLoop);
+            for (int i = 0; i < 50; i++)
+                sampler.sample();
+            assertEquals(50, sampler.samples());
+            final Future<?> written = sampler.roll();
+            assertEquals(0, sampler.samples());
+            written.get();
+            sampler.loopFinished();
+
+            final List<String> lines = Files.readAllLines(file);
+            long total = 0;
+            boolean found = false;
+            for (String line : lines) {
+                assertTrue(line.startsWith(eventLoop.thread().getName() + ";"), line);
+                total += Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+                found |= line.contains("StackSamplerTest.spinInTheHandler");
+            }
+            assertEquals(50, total);
+            assertTrue(found, lines::toString);
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    void distinctStacksAreBounded() {
+        final StackSampler sampler = new StackSampler(Paths.get("unused"), 1_000_000, 2, 2, 60_000_000_000L, 1);
+        for (int i = 0; i < 5; i++)
+            sampler.count("thread", new StackTraceElement[]{
+                    new StackTraceElement("Inner" + i, "run", null, 0),
+                    new StackTraceElement("Middle", "run", null, 0),
+                    new StackTraceElement("Outer", "run", null, 0)});
+        final Map<String, Long> counts = sampler.counts();
+        assertEquals(3, counts.size(), counts::toString);
+        // only the inner two frames are kept
+        assertEquals(1, (long) counts.get("thread;Middle.run;Inner0.run"));
+        assertEquals(1, (long) counts.get("thread;Middle.run;Inner1.run"));
+        assertEquals(3, (long) counts.get("thread;" + StackSampler.OTHER));
+    }
+
+    @Test
+    void rollingKeepsThePreviousFiles() throws Exception {
+        final Path dir = Files.createTempDirectory("stack-sampler");
+        final Path file = dir.resolve("rolled.collapsed");
+        try {
+            final StackSampler sampler = new StackSampler(file, 1_000_000, 8, 100, 60_000_000_000L, 2);
+            for (int i = 0; i < 3; i++) {
+                sampler.count("thread" + i, new StackTraceElement[]{new StackTraceElement("Inner", "run", null, 0)});
+                sampler.roll().get();
+            }
+            sampler.loopFinished();
+            assertEquals("thread2;Inner.run 1", Files.readAllLines(file).get(0));
+            assertEquals("thread1;Inner.run 1", Files.readAllLines(dir.resolve("rolled.collapsed.1")).get(0));
+            assertFalse(Files.exists(dir.resolve("rolled.collapsed.2")));
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    void aStackSeenBeforeIsCountedUnderTheSameKey() {
+        final StackSampler sampler = new StackSampler(Paths.get("unused"), 1_000_000, 8, 100, 60_000_000_000L, 1);
+        for (int line = 1; line <= 3; line++)
+            // only the class and method names are part of a collapsed stack
+            sampler.count("thread", new StackTraceElement[]{
+                    new StackTraceElement("Inner", "run", "Inner.java", line),
+                    new StackTraceElement("Outer", "run", "Outer.java", 0)});
+        sampler.count("other-thread", new StackTraceElement[]{new StackTraceElement("Inner", "run", null, 0)});
+        final Map<String, Long> counts = sampler.counts();
+        assertEquals(2, counts.size(), counts::toString);
+        assertEquals(3, (long) counts.get("thread;Outer.run;Inner.run"));
+        assertEquals(1, (long) counts.get("other-thread;Inner.run"));
+    }
+
+    @Test
+    void groupsWithTheSameNameWriteToDifferentFiles() {
+        try (EventGroup eg1 = EventGroup.builder().withName("same").withStackSampleIntervalMS(10).build();
+             EventGroup eg2 = EventGroup.builder().withName("same").withStackSampleIntervalMS(10).build()) {
+            final Path file1 = eg1.stackSampler().file();
+            final Path file2 = eg2.stackSampler().file();
+            assertNotEquals(file1, file2);
+            assertTrue(file1.getFileName().toString().startsWith("same-"), file1::toString);
+        }
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.list(dir)) {
+            for (Path path : (Iterable<Path>) paths::iterator)
+                Files.delete(path);
+        }
+        Files.delete(dir);
+    }
+}
@@ -1,11 +1,20 @@
 package net.openhft.chronicle.threads;
 
 import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.threads.internal.VirtualThreads;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class ThreadsTest extends ThreadsTestCommon {
 
@@ -65,4 +74,31 @@ public class ThreadsTest extends ThreadsTestCommon {
         expectException("**** THE main/non-daemon-test THREAD DID NOT SHUTDOWN ***");
         assertExceptionThrown("**** THE main/non-daemon-test THREAD DID NOT SHUTDOWN ***");
     }
+
+    @Test
+    public void virtualExecutorFactoryThreadsAreNamedAndCanBeInterrupted() throws Exception {
+        ignoreException("Virtual threads need Java 21+");
+        final VirtualExecutorFactory factory = new VirtualExecutorFactory();
+        for (int threads : new int[]{1, 4}) {
+            final ExecutorService service = factory.acquireExecutorService("virtual-test", threads, true);
+            final CountDownLatch running = new CountDownLatch(1);
+            final Future<String> name = service.submit(() -> {
+                running.countDown();
+                while (!Thread.currentThread().isInterrupted())
+                    LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+                return Thread.currentThread().getName();
+            });
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            final List<Thread> found = new ArrayList<>();
+            Threads.forEachThread(service, found::add);
+            assertEquals(1, found.size());
+            assertEquals(VirtualThreads.isSupported(), VirtualThreads.isVirtual(found.get(0)));
+
+            Threads.interrupt(service);
+            assertTrue(name.get(5, TimeUnit.SECONDS).endsWith("/virtual-test"));
+            Threads.shutdown(service);
+            assertTrue(service.isTerminated());
+        }
+    }
 }
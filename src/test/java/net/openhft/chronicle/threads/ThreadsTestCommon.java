@@ -102,6 +102,13 @@ public class ThreadsTestCommon {
         fail(description);
     }
 
+    public void assertNoExceptionThrown(String message) {
+        for (ExceptionKey key : exceptions.keySet()) {
+            if (contains(key.message, message))
+                fail(format("Exception found containing string `%s`: %s", message, key));
+        }
+    }
+
     @AfterEach
     public void afterChecks() throws InterruptedException {
         preAfter();
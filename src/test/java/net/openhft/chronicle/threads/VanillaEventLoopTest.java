@@ -6,11 +6,15 @@ import net.openhft.chronicle.core.threads.EventHandler;
 import net.openhft.chronicle.core.threads.HandlerPriority;
 import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
 import net.openhft.chronicle.testframework.FlakyTestRunner;
+import net.openhft.chronicle.threads.internal.TimerWheel;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -76,6 +80,154 @@ public class VanillaEventLoopTest extends ThreadsTestCommon {
 
     }
 
+    @Timeout(10_000L)
+    @Test
+    public void periodicHandlersRunAtTheirOwnRate() {
+        try (final ManualClockEventLoop el = new ManualClockEventLoop()) {
+            final CountingPeriodicHandler fiveMS = new CountingPeriodicHandler(5_000_000);
+            final CountingPeriodicHandler fiftyMS = new CountingPeriodicHandler(50_000_000);
+            final CountingPeriodicHandler loopInterval = new CountingPeriodicHandler(0);
+            el.addHandler(fiveMS);
+            el.addHandler(fiftyMS);
+            el.addHandler(loopInterval);
+            el.acceptStagedHandlers();
+            // 500 ms of the loop checking its timers every 100 us
+            for (int i = 0; i < 5_000; i++) {
+                el.runTimerHandlers();
+                el.nowNS += 100_000;
+            }
+
+            // fixed rate from when it was added, so it neither drifts nor runs faster than its period
+            assertTrue(fiveMS.count >= 80 && fiveMS.count <= 101, "fiveMS " + fiveMS.count);
+            assertTrue(fiftyMS.count >= 8 && fiftyMS.count <= 11, "fiftyMS " + fiftyMS.count);
+            assertTrue(loopInterval.count >= 20 && loopInterval.count <= 26, "loopInterval " + loopInterval.count);
+        }
+    }
+
+    @Timeout(10_000L)
+    @Test
+    public void timerHandlersAddedFromSeveralThreadsBeforeAndDuringStartAllRun() throws Exception {
+        try (final VanillaEventLoop el = new VanillaEventLoop(null, "test-event-loop", PauserMode.busy.get(), 20, false, "none",
+                EnumSet.of(HandlerPriority.MEDIUM, HandlerPriority.TIMER))) {
+            final int threads = 4;
+            final int perThread = 500;
+            final List<CountingPeriodicHandler> handlers = new CopyOnWriteArrayList<>();
+            final CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+            final CountingPeriodicHandler first = new CountingPeriodicHandler(1_000_000);
+            el.addHandler(first);
+            // the wheel isn't thread safe, so only the event loop thread adds to it
+            assertEquals(0, Jvm.<TimerWheel>getValue(el, "timerWheel").size());
+            handlers.add(first);
+
+            final ExecutorService service = Executors.newFixedThreadPool(threads);
+            try {
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    futures.add(service.submit(() -> {
+                        barrier.await();
+                        for (int i = 0; i < perThread; i++) {
+                            final CountingPeriodicHandler handler = new CountingPeriodicHandler(1_000_000);
+                            handlers.add(handler);
+                            el.addHandler(handler);
+                        }
+                        return null;
+                    }));
+                }
+                barrier.await();
+                // start while the other threads are still adding
+                el.start();
+                for (Future<?> future : futures)
+                    future.get();
+            } finally {
+                service.shutdown();
+            }
+            // those added once the loop had started are accepted by it
+            while (el.handlerCount() < threads * perThread + 1)
+                Jvm.pause(1);
+            assertEquals(threads * perThread + 1, el.handlerCount());
+            // a timer lost by the wheel would never run
+            for (CountingPeriodicHandler handler : handlers)
+                while (handler.count == 0)
+                    Jvm.pause(1);
+        }
+    }
+
+    @Timeout(10_000L)
+    @Test
+    public void daemonHandlersRunWhileBusyWithAMaxInterval() {
+        try (final VanillaEventLoop el = new VanillaEventLoop(null, "test-event-loop", PauserMode.busy.get(), 20, false, "none",
+                EnumSet.of(HandlerPriority.MEDIUM, HandlerPriority.DAEMON))) {
+            final CountingDaemonHandler starved = new CountingDaemonHandler();
+            el.addHandler(() -> true);
+            el.addHandler(starved);
+            el.start();
+            Jvm.pause(100);
+            // never idle so never run
+            assertEquals(0, starved.count);
+            assertTrue(el.daemonStarvationNS().get(starved) >= 90_000_000L);
+
+            el.daemonMaxIntervalNS(10_000_000);
+            Jvm.pause(200);
+            el.stop();
+            assertTrue(starved.count >= 5 && starved.count <= 21, "count " + starved.count);
+            assertTrue(el.daemonStarvationNS().get(starved) < 50_000_000L);
+        }
+    }
+
+    private static final class CountingDaemonHandler implements EventHandler {
+        private volatile int count;
+
+        @Override
+        public boolean action() {
+            count++;
+            return false;
+        }
+
+        @NotNull
+        @Override
+        public HandlerPriority priority() {
+            return HandlerPriority.DAEMON;
+        }
+    }
+
+    /**
+     * Runs its timers against a clock the test advances, rather than on a thread
+     */
+    private static final class ManualClockEventLoop extends VanillaEventLoop {
+        // read by the super constructor, so starts at 0
+        private long nowNS;
+
+        ManualClockEventLoop() {
+            super(null, "test-event-loop", PauserMode.busy.get(), 20, false, "none",
+                    EnumSet.of(HandlerPriority.MEDIUM, HandlerPriority.TIMER));
+        }
+
+        @Override
+        protected long nanoTime() {
+            return nowNS;
+        }
+    }
+
+    private static final class CountingPeriodicHandler implements PeriodicEventHandler {
+        private final long periodNS;
+        private volatile int count;
+
+        CountingPeriodicHandler(long periodNS) {
+            this.periodNS = periodNS;
+        }
+
+        @Override
+        public long periodNS() {
+            return periodNS;
+        }
+
+        @Override
+        public boolean action() {
+            count++;
+            return false;
+        }
+    }
+
     private static final class TestMediumEventHandler extends SimpleCloseable implements EventHandler {
 
         private volatile int actionCnt;
@@ -0,0 +1,119 @@
+package net.openhft.chronicle.threads.internal;
+
+import net.openhft.chronicle.core.Jvm;
+import net.openhft.chronicle.core.threads.EventHandler;
+import net.openhft.chronicle.core.threads.InvalidEventHandlerException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonomorphicDispatcherTest {
+
+    @Test
+    void callsHandlersFromLastToFirst() {
+        final List<Integer> calls = new ArrayList<>();
+        final EventHandler[] handlers = new EventHandler[6];
+        for (int i = 0; i < handlers.length; i++) {
+            final int id = i;
+            handlers[i] = i % 2 == 0
+                    ? new Even(() -> calls.add(id))
+                    : new Odd(() -> calls.add(id));
+        }
+        final DispatchChain chain = new MonomorphicDispatcher((h, t) -> fail(t)).build(handlers);
+        assertNotNull(chain);
+        assertFalse(chain.run());
+        assertEquals("[5, 4, 3, 2, 1, 0]", calls.toString());
+    }
+
+    @Test
+    void eachHandlerClassGetsItsOwnNodeClass() {
+        final EventHandler[] handlers = {new Even(() -> {
+        }), new Odd(() -> {
+        })};
+        final DispatchChain chain = new MonomorphicDispatcher((h, t) -> fail(t)).build(handlers);
+        assertNotNull(chain);
+        final Class<?> head = chain.getClass();
+        assertTrue(head.getName().startsWith(DispatchNode.class.getPackage().getName() + ".Dispatch"), head.getName());
+        assertNotSame(DispatchNode.class, head);
+        final Class<?> tail = Jvm.<DispatchChain>getValue(chain, "next").getClass();
+        assertNotSame(head, tail);
+        // one class loader for all the copies
+        assertSame(head.getClassLoader(), tail.getClassLoader());
+    }
+
+    @Test
+    void theLinksBeforeAChangeAreReused() {
+        final List<Integer> calls = new ArrayList<>();
+        final EventHandler[] handlers = new EventHandler[8];
+        for (int i = 0; i < handlers.length; i++) {
+            final int id = i;
+            handlers[i] = i % 2 == 0
+                    ? new Even(() -> calls.add(id))
+                    : new Odd(() -> calls.add(id));
+        }
+        final MonomorphicDispatcher dispatcher = new MonomorphicDispatcher((h, t) -> fail(t));
+        final DispatchChain first = dispatcher.build(Arrays.copyOf(handlers, 7));
+        final DispatchChain second = dispatcher.build(handlers);
+        assertNotNull(second);
+        // the new handler is at the head of the chain, followed by the old one
+        assertSame(first, Jvm.getValue(second, "next"));
+        second.run();
+        assertEquals("[7, 6, 5, 4, 3, 2, 1, 0]", calls.toString());
+
+        calls.clear();
+        final EventHandler[] changed = handlers.clone();
+        changed[2] = new Odd(() -> calls.add(-2));
+        final DispatchChain third = dispatcher.build(changed);
+        assertNotNull(third);
+        third.run();
+        assertEquals("[7, 6, 5, 4, 3, -2, 1, 0]", calls.toString());
+    }
+
+    @Test
+    void exceptionsArePassedOnAndTheRestAreStillCalled() {
+        final List<EventHandler> failed = new ArrayList<>();
+        final int[] calls = {0};
+        final EventHandler throwing = () -> {
+            throw InvalidEventHandlerException.reusable();
+        };
+        final EventHandler[] handlers = {new Odd(() -> calls[0]++), throwing, new Even(() -> calls[0]++)};
+        final DispatchChain chain = new MonomorphicDispatcher((h, t) -> failed.add(h)).build(handlers);
+        assertNotNull(chain);
+        chain.run();
+        assertEquals(2, calls[0]);
+        assertEquals(1, failed.size());
+        assertSame(throwing, failed.get(0));
+    }
+
+    static final class Even implements EventHandler {
+        private final Runnable onAction;
+
+        Even(Runnable onAction) {
+            this.onAction = onAction;
+        }
+
+        @Override
+        public boolean action() {
+            onAction.run();
+            return false;
+        }
+    }
+
+    static final class Odd implements EventHandler {
+        private final Runnable onAction;
+
+        Odd(Runnable onAction) {
+            this.onAction = onAction;
+        }
+
+        @Override
+        public boolean action() {
+            onAction.run();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package net.openhft.chronicle.threads.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscArrayQueueTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(2, new MpscArrayQueue<>(1).capacity());
+        assertEquals(8, new MpscArrayQueue<>(5).capacity());
+        assertEquals(8, new MpscArrayQueue<>(8).capacity());
+    }
+
+    @Test
+    void offerFailsWhenFullAndPollIsFifo() {
+        final MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(4);
+        for (int i = 0; i < 4; i++)
+            assertTrue(queue.offer(i));
+        assertFalse(queue.offer(4));
+        assertEquals(4, queue.size());
+
+        for (int i = 0; i < 4; i++)
+            assertEquals(Integer.valueOf(i), queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+
+        // slots are reused after wrapping
+        assertTrue(queue.offer(5));
+        assertEquals(Integer.valueOf(5), queue.poll());
+    }
+
+    @Test
+    void concurrentProducersKeepTheirOwnOrder() throws Exception {
+        final int producers = 4;
+        final int perProducer = 50_000;
+        final MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(64);
+        final ExecutorService service = Executors.newFixedThreadPool(producers);
+        try {
+            for (int p = 0; p < producers; p++) {
+                final int producer = p;
+                service.submit(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!queue.offer(producer * perProducer + i))
+                            Thread.yield();
+                    }
+                });
+            }
+            final int[] last = new int[producers];
+            Arrays.fill(last, -1);
+            final long endNS = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            for (int received = 0; received < producers * perProducer; ) {
+                final Integer value = queue.poll();
+                if (value == null) {
+                    assertTrue(System.nanoTime() < endNS, "timed out after " + received);
+                    continue;
+                }
+                final int producer = value / perProducer;
+                assertEquals(last[producer] + 1, value % perProducer);
+                last[producer] = value % perProducer;
+                received++;
+            }
+        } finally {
+            service.shutdownNow();
+            assertTrue(service.awaitTermination(1, TimeUnit.SECONDS));
+        }
+    }
+}
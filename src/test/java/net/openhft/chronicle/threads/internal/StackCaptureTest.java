@@ -0,0 +1,98 @@
+package net.openhft.chronicle.threads.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StackCaptureTest {
+
+    static void waitInTheStalledThread(CountDownLatch release) {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Thread startStalled(String name, CountDownLatch release) {
+        final Thread thread = new Thread(() -> waitInTheStalledThread(release), name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    void requestsFromAMonitorAreCapturedTogether() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread stalled1 = startStalled("stalled1", release);
+        final Thread stalled2 = startStalled("stalled2", release);
+        final StackCapture capture = new StackCapture(TimeUnit.HOURS.toNanos(1), 32);
+        final Map<Thread, StackTraceElement[]> stacks = new ConcurrentHashMap<>();
+        StackCapture.batching(true);
+        try {
+            capture.request(stalled1, (stack, captureNS) -> stacks.put(stalled1, stack));
+            capture.request(stalled2, (stack, captureNS) -> stacks.put(stalled2, stack));
+            assertTrue(stacks.isEmpty());
+            capture.flush();
+        } finally {
+            StackCapture.batching(false);
+            release.countDown();
+        }
+        assertEquals(1, capture.captures());
+        assertEquals(2, stacks.size());
+        for (StackTraceElement[] stack : stacks.values()) {
+            boolean found = false;
+            for (StackTraceElement element : stack)
+                found |= element.getMethodName().equals("waitInTheStalledThread");
+            assertTrue(found);
+        }
+        stalled1.join(1000);
+        stalled2.join(1000);
+    }
+
+    @Test
+    void capturesAreRateLimited() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread stalled = startStalled("stalled", release);
+        final StackCapture capture = new StackCapture(TimeUnit.HOURS.toNanos(1), 32);
+        final StackTraceElement[][] stacks = new StackTraceElement[2][];
+        try {
+            capture.request(stalled, (stack, captureNS) -> stacks[0] = stack);
+            capture.request(stalled, (stack, captureNS) -> stacks[1] = stack);
+        } finally {
+            release.countDown();
+        }
+        assertNotNull(stacks[0]);
+        assertNull(stacks[1]);
+        assertEquals(1, capture.captures());
+        assertEquals(1, capture.skipped());
+        stalled.join(1000);
+    }
+
+    @Test
+    void aRequestMadeWhileCallingBackIsFlushedToo() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread stalled = startStalled("stalled", release);
+        final StackCapture capture = new StackCapture(TimeUnit.HOURS.toNanos(1), 32);
+        final boolean[] calledBack = new boolean[2];
+        try {
+            capture.request(stalled, (stack, captureNS) -> {
+                calledBack[0] = true;
+                // can't be flushed here as this thread is flushing
+                capture.request(stalled, (stack2, captureNS2) -> calledBack[1] = true);
+            });
+        } finally {
+            release.countDown();
+        }
+        assertTrue(calledBack[0]);
+        assertTrue(calledBack[1]);
+        assertEquals(1, capture.captures());
+        assertEquals(1, capture.skipped());
+        stalled.join(1000);
+    }
+}
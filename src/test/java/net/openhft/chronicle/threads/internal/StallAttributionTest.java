@@ -0,0 +1,161 @@
+package net.openhft.chronicle.threads.internal;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class StallAttributionTest {
+    private static final long MS = 1_000_000L;
+    private static final long T0 = 1_000 * MS;
+
+    @Test
+    void aStallMostlyInAGcIsAttributedToIt() {
+        final StallAttribution attribution = new StallAttribution(null, 10 * MS, true);
+        attribution.gcPause("G1 Young Generation", T0 + 10 * MS, T0 + 90 * MS);
+
+        final StallAttribution.Attribution gc = attribution.attribute(T0, T0 + 100 * MS, -1, -1);
+        assertEquals(StallAttribution.Cause.GC, gc.cause());
+        assertTrue(gc.cause().measured());
+        assertTrue(gc.detail().contains("G1 Young Generation"), gc.detail());
+
+        // the GC was only a small part of a longer stall
+        final StallAttribution.Attribution handler = attribution.attribute(T0, T0 + 500 * MS, -1, -1);
+        assertEquals(StallAttribution.Cause.HANDLER, handler.cause());
+        assertFalse(handler.cause().measured());
+    }
+
+    @Test
+    void aGcNotNotifiedYetIsFoundFromTheTotalsOfItsBean() {
+        final StallAttribution attribution = new StallAttribution(null, 10 * MS, true);
+        final TotalsOnlyGcBean bean = new TotalsOnlyGcBean(3, 200);
+        attribution.gcBeans(Collections.singletonList(bean));
+
+        // the GC has finished but its notification is still on its way
+        bean.collectionCount = 4;
+        bean.collectionTime = 280;
+        final StallAttribution.Attribution gc = attribution.attribute(T0, T0 + 100 * MS, -1, -1);
+        assertEquals(StallAttribution.Cause.GC, gc.cause());
+        assertTrue(gc.detail().contains("80.0 ms of it not notified yet"), gc.detail());
+
+        attribution.gcPause("G1 Young Generation", T0 + 10 * MS, T0 + 90 * MS);
+        final StallAttribution.Attribution notified = attribution.attribute(T0, T0 + 100 * MS, -1, -1);
+        assertEquals(StallAttribution.Cause.GC, notified.cause());
+        assertFalse(notified.detail().contains("not notified"), notified.detail());
+        assertEquals(StallAttribution.Cause.HANDLER, attribution.attribute(T0 + 500 * MS, T0 + 600 * MS, -1, -1).cause());
+    }
+
+    @Test
+    void aPauseOfTheMonitorWithoutAGcIsAJvmOrHostPause() {
+        final StallAttribution attribution = new StallAttribution(null, 10 * MS, true);
+        assertTrue(attribution.monitorDelayed(T0, T0 + 50 * MS));
+        // seen again by another loop on the same monitor
+        assertFalse(attribution.monitorDelayed(T0 + 1 * MS, T0 + 60 * MS));
+
+        final StallAttribution.Attribution paused = attribution.attribute(T0, T0 + 70 * MS, -1, -1);
+        assertEquals(StallAttribution.Cause.JVM_OR_HOST_PAUSE, paused.cause());
+        // what paused the JVM isn't known, so the stack is still worth having
+        assertFalse(paused.cause().measured());
+        assertEquals(StallAttribution.Cause.HANDLER, attribution.attribute(T0 + 200 * MS, T0 + 300 * MS, -1, -1).cause());
+    }
+
+    @Test
+    void aStallWhileTheCgroupWasThrottledIsAttributedToIt() throws IOException {
+        final File cpuStat = File.createTempFile("cpu", ".stat");
+        cpuStat.deleteOnExit();
+        writeCpuStat(cpuStat, 1, 5_000);
+        final StallAttribution attribution = new StallAttribution(cpuStat, 10 * MS, true);
+        attribution.sample(T0);
+        // too soon to read again
+        writeCpuStat(cpuStat, 2, 6_000);
+        attribution.sample(T0 + 5 * MS);
+
+        writeCpuStat(cpuStat, 9, 85_000);
+        final StallAttribution.Attribution throttled = attribution.attribute(T0 + 20 * MS, T0 + 120 * MS, -1, -1);
+        assertEquals(StallAttribution.Cause.CPU_THROTTLED, throttled.cause());
+        assertTrue(throttled.detail().contains("8 times for 80.0 ms"), throttled.detail());
+
+        writeCpuStat(cpuStat, 10, 86_000);
+        attribution.sample(T0 + 500 * MS);
+        assertEquals(StallAttribution.Cause.HANDLER, attribution.attribute(T0 + 600 * MS, T0 + 700 * MS, -1, -1).cause());
+    }
+
+    @Test
+    void aBoundThreadOnAnotherCpuWasMigrated() {
+        assumeTrue(new File("/proc/self/task").isDirectory());
+        // the main thread of a process has the same id as it
+        final int pid = Integer.parseInt(ManagementFactory.getRuntimeMXBean().getName().split("@")[0]);
+        final int cpuId = StallAttribution.cpuIdOf(pid);
+        assertTrue(cpuId >= 0);
+
+        final StallAttribution attribution = new StallAttribution(null, 10 * MS, true);
+        final StallAttribution.Attribution migrated = attribution.attribute(T0, T0 + 100 * MS, cpuId + 1, pid);
+        assertEquals(StallAttribution.Cause.CPU_MIGRATED, migrated.cause());
+        assertTrue(migrated.detail().contains("to cpu " + cpuId), migrated.detail());
+    }
+
+    @Test
+    void everyStallIsAHandlerWhenDisabled() {
+        final StallAttribution attribution = new StallAttribution(null, 10 * MS, false);
+        attribution.gcPause("G1 Young Generation", T0, T0 + 100 * MS);
+        assertEquals(StallAttribution.Cause.HANDLER, attribution.attribute(T0, T0 + 100 * MS, -1, -1).cause());
+        assertEquals("", attribution.describe(attribution.attribute(T0, T0 + 100 * MS, -1, -1)));
+    }
+
+    static final class TotalsOnlyGcBean implements GarbageCollectorMXBean {
+        volatile long collectionCount;
+        volatile long collectionTime;
+
+        TotalsOnlyGcBean(long collectionCount, long collectionTime) {
+            this.collectionCount = collectionCount;
+            this.collectionTime = collectionTime;
+        }
+
+        @Override
+        public long getCollectionCount() {
+            return collectionCount;
+        }
+
+        @Override
+        public long getCollectionTime() {
+            return collectionTime;
+        }
+
+        @Override
+        public String getName() {
+            return "G1 Young Generation";
+        }
+
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+
+        @Override
+        public String[] getMemoryPoolNames() {
+            return new String[0];
+        }
+
+        @Override
+        public ObjectName getObjectName() {
+            return null;
+        }
+    }
+
+    private static void writeCpuStat(File file, long nrThrottled, long throttledUsec) throws IOException {
+        final String stat = "usage_usec 123456\n" +
+                "nr_periods 100\n" +
+                "nr_throttled " + nrThrottled + "\n" +
+                "throttled_usec " + throttledUsec + "\n";
+        Files.write(file.toPath(), stat.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
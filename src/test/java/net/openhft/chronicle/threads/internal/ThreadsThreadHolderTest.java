@@ -0,0 +1,37 @@
+package net.openhft.chronicle.threads.internal;
+
+import net.openhft.chronicle.core.Jvm;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadsThreadHolderTest {
+
+    @Test
+    void aStallLoggedWithoutAStackIsStillANewReport() {
+        final List<String> logged = new ArrayList<>();
+        final Thread thread = Thread.currentThread();
+        final ThreadsThreadHolder holder = new ThreadsThreadHolder("test", 1_000_000, () -> 0, () -> thread, () -> true, logged::add);
+        final long minIntervalMS = StackCapture.INSTANCE.minIntervalNS() / 1_000_000;
+        final long startedNS = System.nanoTime();
+
+        // another capture was just made, so this report is dropped
+        StackCapture.INSTANCE.request(thread, (stack, captureNS) -> {
+        });
+        holder.dumpThread(startedNS, System.nanoTime());
+        assertTrue(logged.isEmpty());
+
+        Jvm.pause(minIntervalMS + 1);
+        holder.dumpThread(startedNS, System.nanoTime());
+        assertEquals(1, logged.size());
+        assertTrue(logged.get(0).contains("new report"), logged.get(0));
+
+        Jvm.pause(minIntervalMS + 1);
+        holder.dumpThread(startedNS, System.nanoTime());
+        assertEquals(2, logged.size());
+        assertTrue(logged.get(1).contains("re-reporting"), logged.get(1));
+    }
+}
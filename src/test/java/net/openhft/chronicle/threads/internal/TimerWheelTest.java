@@ -0,0 +1,104 @@
+package net.openhft.chronicle.threads.internal;
+
+import net.openhft.chronicle.core.threads.EventHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+    private static final long TICK = 1_000_000;
+    private static final EventHandler HANDLER = () -> false;
+
+    private static List<TimerWheel.Timer> expire(TimerWheel wheel, long nowNS) {
+        final List<TimerWheel.Timer> due = new ArrayList<>();
+        for (TimerWheel.Timer timer = wheel.expire(nowNS); timer != null; timer = timer.nextDue())
+            due.add(timer);
+        return due;
+    }
+
+    private static TimerWheel.Timer newTimer() {
+        return new TimerWheel.Timer(HANDLER, TICK, false, 0, false);
+    }
+
+    @Test
+    void timersFireOnTheFirstTickAtOrAfterTheirDeadline() {
+        final TimerWheel wheel = new TimerWheel(TICK, 0);
+        final TimerWheel.Timer timer = newTimer();
+        wheel.schedule(timer, 2_500_000);
+        assertEquals(1, wheel.size());
+
+        assertTrue(expire(wheel, 2_999_999).isEmpty());
+        assertTrue(timer.isScheduled());
+        assertEquals(1, expire(wheel, 3_000_000).size());
+        assertFalse(timer.isScheduled());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimersDontFire() {
+        final TimerWheel wheel = new TimerWheel(TICK, 0);
+        final TimerWheel.Timer a = newTimer();
+        final TimerWheel.Timer b = newTimer();
+        wheel.schedule(a, 5 * TICK);
+        wheel.schedule(b, 5 * TICK);
+        wheel.cancel(a);
+
+        final List<TimerWheel.Timer> due = expire(wheel, 10 * TICK);
+        assertEquals(1, due.size());
+        assertSame(b, due.get(0));
+    }
+
+    @Test
+    void distantTimersCascadeDownWithoutFiringEarly() {
+        final TimerWheel wheel = new TimerWheel(TICK, 0);
+        final Random random = new Random(1);
+        final long[] deadlines = new long[2000];
+        final TimerWheel.Timer[] timers = new TimerWheel.Timer[deadlines.length];
+        for (int i = 0; i < deadlines.length; i++) {
+            // from under a tick to several levels up
+            deadlines[i] = (long) (Math.pow(2, random.nextDouble() * 26) * TICK / 4);
+            timers[i] = newTimer();
+            wheel.schedule(timers[i], deadlines[i]);
+        }
+        int fired = 0;
+        for (long now = 0; fired < deadlines.length; now += 7 * TICK) {
+            for (TimerWheel.Timer timer : expire(wheel, now)) {
+                assertTrue(timer.deadlineNS() <= now, timer + " fired early at " + now);
+                // no later than the first step after it was due
+                assertTrue(timer.deadlineNS() + 7 * TICK + TICK > now, timer + " fired late at " + now);
+                fired++;
+            }
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timersBeyondTheTopLevelAreParked() {
+        final TimerWheel wheel = new TimerWheel(1, 0);
+        final TimerWheel.Timer timer = newTimer();
+        // further than 64^6 ticks
+        final long deadline = 1L << 40;
+        wheel.schedule(timer, deadline);
+        wheel.schedule(newTimer(), 1);
+        assertEquals(1, expire(wheel, 1).size());
+        // doesn't turn one tick at a time to get there
+        assertTrue(expire(wheel, deadline / 2).isEmpty());
+        assertTrue(expire(wheel, deadline - 1).isEmpty());
+        assertEquals(1, expire(wheel, deadline).size());
+    }
+
+    @Test
+    void clearDropsEveryTimer() {
+        final TimerWheel wheel = new TimerWheel(TICK, 0);
+        final TimerWheel.Timer timer = newTimer();
+        wheel.schedule(timer, 100 * TICK);
+        wheel.clear();
+        assertEquals(0, wheel.size());
+        assertFalse(timer.isScheduled());
+        assertTrue(expire(wheel, 200 * TICK).isEmpty());
+    }
+}